@@ -0,0 +1,1257 @@
+package robot_war_summative;
+
+import becker.robots.*;
+import java.util.*;
+
+/**
+ * A single battle between FighterRobots.  The rules of the game live here, and every piece of
+ * game state belongs to the Battle instance rather than to the BattleManager.
+ */
+public class Battle {
+
+	// Constants used in the game to govern the max amount of health, energy, etc. 
+	static final int MAX_HEALTH = 100;
+	static final int MAX_ENERGY = 100;
+	static final int ATTACKER_ENERGY_CHANGE = 20;
+	static final int DEFENDER_ENERGY_CHANGE = 10;
+	static final int TIE_ENERGY_CHANGE = 5;
+	static final int MOVES_ENERGY_COST = 5;
+	static final int TURN_ENERGY_INCREASE = 1;
+	private static final int DEAD_FIGHTER_ID = -1; // K: The ID for when you don't want to attack anyone.
+	static final int NO_FIGHT_PENALTY = 1;
+	private static final int HEALTH_LOST_PENALTY = 1;
+	static final int WIN_FIGHT_HEALTH_GAINS = 2;
+	static final int WIN_DEFEND_FIGHT_HEALTH_GAINS = 1;
+	static final int KILLED_ROBOT_HEALTH_GAINS = 10;
+	static final int NUM_ROUNDS_OF_NO_FIGHTS = 5;
+	private static final int PENALTY_SAMPLE_SIZE = 10; // the number of penalties each player's statistics keep the turn of
+
+	// The rules recorded in the header of every replay, so a replay can tell if it was played under different ones.
+	static final int[] RULES = {MAX_HEALTH, MAX_ENERGY, ATTACKER_ENERGY_CHANGE, DEFENDER_ENERGY_CHANGE, TIE_ENERGY_CHANGE, MOVES_ENERGY_COST,
+			TURN_ENERGY_INCREASE, NO_FIGHT_PENALTY, HEALTH_LOST_PENALTY, WIN_FIGHT_HEALTH_GAINS, WIN_DEFEND_FIGHT_HEALTH_GAINS,
+			KILLED_ROBOT_HEALTH_GAINS, NUM_ROUNDS_OF_NO_FIGHTS};
+
+	private final boolean headless;                                 // true when the battle is simulated without animating the robots in the city
+	private final BattleLog log;                                    // where the events of the battle are written
+	private final boolean roundByRound;                             // true when fights are played round by round rather than resolved at once
+	private final boolean simultaneous;                             // true when every player decides its turn from the picture taken at the start of the round
+	private BattleRecorder replay;                                  // where the battle is recorded, or null when it is not
+	private Histogram[][] measured;                                 // the histograms of each player's class, indexed by ID and then Measure, or null
+	private OpponentProfiles.Game profiled;                         // what the battle shows of each player, for the profiles of their classes, or null
+	private final TurnTimer timer;                                  // calls the robots under their time budget or all at once, or null when they are called directly
+	private final long turnBudget;                                  // the longest a robot may take over a call, in milliseconds, or 0 for no limit
+	private int turns = 0;                                          // the number of turns taken so far
+	private int turnsEnded = 0;                                     // the number of turns over, whose energy increase is due to every player still in play
+	private int round = 0;                                          // the number of rounds over
+	private final int width;                                        // the number of avenues in the arena
+	private final int height;                                       // the number of streets in the arena
+	private final int numPlayers;
+	private City arena;
+	private FighterRobot [] player;
+	private int[] avenue;                                           // an array to keep track of the FighterRobots' avenue (index position refers to the robot ID#)
+	private int[] street;                                           // an array to keep track of the FighterRobots' street (index position refers to the robot ID#)
+	private Direction[] direction;                                  // an array to keep track of the direction the FighterRobots face (index position refers to the robot ID#)
+	private int[] health;                                           // an array to keep track of the FighterRobots' health (index position refers to the robot ID#)
+	private int[] energy;                                           // an array to keep track of the FighterRobots' energy as of the turn in energyTurns (index position refers to the robot ID#)
+	private int[] energyTurns;                                      // the number of turns whose energy increase has been added to each FighterRobot's energy
+	private int[] roundEnergy;                                      // each FighterRobot's energy at the start of a simultaneous round, which it decides its turn from
+	private int[] numFights;                                        // an array to keep track of the number of fights, a penalty will apply if robot does not initiate a fight in 5 rounds.
+	private int[] attack;                                           // the attack of each FighterRobot, copied so a replay can be played without the robots
+	private int[] defence;                                          // the defence of each FighterRobot
+	private int[] numMoves;                                         // the most moves each FighterRobot can make in a turn
+	private PlayerStats[] stats;
+	private int[] placement;                                        // where each FighterRobot finished, 1 for the winner and numPlayers for the first to die
+	private OpponentSnapshot opponents;                             // what the players are shown of each other, refreshed before each turn
+	private int[] alive;                                            // the IDs of the players alive at the start of the round, in order
+	private int numAlive;
+	private int num_lost = 0;
+	private final Roster roster;
+	private final long seed;
+	private final SplittableRandom random;                          // the root stream of the battle, every other stream is split from it
+	private final SplittableRandom combat;                          // the stream each fight splits its own dice stream from
+	private int[] attackDice = new int[CombatResolver.MAX_DICE];    // the attacker's rolls in a round played round by round, reused every round
+	private int[] defenceDice = new int[CombatResolver.MAX_DICE];   // the defender's rolls
+
+	/**
+	 * Sets up the arena and the players for a single battle with a random seed.
+	 * @param headless	true to simulate the battle without animating the robots in the city
+	 */
+	public Battle(boolean headless)
+	{
+		this(headless, new SplittableRandom().nextLong());
+	}
+
+	/**
+	 * Sets up the arena and the players for a single battle.  A headless battle writes nothing, while
+	 * an animated one prints everything to the console.
+	 * @param headless	true to simulate the battle without animating the robots in the city
+	 * @param seed		the seed of the battle's random numbers
+	 */
+	public Battle(boolean headless, long seed)
+	{
+		this(headless, seed, headless ? BattleLog.SILENT : BattleLog.toConsole(BattleLog.Verbosity.TRACE));
+	}
+
+	/**
+	 * Sets up the arena and the default roster of players for a single battle.
+	 * @param headless	true to simulate the battle without animating the robots in the city
+	 * @param seed		the seed of the battle's random numbers
+	 * @param log		where to write the events of the battle, closed once the battle is over
+	 */
+	public Battle(boolean headless, long seed, BattleLog log)
+	{
+		this(headless, seed, log, BattleConfig.DEFAULT);
+	}
+
+	/**
+	 * Sets up the arena of the default size and a roster of players for a single battle.
+	 * @param headless	true to simulate the battle without animating the robots in the city
+	 * @param seed		the seed of the battle's random numbers
+	 * @param log		where to write the events of the battle, closed once the battle is over
+	 * @param roster	the class of each player, one for every player ID
+	 */
+	public Battle(boolean headless, long seed, BattleLog log, Roster roster)
+	{
+		this(headless, seed, log, new BattleConfig(BattleManager.WIDTH, BattleManager.HEIGHT, roster));
+	}
+
+	/**
+	 * Sets up the arena and the players for a single battle.  Each Battle owns all of its state, so
+	 * several battles can be played at the same time on different threads, and every random number
+	 * it uses comes from streams split off the seed, so the same seed and configuration always play the same
+	 * game, however much of it is logged.
+	 * @param headless	true to simulate the battle without animating the robots in the city
+	 * @param seed		the seed of the battle's random numbers
+	 * @param log		where to write the events of the battle, closed once the battle is over
+	 * @param config	the size of the arena, the class of each player, how the players are asked for their turns and how fights are played
+	 */
+	public Battle(boolean headless, long seed, BattleLog log, BattleConfig config)
+	{
+		this.headless = headless;
+		this.roster = config.getRoster();
+		this.width = config.getWidth();
+		this.height = config.getHeight();
+		this.numPlayers = config.getNumPlayers();
+		this.log = log;
+		this.roundByRound = config.isRoundByRound();
+		this.simultaneous = config.isSimultaneous();
+		this.seed = seed;
+		this.random = new SplittableRandom(seed);
+		this.combat = this.random.split();
+		this.turnBudget = config.getTurnBudget();
+		this.timer = turnBudget > 0 || simultaneous ? new TurnTimer(turnBudget, numPlayers) : null;
+		allocatePlayers();
+		if (headless)
+		{
+			City.showFrame(false);
+			arena = new City(height, width);
+		}
+		else
+			createCity();
+		createPlayers();
+	}
+
+	/**
+	 * Sets up a battle to be played again from the game a replay archive is on, without the robots that
+	 * played it.  The fights roll the same dice as long as the battle plays out the same way, as they
+	 * come from the recorded seed.
+	 * @param game	the archive, on the game to play again
+	 */
+	Battle(ReplayReader game)
+	{
+		this.headless = true;
+		this.roster = null;
+		this.timer = null;
+		this.turnBudget = 0;
+		this.log = BattleLog.SILENT;
+		this.roundByRound = game.isRoundByRound();
+		this.simultaneous = game.isSimultaneous();
+		this.seed = game.getSeed();
+		this.random = new SplittableRandom(seed);
+		this.combat = this.random.split();
+		this.width = game.getWidth();
+		this.height = game.getHeight();
+		this.numPlayers = game.getNumPlayers();
+
+		if (width < 1 || height < 1 || numPlayers < 2)
+			throw new IllegalArgumentException("The game was played in a " + width + " by " + height + " arena with " + numPlayers + " players");
+		if (game.getNumRules() != RULES.length)
+			throw new IllegalArgumentException("The game was played with " + game.getNumRules() + " rules");
+		for (int r = 0; r < RULES.length; r++)
+		{
+			if (game.getRule(r) != RULES[r])
+				throw new IllegalArgumentException("Rule " + r + " of the game was " + game.getRule(r) + " rather than " + RULES[r]);
+		}
+
+		allocatePlayers();
+		for (int i = 0; i < numPlayers; i++)
+		{
+			initPlayer(i, game.getAttack(i), game.getDefence(i), game.getNumMoves(i));
+			avenue[i] = game.getStartAvenue(i);
+			street[i] = game.getStartStreet(i);
+			direction[i] = Direction.NORTH;
+		}
+	}
+
+	/**
+	 * Records the battle into a replay archive.  It must be called before the battle is played, and the
+	 * battle must be played on the thread that called it.
+	 * @param writer	the archive to record the battle into
+	 */
+	public void recordTo(ReplayWriter writer)
+	{
+		ReplayWriter.Game game = writer.startGame();
+		game.header(seed, roundByRound, simultaneous, width, height, RULES, player);
+		replay = game;
+	}
+
+	/**
+	 * Counts how the battle plays out into the histograms of each player's class.  It must be called
+	 * before the battle is played, and the battle must be played on the thread that writes to them.
+	 * @param distributions	the histograms to count into
+	 */
+	public void measureInto(Distributions distributions)
+	{
+		measured = new Histogram[numPlayers][];
+		for (int i = 0; i < numPlayers; i++)
+			measured[i] = distributions.forClass(player[i].getClass().getSimpleName());
+	}
+
+	/**
+	 * Gives the robots the profiles of their opponents' classes as they are now, and adds what the battle
+	 * shows of each player to the profile of its class once it is over.  It must be called before the
+	 * battle is played.
+	 * @param profiles	the store of profiles
+	 */
+	public void learnFrom(OpponentProfiles profiles)
+	{
+		profiled = profiles.startGame(player);
+		for (int i = 0; i < numPlayers; i++)
+			player[i].useProfiles(profiled.getProfiles());
+	}
+
+	/**
+	 * Takes turns until only one player is left alive.  Each round only visits the players that were
+	 * alive when it started, so a round costs the battle time in proportion to the players still in it.
+	 * @return	the number of turns taken
+	 */
+	public int play()
+	{
+		if (simultaneous)
+			return playSimultaneous();
+
+		OppData[] playerData = new OppData[numPlayers];
+
+		//continues to take turn until one player wins
+		while (num_lost < numPlayers - 1)
+		{
+			//each player will take turn
+			for (int n = 0; n < numAlive && num_lost < numPlayers - 1; n++)
+			{
+				int i = alive[n];
+				//the current player takes its turn if it is still in play 
+				if (health[i] > 0)
+				{
+					//update the Opponent data of the players that changed and send it as a parameter to the current player
+					EngineEvents.Snapshot snapshot = new EngineEvents.Snapshot();
+					snapshot.begin();
+					opponents.refresh(avenue, street, health);
+					opponents.copyInto(playerData);
+					snapshot.commitFor(i, player[i]);
+
+					startTurn(i);
+					TurnRequest request = timer == null ? EngineEvents.takeTurn(player[i], energy[i], playerData) : timer.takeTurn(player[i], energy[i], playerData);
+					boolean overran = request == null;
+					if (overran)
+					{
+						//a player that took too long stays where it is, and as it may still be using the array it is not refilled
+						request = new TurnRequest(avenue[i], street[i], DEAD_FIGHTER_ID, 0);
+						playerData = new OppData[numPlayers];
+					}
+					doTurn(i, request, overran);
+					endTurn();
+				}
+			}
+			removeDead();
+			round ++;
+		}
+		endBattle();
+		return turns;
+	}
+
+	/**
+	 * Takes rounds in which every player decides its turn at the same time until only one player is left alive.  The players
+	 * are all shown the battle as it was at the start of the round and asked on threads of their own, then their turns are
+	 * played one after the other, in order of ID starting from a different player every round, so none always goes first.
+	 * @return	the number of turns taken
+	 */
+	private int playSimultaneous()
+	{
+		OppData[][] playerData = new OppData[numPlayers][];
+		TurnRequest[] requests = new TurnRequest[numPlayers];
+
+		while (num_lost < numPlayers - 1)
+		{
+			//every player gets its own copy of the same records, and its energy as of the start of the round
+			EngineEvents.Snapshot snapshot = new EngineEvents.Snapshot();
+			snapshot.begin();
+			opponents.refresh(avenue, street, health);
+			startRound();
+			for (int n = 0; n < numAlive; n++)
+			{
+				int i = alive[n];
+				if (playerData[i] == null)
+					playerData[i] = new OppData[numPlayers];
+				opponents.copyInto(playerData[i]);
+			}
+			snapshot.commitFor(DEAD_FIGHTER_ID, null);
+			timer.takeTurns(player, alive, numAlive, roundEnergy, playerData, requests);
+
+			int first = firstInRound();
+			for (int k = 0; k < numAlive && num_lost < numPlayers - 1; k++)
+			{
+				int i = alive[(first + k) % numAlive];
+				if (health[i] > 0)
+				{
+					startTurn(i);
+					TurnRequest request = requests[i];
+					boolean overran = request == null;
+					if (overran)
+					{
+						request = new TurnRequest(avenue[i], street[i], DEAD_FIGHTER_ID, 0);
+						playerData[i] = null;
+					}
+					else
+						player[i].flushNotes(true);
+					doTurn(i, request, overran);
+					endTurn();
+				}
+			}
+			removeDead();
+			round ++;
+		}
+		endBattle();
+		return turns;
+	}
+
+	/**
+	 * Plays the battle again from the requests recorded in a replay archive instead of asking the
+	 * players, checking every outcome against the recorded one.  It stops at the first turn where they
+	 * differ.
+	 * @param verifier	the verifier reading the recorded game
+	 * @return	the number of turns taken
+	 */
+	int resimulate(ReplayVerifier verifier)
+	{
+		replay = verifier;
+		while (num_lost < numPlayers - 1 && !verifier.hasDiverged())
+		{
+			int first = 0;
+			if (simultaneous)
+			{
+				startRound();
+				first = firstInRound();
+			}
+			for (int k = 0; k < numAlive && num_lost < numPlayers - 1 && !verifier.hasDiverged(); k++)
+			{
+				int i = alive[(first + k) % numAlive];
+				if (health[i] > 0)
+				{
+					TurnRequest request = verifier.nextRequest(turns + 1, i);
+					if (request == null)
+						break;
+					playTurn(i, request, verifier.hasOverran());
+				}
+			}
+			removeDead();
+			round ++;
+		}
+		if (!verifier.hasDiverged())
+			endBattle();
+		return turns;
+	}
+
+	/**
+	 * Plays one turn of a player from a request, as if the player had made it, without asking the
+	 * player.  Used to play recorded turns and to time the battle on its own.
+	 * @param id		the ID of the player taking its turn
+	 * @param request	the request to play
+	 * @param overran	true if the player took longer than its time budget and the request is the one made for it
+	 */
+	void playTurn(int id, TurnRequest request, boolean overran)
+	{
+		startTurn(id);
+		doTurn(id, request, overran);
+		endTurn();
+	}
+
+	/**
+	 * Helper method used to drop the players that died during a round from the players the next round visits.
+	 */
+	private void removeDead()
+	{
+		int n = 0;
+		for (int k = 0; k < numAlive; k++)
+		{
+			if (health[alive[k]] > 0)
+				alive[n++] = alive[k];
+		}
+		numAlive = n;
+	}
+
+	/**
+	 * Helper method used to bring the energy of every player alive up to date at the start of a simultaneous round and keep
+	 * a copy of it, as every player decides its turn from its energy at that point.
+	 */
+	private void startRound()
+	{
+		for (int n = 0; n < numAlive; n++)
+		{
+			int i = alive[n];
+			settleEnergy(i);
+			roundEnergy[i] = energy[i];
+		}
+	}
+
+	/**
+	 * Helper method used to find where the turns of a simultaneous round start among the players alive, which is the first
+	 * player from the ID of the round's number onwards, going back round to the lowest ID once it passes the highest.
+	 * @return	the position in alive of the player to take the first turn
+	 */
+	private int firstInRound()
+	{
+		int n = Arrays.binarySearch(alive, 0, numAlive, round % numPlayers);
+		if (n < 0)
+			n = -n - 1;
+		return n == numAlive ? 0 : n;
+	}
+
+	/**
+	 * Helper method used to count a turn before a FighterRobot takes it.
+	 * @param id	the ID of the FighterRobot taking its turn
+	 */
+	private void startTurn(int id)
+	{
+		turns ++;
+		settleEnergy(id);
+		if (log.isEnabled(BattleLog.Verbosity.TURNS))
+		{
+			BattleEvent event = log.claim(BattleEvent.Type.TURN_STARTED, turns);
+			event.id = id;
+			event.energy = energy[id];
+			log.publish();
+		}
+	}
+
+	/**
+	 * Helper method used to give every FighterRobot still in play its energy for the turn once a turn is over.  The energy
+	 * is not added to every player here, which would cost a turn time in proportion to all the players, but to each player
+	 * the next time its energy is needed, by settleEnergy.
+	 */
+	private void endTurn()
+	{
+		turnsEnded ++;
+		if (log.isEnabled(BattleLog.Verbosity.TURNS))
+		{
+			log.claim(BattleEvent.Type.TURN_ENDED, turns);
+			log.publish();
+
+			// K: Printing out stats of each player.
+			for (int k = 0; k < numPlayers; k ++)
+			{
+				if (health[k] > 0)
+					settleEnergy(k);
+				BattleEvent event = log.claim(BattleEvent.Type.STATUS, turns);
+				event.id = k;
+				event.health = health[k];
+				event.energy = energy[k];
+				log.publish();
+			}
+		}
+	}
+
+	/**
+	 * Helper method used to add the energy a player still in play gained at the end of each turn since its energy was last
+	 * brought up to date.  Adding TURN_ENERGY_INCREASE once per turn, up to MAX_ENERGY, comes to the same as adding it for all
+	 * the turns at once.  It must be called before a player's energy is read or changed, and no later than when it dies.
+	 * @param id	the ID of the player
+	 */
+	private void settleEnergy(int id)
+	{
+		if (energyTurns[id] < turnsEnded)
+		{
+			energy[id] = (int) Math.min(MAX_ENERGY, energy[id] + (long) (turnsEnded - energyTurns[id]) * TURN_ENERGY_INCREASE);
+			energyTurns[id] = turnsEnded;
+		}
+	}
+
+	/**
+	 * Helper method used to close the log and finish the recording once the battle is over.
+	 */
+	private void endBattle()
+	{
+		int winner = getWinner();
+		if (winner != DEAD_FIGHTER_ID)
+		{
+			placement[winner] = 1;
+			measure(winner, Distributions.Measure.GAME_TURNS, turns);
+		}
+		log.close();
+		if (replay != null)
+		{
+			replay.end(turns, winner);
+			replay = null;
+		}
+		if (profiled != null)
+		{
+			profiled.end();
+			profiled = null;
+		}
+	}
+
+	/**
+	 * Prints out the overall stats after the battle is over.
+	 */
+	public void printStatistics()
+	{
+		// K: Printing out overall stats after the battle is over.
+		System.out.println("Player Statistics");
+		System.out.format("%-5s%-15s%-15s%-20s%-20s%-20s%-25s%-20s", "ID", "Rounds Won", "Rounds Loss", "Fights Initiated", "Fights Defended", "Number of Moves", "Number of Penalities", "Number of Kills");
+		System.out.println();
+		System.out.format("%39s%2s%-6s%-8s%-6s%-6s%-6s", "Wins", "", "Loss", "Ties", "Wins", "Loss", "Ties");
+		System.out.println();
+		for (int n = 0; n < numPlayers; n++)
+		{
+			System.out.format("%3d",n);
+			System.out.format("%7d", stats[n].getRoundsWin());
+			System.out.format("%15d", stats[n].getRoundsLoss());
+			System.out.format("%13d", stats[n].getFightsInitiatedWin());
+			System.out.format("%6d", stats[n].getFightsInitiatedLoss());
+			System.out.format("%6d", stats[n].getFightsInitiatedTie());
+			System.out.format("%7d", stats[n].getFightsDefendWin());
+			System.out.format("%6d", stats[n].getFightsDefendLoss());
+			System.out.format("%6d", stats[n].getFightsDefendTie());
+			System.out.format("%17d", stats[n].getTotalNumMoves());
+			System.out.format("%20d", stats[n].getNumPenalties());
+			System.out.format("%20d", stats[n].getNumKills());
+			System.out.println();
+		}
+		
+		System.out.println();
+		System.out.println("Penalties given to the following robots:");
+		for (int n = 0; n < numPlayers; n++)
+		{
+			System.out.println("ID #" + n);
+			for (Penalty penalty : Penalty.values())
+			{
+				if (stats[n].getNumPenalties(penalty) > 0)
+					System.out.println("\t" + stats[n].getNumPenalties(penalty) + " x " + penalty.getComment());
+			}
+			if (stats[n].getSampleSize() > 0)
+			{
+				System.out.print("\tFirst on turns");
+				for (int a = 0; a < stats[n].getSampleSize(); a++)
+					System.out.print(" " + stats[n].getSampleTurn(a));
+				System.out.println();
+			}
+		}
+	}
+
+	/**
+	 * Returns the ID of the last player alive, or the DEAD_FIGHTER_ID if the battle is not over yet.
+	 * @return	the ID of the winner
+	 */
+	public int getWinner()
+	{
+		if (num_lost < numPlayers - 1)
+			return DEAD_FIGHTER_ID;
+		for (int n = 0; n < numAlive; n++)
+		{
+			if (health[alive[n]] > 0)
+				return alive[n];
+		}
+		return DEAD_FIGHTER_ID;
+	}
+
+	/**
+	 * Returns where a player finished: 1 for the winner, 2 for the last to die and so on.
+	 * @param id	the ID of the player
+	 * @return	its place, or 0 if the battle is not over yet and it is still alive
+	 */
+	public int getPlacement(int id)
+	{
+		return placement[id];
+	}
+
+	/**
+	 * Returns the statistics of a player.
+	 * @param id	the ID of the player
+	 * @return	its statistics
+	 */
+	public PlayerStats getStats(int id)
+	{
+		return stats[id];
+	}
+
+	/**
+	 * Returns the roster the battle was created with.
+	 * @return	the roster, or null if the battle is played again from a replay
+	 */
+	public Roster getRoster()
+	{
+		return roster;
+	}
+
+	/**
+	 * Returns the seed the battle was created with.
+	 * @return	the seed
+	 */
+	public long getSeed()
+	{
+		return seed;
+	}
+
+	/**
+	 * Returns the number of players in the battle, alive or dead.
+	 * @return	the number of players
+	 */
+	public int getNumPlayers()
+	{
+		return numPlayers;
+	}
+
+	/**
+	 * Returns the FighterRobot with the given ID.
+	 * @param id	the ID of the player
+	 * @return	the player, or null if the battle is played again from a replay
+	 */
+	public FighterRobot getPlayer(int id)
+	{
+		return player[id];
+	}
+
+	/**
+	 * Helper method used to sets up the arena
+	 */
+	private void createCity(){       
+		arena = new City(height,width);
+
+		// Build walls for the arena
+		for (int i = 0; i<width; i++)
+		{
+			Wall topWalls = new Wall (arena, 0, i, Direction.NORTH);
+			Wall bottomWalls = new Wall (arena, height-1, i, Direction.SOUTH);
+		}
+
+		for (int i = 0; i<height; i++)
+		{
+			Wall leftWalls = new Wall (arena, i, 0, Direction.WEST);
+			Wall rightWalls = new Wall (arena, i, width-1, Direction.EAST);
+		}
+	}
+
+	/**
+	 * Helper method used to create the arrays that keep track of the players, once the number of players is known.
+	 */
+	private void allocatePlayers()
+	{
+		player = new FighterRobot[numPlayers];
+		avenue = new int[numPlayers];
+		street = new int[numPlayers];
+		direction = new Direction[numPlayers];
+		health = new int[numPlayers];
+		energy = new int[numPlayers];
+		energyTurns = new int[numPlayers];
+		roundEnergy = simultaneous ? new int[numPlayers] : null;
+		numFights = new int[numPlayers];
+		attack = new int[numPlayers];
+		defence = new int[numPlayers];
+		numMoves = new int[numPlayers];
+		stats = new PlayerStats[numPlayers];
+		placement = new int[numPlayers];
+		opponents = simultaneous ? new OpponentSnapshot.Shared(numPlayers, width, height) : new OpponentSnapshot(numPlayers, width, height);
+		alive = new int[numPlayers];
+		for (int i = 0; i < numPlayers; i++)
+			alive[i] = i;
+		numAlive = numPlayers;
+	}
+
+	/**
+	 * Helper method used to sets up the players and randomly place them in the arena
+	 */
+	private void createPlayers()
+	{
+		SplittableRandom generator = random.split();
+		// create robots for the arena 
+		for (int i = 0; i < numPlayers; i++)
+			player[i] = roster.create(i, arena, generator.nextInt(height), generator.nextInt(width), MAX_HEALTH);
+		
+		// K: Initializing all the arrays that keep track of stuff.
+		for (int i = 0; i < numPlayers; i++)
+		{
+			initPlayer(i, player[i].getAttack(), player[i].getDefence(), player[i].getNumMoves());
+			avenue[i] = player[i].getAvenue();
+			street[i] = player[i].getStreet();
+			direction[i] = player[i].getDirection();
+			if (headless)
+				player[i].runHeadless(avenue, street, direction);
+			player[i].useRandom(random.split());
+			player[i].useOpponents(opponents);
+			player[i].useLog(log);
+			player[i].useArena(width, height, numPlayers);
+			player[i].useTurnBudget(turnBudget);
+			if (timer != null)
+				player[i].holdNotes();
+		}
+	}
+
+	/**
+	 * Helper method used to set up the state the battle keeps for a player.
+	 * @param id		the ID of the player
+	 * @param a			its attack
+	 * @param d			its defence
+	 * @param moves		the most moves it can make in a turn
+	 */
+	private void initPlayer(int id, int a, int d, int moves)
+	{
+		stats[id] = new PlayerStats(PENALTY_SAMPLE_SIZE);
+		health[id] = MAX_HEALTH;
+		energy[id] = MAX_ENERGY;
+		energyTurns[id] = turnsEnded;
+		numFights[id] = 0;
+		attack[id] = a;
+		defence[id] = d;
+		numMoves[id] = moves;
+	}
+
+	/**
+	 * Helper method used to control the turn taking process involving the movement, fighting and defending between FighterRobots.
+	 * @param attackerID    The FighterRobot ID whose currently taking its turn.
+	 * @param request               The TurnRequest object sent by the FighterRobot whose currently taking its turn.
+	 * @param overran               True if the FighterRobot took longer than its time budget, and the request is the one made for it.
+	 */
+	private void doTurn(int attackerID, TurnRequest request, boolean overran)
+	{
+		
+		int numRounds = 0;
+		int defend_lost = 0;
+		int defenderID = request.getFightID();
+
+		// in a simultaneous round an attack on a player killed earlier in the same round lapses, as the attacker could not have known,
+		// and the attacker only moves.  Only the players that died this round are placed within the number alive when it started.
+		if (simultaneous && defenderID != DEAD_FIGHTER_ID && health[defenderID] == 0 && placement[defenderID] <= numAlive)
+		{
+			request = new TurnRequest(request.getEndAvenue(), request.getEndStreet(), DEAD_FIGHTER_ID, 0);
+			defenderID = DEAD_FIGHTER_ID;
+		}
+		// in the same way, a move the attacker had the energy for at the start of the round, but no longer has after losing energy in
+		// a fight earlier in the round, lapses and the attacker stays where it is, still asking for its fight.
+		if (simultaneous)
+		{
+			int cost = (Math.abs(avenue[attackerID] - request.getEndAvenue()) + Math.abs(street[attackerID] - request.getEndStreet())) * MOVES_ENERGY_COST;
+			if (cost > energy[attackerID] && cost <= roundEnergy[attackerID])
+				request = new TurnRequest(avenue[attackerID], street[attackerID], defenderID, request.getNumRounds());
+		}
+		int init_attack_health = health[attackerID];
+		
+		if (log.isEnabled(BattleLog.Verbosity.TURNS))
+		{
+			BattleEvent event = log.claim(BattleEvent.Type.TURN_REQUESTED, turns);
+			event.id = attackerID;
+			event.toAvenue = request.getEndAvenue();
+			event.toStreet = request.getEndStreet();
+			event.otherID = defenderID;
+			event.rounds = request.getNumRounds();
+			log.publish();
+		}
+		if (replay != null)
+			replay.turn(attackerID, avenue[attackerID], street[attackerID], request, overran);
+		if (profiled != null)
+			profiled.turn(attackerID);
+		if (overran)
+			applyPenalty(attackerID, HEALTH_LOST_PENALTY, Penalty.OVERRAN_TIME_BUDGET);
+
+		if (defenderID != DEAD_FIGHTER_ID && health[defenderID] == 0)
+		{
+			applyPenalty(attackerID, HEALTH_LOST_PENALTY, Penalty.ATTACKED_DEAD_ROBOT);
+		}
+		else
+		{
+			int init_defend_health = 0;
+			if (defenderID != DEAD_FIGHTER_ID)
+			{       init_defend_health = health[defenderID];
+				settleEnergy(defenderID);
+			}
+			
+			// K: Adding penalty if haven't faught in 5 rounds, (PS: The penalty resets after applied).
+			if (defenderID == DEAD_FIGHTER_ID)
+			{
+				numFights[attackerID] ++;
+				if (numFights[attackerID] == NUM_ROUNDS_OF_NO_FIGHTS)
+				{
+					applyPenalty(attackerID, NO_FIGHT_PENALTY, Penalty.NO_FIGHT);
+					numFights[attackerID] = 0;
+				}
+			}
+			else
+			{
+				numFights[attackerID] = 0;
+			}
+
+			int numOfMoves = Math.abs(avenue[attackerID] - request.getEndAvenue()) + Math.abs(street[attackerID] - request.getEndStreet());
+			EngineEvents.Validate validate = new EngineEvents.Validate();
+			validate.begin();
+			Penalty broken = checkRequest(attackerID, request, numOfMoves);
+			validate.commitFor(attackerID, player[attackerID]);
+			if (broken != null)
+			{
+				applyPenalty(attackerID, HEALTH_LOST_PENALTY, broken);
+			}
+			else
+			{
+				moveTo(attackerID, request.getEndAvenue(), request.getEndStreet());
+				energy[attackerID] = energy[attackerID] - (numOfMoves * MOVES_ENERGY_COST);
+				stats[attackerID].addTotalNumMoves(numOfMoves);
+				if (profiled != null)
+					profiled.moved(attackerID, numOfMoves);
+				
+				//      player dies if moved to the wrong location
+				if (avenue[attackerID] != request.getEndAvenue() || street[attackerID] != request.getEndStreet())
+				{
+					applyPenalty(attackerID, health[attackerID], Penalty.WRONG_LOCATION);
+				}
+				//      fight will occur if the player moves to meet the requested opponent
+				
+				else if (defenderID == attackerID)
+				{
+					applyPenalty(attackerID, HEALTH_LOST_PENALTY, Penalty.FOUGHT_SELF);
+				}
+				else if (defenderID != DEAD_FIGHTER_ID)
+				{
+					int attackerHealthLost = 0;
+					int defenderHealthLost = 0;
+					
+					//      fight only occurs if the player's location is the same as the requested opponent
+					if (energy[attackerID] > 0 && avenue[attackerID]==avenue[defenderID] && street[attackerID]==street[defenderID])
+					{
+						EngineEvents.Combat fight = new EngineEvents.Combat();
+						fight.begin();
+						// each fight rolls from its own stream, so how many dice one fight rolls never changes the rolls of the next
+						SplittableRandom generator = combat.split();
+						if (!roundByRound)
+						{
+							// the whole fight is decided with one draw, the rounds won and lost follow from the health each side lost
+							int outcome = FightResolver.resolve(generator, attack[attackerID], defence[defenderID], request.getNumRounds(),
+									energy[attackerID], health[attackerID], energy[defenderID], health[defenderID]);
+							numRounds = FightResolver.getRounds(outcome);
+							attackerHealthLost = FightResolver.getAttackerHealthLost(outcome);
+							defenderHealthLost = FightResolver.getDefenderHealthLost(outcome);
+							health[attackerID] -= attackerHealthLost;
+							health[defenderID] -= defenderHealthLost;
+							energy[attackerID] = FightResolver.getAttackerEnergy(outcome);
+							energy[defenderID] = FightResolver.getDefenderEnergy(outcome);
+							stats[attackerID].addRoundsWin(defenderHealthLost);
+							stats[attackerID].addRoundsLoss(attackerHealthLost);
+							stats[defenderID].addRoundsWin(attackerHealthLost);
+							stats[defenderID].addRoundsLoss(defenderHealthLost);
+						}
+						else
+						{
+							for (int n = 0; n < request.getNumRounds(); n ++)
+							{
+								if (energy[attackerID] > 0 && health[attackerID] > 0 && health[defenderID] > 0)
+								{
+									numRounds ++;
+									if (energy[defenderID] <= 0) 
+									{
+										defenderHealthLost ++;  
+										health[defenderID] -= 1;
+										energy[attackerID] = energy[attackerID] + ATTACKER_ENERGY_CHANGE;
+										stats[defenderID].addRoundsLoss();
+										stats[attackerID].addRoundsWin();                                                                       
+									}
+									else
+									{
+										// a robot with more than MAX_DICE of attack or defence rolls them all, so the buffers grow for it
+										int numAttackDice = attack[attackerID];
+										int numDefenceDice = defence[defenderID];
+										if (attackDice.length < numAttackDice)
+											attackDice = new int[numAttackDice];
+										if (defenceDice.length < numDefenceDice)
+											defenceDice = new int[numDefenceDice];
+										int attackerHighest = CombatResolver.rollDice(generator, attackDice, numAttackDice);
+										int defenderHighest = CombatResolver.rollDice(generator, defenceDice, numDefenceDice);
+
+										//output the results from the dice rolled
+										if (log.isEnabled(BattleLog.Verbosity.ROUNDS))
+										{
+											CombatResolver.sortDice(attackDice, numAttackDice);
+											CombatResolver.sortDice(defenceDice, numDefenceDice);
+											BattleEvent event = log.claim(BattleEvent.Type.ROUND_ROLLED, turns);
+											event.id = attackerID;
+											event.otherID = defenderID;
+											event.setRolls(attackDice, numAttackDice, defenceDice, numDefenceDice);
+											log.publish();
+										}
+
+										//match up the highest numbered rolled from the attacker and defender
+										int result = CombatResolver.compare(attackerHighest, defenderHighest);
+									
+										if (result == CombatResolver.DEFENDER_WINS)
+										{
+											attackerHealthLost ++;  
+											health[attackerID] -= 1;
+											energy[attackerID] = energy[attackerID] - ATTACKER_ENERGY_CHANGE;
+											energy[defenderID] = energy[defenderID] + DEFENDER_ENERGY_CHANGE;                                                                       
+											stats[attackerID].addRoundsLoss();
+											stats[defenderID].addRoundsWin();
+										}
+										else if (result == CombatResolver.TIE)
+										{
+											energy[attackerID] = energy[attackerID] - TIE_ENERGY_CHANGE;
+											energy[defenderID] = energy[defenderID] - TIE_ENERGY_CHANGE;                                                                                                                                            
+										}
+										else
+										{
+											defenderHealthLost ++;  
+											health[defenderID] -= 1;
+											energy[defenderID] = energy[defenderID] - DEFENDER_ENERGY_CHANGE;
+											energy[attackerID] = energy[attackerID] + ATTACKER_ENERGY_CHANGE;
+											stats[defenderID].addRoundsLoss();
+											stats[attackerID].addRoundsWin();                                                                       
+										}
+
+									}
+								}
+								//adjust energy level
+								if (energy[attackerID] < 0)
+									energy[attackerID] = 0;
+								else if (energy[attackerID] > MAX_ENERGY)
+									energy[attackerID] = MAX_ENERGY;
+							
+								if (energy[defenderID] < 0)
+									energy[defenderID] = 0;
+								else if (energy[defenderID] > MAX_ENERGY)
+									energy[defenderID] = MAX_ENERGY;
+							
+								//adjust health level
+								if (health[attackerID] < 0)
+									health[attackerID] = 0;
+							
+								if (health[defenderID] < 0)
+									health[defenderID] = 0;
+							}
+
+						}
+
+						fight.commitFor(attackerID, player[attackerID]);
+						if (replay != null)
+							replay.fight(numRounds, attackerHealthLost, defenderHealthLost, energy[attackerID], energy[defenderID]);
+
+						// K: Updates PlayerStats and adjusts health of the two fighters after the entire fight.
+						EngineEvents.AdjustStats adjust = new EngineEvents.AdjustStats();
+						adjust.begin();
+						adjustStats(attackerID, defenderID, attackerHealthLost, defenderHealthLost);
+						adjust.commitFor(attackerID, player[attackerID]);
+						measure(attackerID, Distributions.Measure.FIGHT_ROUNDS, numRounds);
+						measure(attackerID, Distributions.Measure.FIGHT_HEALTH_LOST, attackerHealthLost);
+						measure(defenderID, Distributions.Measure.FIGHT_HEALTH_LOST, defenderHealthLost);
+						if (profiled != null)
+							profiled.fight(attackerID, defenderID, numRounds, attackerHealthLost, defenderHealthLost);
+
+						if (log.isEnabled(BattleLog.Verbosity.RESULTS))
+						{
+							BattleEvent event = log.claim(BattleEvent.Type.FIGHT_RESOLVED, turns);
+							event.id = attackerID;
+							event.otherID = defenderID;
+							event.rounds = numRounds;
+							event.healthLost = attackerHealthLost;
+							event.otherHealthLost = defenderHealthLost;
+							event.energy = energy[attackerID];
+							event.otherEnergy = energy[defenderID];
+							event.health = health[attackerID];
+							event.otherHealth = health[defenderID];
+							log.publish();
+						}
+					}
+					else if(energy[attackerID] <= 0)
+					{
+						// a fight the attacker still had the energy for at the start of a simultaneous round lapses like its move would
+						if (!simultaneous || roundEnergy[attackerID] - numOfMoves * MOVES_ENERGY_COST <= 0)
+							applyPenalty(attackerID, HEALTH_LOST_PENALTY, Penalty.NOT_ENOUGH_ENERGY_TO_FIGHT);
+					}
+					else{
+						applyPenalty(attackerID, 0, Penalty.MISSED_OPPONENT);
+					}
+				}
+			}
+			//calculate change in health of attacker and defender
+		
+			int attacker_lost = init_attack_health - health[attackerID];
+			if (defenderID != DEAD_FIGHTER_ID)
+			{
+				defend_lost = init_defend_health - health[defenderID];
+				//      return battle result to defender, unless the battle is played again from a replay without the robots
+				if (player[defenderID] != null)
+					reportResult(defenderID, defend_lost, attackerID, attacker_lost, numRounds);
+				
+				if (health[defenderID]==0)
+					playerDied(defenderID, attackerID);
+			}
+		}
+		int attacker_lost = init_attack_health - health[attackerID];
+		//only the attacker and the defender can change during a turn
+		opponents.markChanged(attackerID);
+		if (defenderID != DEAD_FIGHTER_ID)
+			opponents.markChanged(defenderID);
+
+		//return battle result to attacker
+		if (player[attackerID] != null)
+			reportResult(attackerID, attacker_lost, defenderID, defend_lost, numRounds);
+		if (health[attackerID]==0)
+			playerDied(attackerID, defenderID);
+	}
+
+	/**
+	 * Helper method used to check a request against the rules before the FighterRobot is moved.
+	 * @param attackerID	the ID of the FighterRobot taking its turn
+	 * @param request		its request
+	 * @param numOfMoves	the number of moves the request takes
+	 * @return	the rule the request breaks, or null if it breaks none
+	 */
+	private Penalty checkRequest(int attackerID, TurnRequest request, int numOfMoves)
+	{
+		//requested location is beyond the battlefield
+		if (request.getEndAvenue() > width - 1 || request.getEndStreet() > height - 1 || request.getEndStreet() < 0 || request.getEndAvenue() < 0)
+			return Penalty.BEYOND_BATTLEFIELD;
+		//requested location requires more than the maximum number of moves designated by player
+		if (numOfMoves > numMoves[attackerID])
+			return Penalty.TOO_MANY_MOVES;
+		//requested location requires more than the available energy
+		if ((energy[attackerID] - numOfMoves * MOVES_ENERGY_COST) < 0)
+			return Penalty.NOT_ENOUGH_ENERGY_TO_MOVE;
+		//penalty applies if requested number of rounds of fight is greater than the attack power assigned
+		if (attack[attackerID] < request.getNumRounds() || request.getNumRounds() < -1)
+			return Penalty.INVALID_ROUNDS;
+		return null;
+	}
+
+	/**
+	 * Helper method used to tell a FighterRobot the result of its turn or of a fight it was attacked in.  A robot that takes longer than
+	 * its time budget to hear it has the penalty noted in its statistics, but loses no health, since it is not the one taking its turn.
+	 * @param id				the ID of the FighterRobot
+	 * @param healthLost		the health it lost
+	 * @param oppID				the ID of its opponent, or the DEAD_FIGHTER_ID
+	 * @param oppHealthLost		the health its opponent lost
+	 * @param numRoundsFought	the number of rounds fought
+	 */
+	private void reportResult(int id, int healthLost, int oppID, int oppHealthLost, int numRoundsFought)
+	{
+		if (timer == null || !timer.isTimed())
+		{
+			player[id].battleResult(healthLost, oppID, oppHealthLost, numRoundsFought);
+			player[id].flushNotes(true);
+		}
+		else if (!timer.battleResult(player[id], healthLost, oppID, oppHealthLost, numRoundsFought))
+		{
+			stats[id].addPenalty(Penalty.OVERRAN_TIME_BUDGET, 0, turns);
+			if (log.isEnabled(BattleLog.Verbosity.RESULTS))
+			{
+				BattleEvent event = log.claim(BattleEvent.Type.PENALTY_APPLIED, turns);
+				event.id = id;
+				event.penalty = Penalty.OVERRAN_TIME_BUDGET;
+				event.points = 0;
+				log.publish();
+			}
+		}
+		if (!headless)
+		{
+			EngineEvents.SetLabel label = new EngineEvents.SetLabel();
+			label.begin();
+			player[id].setLabel();
+			label.commitFor(id, player[id]);
+		}
+	}
+
+	/**
+	 * Helper method used to count a kill in a FighterRobot's statistics, and the turn of its first.
+	 * @param id	the ID of the FighterRobot that killed
+	 */
+	private void countKill(int id)
+	{
+		stats[id].addNumKills();
+		if (stats[id].getNumKills() == 1)
+			measure(id, Distributions.Measure.FIRST_KILL_TURN, turns);
+	}
+
+	/**
+	 * Helper method used to count a value in the histogram of a FighterRobot's class, if the battle is measured.
+	 * @param id		the ID of the FighterRobot
+	 * @param measure	what the value is
+	 * @param value		the value
+	 */
+	private void measure(int id, Distributions.Measure measure, int value)
+	{
+		if (measured != null)
+			measured[id][measure.ordinal()].record(value);
+	}
+
+	/**
+	 * Helper method used to count a FighterRobot out of the battle once its health reaches 0.
+	 * @param id		the ID of the FighterRobot that died
+	 * @param otherID	the ID of the FighterRobot it was fighting, or the DEAD_FIGHTER_ID
+	 */
+	private void playerDied(int id, int otherID)
+	{
+		// its energy stays as it was when it died
+		settleEnergy(id);
+		placement[id] = numPlayers - num_lost;
+		num_lost ++;
+		if (log.isEnabled(BattleLog.Verbosity.RESULTS))
+		{
+			BattleEvent event = log.claim(BattleEvent.Type.PLAYER_DIED, turns);
+			event.id = id;
+			event.otherID = otherID;
+			log.publish();
+		}
+	}
+	
+	/**
+	 * Helper method used to move a FighterRobot to its requested location and record where it ended up.  When headless, the
+	 * robot is placed directly and faces the way its last leg of the walk would have left it; otherwise it walks there itself.
+	 * @param id	the ID of the FighterRobot to move
+	 * @param a		the requested avenue
+	 * @param s		the requested street
+	 */
+	private void moveTo(int id, int a, int s)
+	{
+		int fromAvenue = avenue[id];
+		int fromStreet = street[id];
+		EngineEvents.Move move = new EngineEvents.Move();
+		move.begin();
+		if (headless)
+		{
+			if (s > street[id])
+				direction[id] = Direction.SOUTH;
+			else if (s < street[id])
+				direction[id] = Direction.NORTH;
+			else if (a > avenue[id])
+				direction[id] = Direction.EAST;
+			else if (a < avenue[id])
+				direction[id] = Direction.WEST;
+			avenue[id] = a;
+			street[id] = s;
+		}
+		else
+		{
+			player[id].goToLocation(a, s);
+			avenue[id] = player[id].getAvenue();
+			street[id] = player[id].getStreet();
+			direction[id] = player[id].getDirection();
+		}
+		move.commitFor(id, player[id]);
+		if (replay != null)
+			replay.move(avenue[id] - a, street[id] - s);
+		if (log.isEnabled(BattleLog.Verbosity.TURNS))
+		{
+			BattleEvent event = log.claim(BattleEvent.Type.MOVED, turns);
+			event.id = id;
+			event.avenue = fromAvenue;
+			event.street = fromStreet;
+			event.toAvenue = avenue[id];
+			event.toStreet = street[id];
+			log.publish();
+		}
+	}
+	
+	/**
+	 * Helper method used to take health away from a FighterRobot that broke a rule and record why.
+	 * @param attackerID	the ID of the FighterRobot taking its turn
+	 * @param numPenalty	the health to take away
+	 * @param penalty		the rule that was broken
+	 */
+	private void applyPenalty(int attackerID, int numPenalty, Penalty penalty)
+	{
+		// prevent the robot from going into negative health due to penalties
+		if (health[attackerID] < numPenalty)
+			health[attackerID] = 0;
+		else
+			health[attackerID] -= numPenalty;
+		
+		stats[attackerID].addPenalty(penalty, numPenalty, turns);
+		if (replay != null)
+			replay.penalty(penalty, numPenalty);
+		if (log.isEnabled(BattleLog.Verbosity.RESULTS))
+		{
+			BattleEvent event = log.claim(BattleEvent.Type.PENALTY_APPLIED, turns);
+			event.id = attackerID;
+			event.penalty = penalty;
+			event.points = numPenalty;
+			log.publish();
+		}
+	}
+	
+	// K: HL = health lost, probably
+	private void adjustStats(int attackerID, int defenderID, int attackerHL, int defenderHL)
+	{
+		//add number of fights win, loss or tie
+		if (health[attackerID] > 0 && health[defenderID] > 0)
+		{
+			if (attackerHL > defenderHL)
+			{
+				stats[defenderID].addFightsDefendWin();
+				stats[attackerID].addFightsInitiatedLoss();
+				if (health[defenderID] + WIN_DEFEND_FIGHT_HEALTH_GAINS < MAX_HEALTH)
+					health[defenderID] += WIN_DEFEND_FIGHT_HEALTH_GAINS;
+				else
+					health[defenderID] = MAX_HEALTH;
+			}
+			else if (attackerHL < defenderHL)
+			{
+				stats[defenderID].addFightsDefendLoss();
+				stats[attackerID].addFightsInitiatedWin();
+				if (health[attackerID] + WIN_FIGHT_HEALTH_GAINS < MAX_HEALTH)
+					health[attackerID] += WIN_FIGHT_HEALTH_GAINS;
+				else
+					health[attackerID] = MAX_HEALTH;
+			}
+			else
+			{
+				stats[defenderID].addFightsDefendTie();
+				stats[attackerID].addFightsInitiatedTie();
+			}
+		}
+		//add number of kills for player statistics
+		else if (health[attackerID] == 0 && health[defenderID] > 0)
+		{
+			countKill(defenderID);
+			stats[defenderID].addFightsDefendWin();
+			stats[attackerID].addFightsInitiatedLoss();
+			if (health[defenderID] + WIN_DEFEND_FIGHT_HEALTH_GAINS < MAX_HEALTH)
+				health[defenderID] += WIN_DEFEND_FIGHT_HEALTH_GAINS;
+			else
+				health[defenderID] = MAX_HEALTH;
+
+			if (health[defenderID] + KILLED_ROBOT_HEALTH_GAINS < MAX_HEALTH)
+				health[defenderID] += KILLED_ROBOT_HEALTH_GAINS;
+			else
+				health[defenderID] = MAX_HEALTH;
+		}
+		else if (health[defenderID] == 0 && health[attackerID] > 0)
+		{
+			countKill(attackerID);
+			stats[attackerID].addFightsInitiatedWin();
+			stats[defenderID].addFightsDefendLoss();
+			
+			if (health[attackerID] + WIN_FIGHT_HEALTH_GAINS < MAX_HEALTH)
+				health[attackerID] += WIN_FIGHT_HEALTH_GAINS;
+			else
+				health[attackerID] = MAX_HEALTH;
+			
+			if (health[attackerID] + KILLED_ROBOT_HEALTH_GAINS < MAX_HEALTH)
+				health[attackerID] += KILLED_ROBOT_HEALTH_GAINS;
+			else
+				health[attackerID] = MAX_HEALTH;
+		}
+	}
+}
@@ -0,0 +1,207 @@
+package robot_war_summative;
+
+/**
+ * The size of the arena and the roster of players a battle is played with.  The default is the
+ * arena of BattleManager.WIDTH by BattleManager.HEIGHT with the default roster, but any size and any
+ * number of players can be used, for example a 200 by 200 arena with 5,000 robots.
+ *
+ * A battle keeps a fixed amount of state per player and per turn does work in proportion to the
+ * players still alive, apart from copying the opponents' records into the array handed to the robot.
+ * Measured headless in a 200 by 200 arena with 5,000 players, the battle's own state (its arrays, the
+ * OpponentSnapshot and a PlayerStats for each player) is about 500 bytes a player, or 2.4 MB.  It does
+ * not grow with the number of penalties, as PlayerStats counts them by kind and keeps the turns of only
+ * the first few.  The robots come on top of that: the robot objects themselves, and whatever each
+ * robot keeps about its opponents.  A DengFighterRobot keeps 24 bytes of BattleData and a 20 byte
+ * place in its TargetHeap for every player, so a battle of only DengFighterRobots grows with the
+ * square of the number of players, to about 1.1 GB for 5,000 of them.
+ *
+ * A configuration can also give the robots a time budget.  Each call to a robot's takeTurn or
+ * battleResult is then made on a thread of its own, and a robot that takes longer than the budget is
+ * not waited for: it stays where it is for that turn and is penalized.  Without a budget the robots
+ * are called directly, which is much faster, and a game only depends on its seed.
+ *
+ * Normally the players take their turns one after the other, each seeing where the ones before it
+ * moved.  In a simultaneous battle every player instead decides its turn from the same picture of the
+ * battle taken at the start of the round, and the players are asked at the same time on threads of
+ * their own, so a round of slow robots takes about as long as its slowest robot on each processor.
+ * Their turns are then played one after the other, in order of ID starting from a different player
+ * every round.  A turn planned from the start of the round that an earlier turn has overtaken, an attack
+ * on a player already killed or a move or fight paid for with energy since lost in a fight, lapses
+ * without a penalty.  Every player keeps its own array of records for the round, which costs 4 to 8 bytes
+ * per player for every player.
+ *
+ * A fight is normally decided with one draw from FightResolver.  A battle can instead play its fights
+ * round by round, rolling every die, which is slower but lets a log at BattleLog.Verbosity.ROUNDS show
+ * each roll.  The two draw differently from the battle's random numbers, so a seed plays a different
+ * game in each, and a game can only be played again in the way it was first played.
+ */
+public class BattleConfig {
+
+	/** The arena and roster the battle has always been played with. */
+	public static final BattleConfig DEFAULT = new BattleConfig(BattleManager.WIDTH, BattleManager.HEIGHT, Roster.DEFAULT);
+
+	private final int width;
+	private final int height;
+	private final Roster roster;
+	private final long turnBudget;
+	private final boolean simultaneous;
+	private final boolean roundByRound;
+
+	/**
+	 * Creates a configuration without a time budget.
+	 * @param width		the number of avenues in the arena
+	 * @param height	the number of streets in the arena
+	 * @param roster	the class of each player, which also sets the number of players
+	 * @throws IllegalArgumentException	if the arena is empty or there are fewer than two players
+	 */
+	public BattleConfig(int width, int height, Roster roster)
+	{
+		this(width, height, roster, 0);
+	}
+
+	/**
+	 * Creates a configuration where the players take their turns one after the other.
+	 * @param width			the number of avenues in the arena
+	 * @param height		the number of streets in the arena
+	 * @param roster		the class of each player, which also sets the number of players
+	 * @param turnBudget	the longest a robot may take over a call, in milliseconds, or 0 for no limit
+	 * @throws IllegalArgumentException	if the arena is empty, there are fewer than two players or the budget is negative
+	 */
+	public BattleConfig(int width, int height, Roster roster, long turnBudget)
+	{
+		this(width, height, roster, turnBudget, false);
+	}
+
+	/**
+	 * Creates a configuration.
+	 * @param width			the number of avenues in the arena
+	 * @param height		the number of streets in the arena
+	 * @param roster		the class of each player, which also sets the number of players
+	 * @param turnBudget	the longest a robot may take over a call, in milliseconds, or 0 for no limit
+	 * @param simultaneous	true if every player decides its turn at the same time, from the same picture of the battle
+	 * @throws IllegalArgumentException	if the arena is empty, there are fewer than two players or the budget is negative
+	 */
+	public BattleConfig(int width, int height, Roster roster, long turnBudget, boolean simultaneous)
+	{
+		this(width, height, roster, turnBudget, simultaneous, false);
+	}
+
+	/**
+	 * Creates a configuration.
+	 * @param width			the number of avenues in the arena
+	 * @param height		the number of streets in the arena
+	 * @param roster		the class of each player, which also sets the number of players
+	 * @param turnBudget	the longest a robot may take over a call, in milliseconds, or 0 for no limit
+	 * @param simultaneous	true if every player decides its turn at the same time, from the same picture of the battle
+	 * @param roundByRound	true if fights are played round by round rather than decided with one draw
+	 * @throws IllegalArgumentException	if the arena is empty, there are fewer than two players or the budget is negative
+	 */
+	public BattleConfig(int width, int height, Roster roster, long turnBudget, boolean simultaneous, boolean roundByRound)
+	{
+		if (width < 1 || height < 1)
+			throw new IllegalArgumentException("An arena of " + width + " by " + height);
+		if (roster.size() < 2)
+			throw new IllegalArgumentException("A battle of " + roster.size() + " players");
+		if (turnBudget < 0)
+			throw new IllegalArgumentException("A time budget of " + turnBudget + " ms");
+		this.width = width;
+		this.height = height;
+		this.roster = roster;
+		this.turnBudget = turnBudget;
+		this.simultaneous = simultaneous;
+		this.roundByRound = roundByRound;
+	}
+
+	/**
+	 * Reads an arena size written as the width and height separated by an "x", such as "200x200".
+	 * @param size			the size of the arena
+	 * @param roster		the class of each player
+	 * @param turnBudget	the longest a robot may take over a call, in milliseconds, or 0 for no limit
+	 * @param simultaneous	true if every player decides its turn at the same time
+	 * @param roundByRound	true if fights are played round by round
+	 * @return	the configuration
+	 * @throws IllegalArgumentException	if the size can not be read
+	 */
+	public static BattleConfig parse(String size, Roster roster, long turnBudget, boolean simultaneous, boolean roundByRound)
+	{
+		int x = size.indexOf('x');
+		if (x < 0)
+			throw new IllegalArgumentException("An arena size is written as the width and height, such as 200x200, not " + size);
+		return new BattleConfig(Integer.parseInt(size.substring(0, x).trim()), Integer.parseInt(size.substring(x + 1).trim()), roster, turnBudget, simultaneous, roundByRound);
+	}
+
+	/**
+	 * Returns the number of avenues in the arena.
+	 * @return	the width of the arena
+	 */
+	public int getWidth()
+	{
+		return this.width;
+	}
+
+	/**
+	 * Returns the number of streets in the arena.
+	 * @return	the height of the arena
+	 */
+	public int getHeight()
+	{
+		return this.height;
+	}
+
+	/**
+	 * Returns the number of players.
+	 * @return	the number of players
+	 */
+	public int getNumPlayers()
+	{
+		return this.roster.size();
+	}
+
+	/**
+	 * Returns the class of each player.
+	 * @return	the roster
+	 */
+	public Roster getRoster()
+	{
+		return this.roster;
+	}
+
+	/**
+	 * Returns the longest a robot may take over a call to takeTurn or battleResult.
+	 * @return	the budget in milliseconds, or 0 for no limit
+	 */
+	public long getTurnBudget()
+	{
+		return this.turnBudget;
+	}
+
+	/**
+	 * Tells whether every player decides its turn at the same time, from the same picture of the battle.
+	 * @return	true for a simultaneous battle, false if the players take their turns one after the other
+	 */
+	public boolean isSimultaneous()
+	{
+		return this.simultaneous;
+	}
+
+	/**
+	 * Tells whether fights are played round by round, rolling every die, rather than decided with one draw.
+	 * @return	true if fights are played round by round
+	 */
+	public boolean isRoundByRound()
+	{
+		return this.roundByRound;
+	}
+
+	public String toString()
+	{
+		String s = this.width + "x" + this.height + " " + this.roster;
+		if (this.turnBudget > 0)
+			s += " " + this.turnBudget + " ms";
+		if (this.simultaneous)
+			s += " simultaneous";
+		if (this.roundByRound)
+			s += " round by round";
+		return s;
+	}
+}
@@ -1,75 +1,129 @@
 package robot_war_summative;
 
+import java.util.Arrays;
+
 /**
- * Creating a class to extend OppData in order to store more information.
+ * Creating a class to store more information about every opponent than OppData does. The records are kept
+ * in arrays indexed by the opponents' IDs, so a record is found without searching and takes no object of its own.
  * @author Kevin D
  */
 
-public class BattleData extends OppData {
-	private int healthLost = 0, roundsFought = 0, maxMoves = 0;
+public class BattleData {
+	private final int[] avenue, street, health, healthLost, roundsFought, maxMoves;
+
+	/**
+	 * Constructor to set up a record for every player, with no position (-1, -1) and no health until they're first updated.
+	 * @param numPlayers The number of players.
+	 */
+	public BattleData(int numPlayers) {
+		this.avenue = new int[numPlayers];
+		this.street = new int[numPlayers];
+		this.health = new int[numPlayers];
+		this.healthLost = new int[numPlayers];
+		this.roundsFought = new int[numPlayers];
+		this.maxMoves = new int[numPlayers];
+		Arrays.fill(this.avenue, -1);
+		Arrays.fill(this.street, -1);
+	}
+
+	/**
+	 * Returns the number of records.
+	 * @return The number of players.
+	 */
+	public int size() {
+		return this.health.length;
+	}
 
 	/**
-	 * Constructor to set up a BattleData record.
+	 * Updates an opponent's position and health. Once its position is known, how far it moved also updates the known maximum number of moves.
 	 * @param id The ID of the opponent.
 	 * @param a The opponent's avenue.
 	 * @param s The opponent's street.
 	 * @param health The opponent's health.
 	 */
-	public BattleData(int id, int a, int s, int health) {
-		super(id, a, s, health);
+	public void update(int id, int a, int s, int health) {
+		if(this.avenue[id] != -1 && this.street[id] != -1) {
+			this.setMaxMoves(id, Math.abs(a - this.avenue[id]) + Math.abs(s - this.street[id]));
+		}
+		this.avenue[id] = a;
+		this.street[id] = s;
+		this.health[id] = health;
+	}
+
+	public int getAvenue(int id) {
+		return this.avenue[id];
+	}
+
+	public int getStreet(int id) {
+		return this.street[id];
+	}
+
+	public int getHealth(int id) {
+		return this.health[id];
 	}
-	
+
 	/**
-	 * Returns the total health lost from previous encounters with this opponent.
+	 * Returns the total health lost from previous encounters with an opponent.
+	 * @param id The ID of the opponent.
 	 * @return The health lost.
 	 */
-	public int getHealthLost() {
-		return this.healthLost;
+	public int getHealthLost(int id) {
+		return this.healthLost[id];
 	}
-	
+
 	/**
-	 * Adding to the total amount of health lost from encounters with this opponent.
+	 * Adding to the total amount of health lost from encounters with an opponent.
+	 * @param id The ID of the opponent.
 	 * @param loss The amount of health lost from this round.
 	 */
-	public void addHealthLost(int loss) {
-		this.healthLost += loss;
+	public void addHealthLost(int id, int loss) {
+		this.healthLost[id] += loss;
 	}
-	
+
 	/**
-	 * Returns the number of times the fighter has fought this opponent before.
+	 * Returns the number of times the fighter has fought an opponent before.
+	 * @param id The ID of the opponent.
 	 * @return The number of fights.
 	 */
-	public int getRoundsFought() {
-		return this.roundsFought;
+	public int getRoundsFought(int id) {
+		return this.roundsFought[id];
 	}
-	
+
 	/**
-	 * Adds one round to the number of times that the fighter has fought this opponent.
+	 * Adds one round to the number of times that the fighter has fought an opponent.
+	 * @param id The ID of the opponent.
 	 */
-	public void addRoundsFought() {
-		this.roundsFought++;
+	public void addRoundsFought(int id) {
+		this.roundsFought[id]++;
 	}
-	
+
 	/**
-	 * Returns the potential maximum number of movement points for this opponent.
+	 * Returns the potential maximum number of movement points for an opponent.
+	 * @param id The ID of the opponent.
 	 * @return The max number of moves.
 	 */
-	public int getMaxMoves() {
-		return this.maxMoves;
+	public int getMaxMoves(int id) {
+		return this.maxMoves[id];
 	}
-	
+
 	/**
 	 * Updating the known maximum number of moves of an opponent in order to determine the maximum bounds of its other points.
+	 * @param id The ID of the opponent.
 	 * @param moves The number of moves the opponent moved this round.
 	 */
-	public void setMaxMoves(int moves) {
+	public void setMaxMoves(int id, int moves) {
 		// If this round's moves is greater than the current known maxMoves, update it.
-		if(moves > this.maxMoves) {
-			this.maxMoves = moves;
+		if(moves > this.maxMoves[id]) {
+			this.maxMoves[id] = moves;
 		}
 	}
-	
-	public String toString() {
-		return "**ID: " + this.getID() + " HL: " + this.getHealthLost() + " (" + this.getAvenue() + ", " + this.getStreet() + ") H: " + this.getHealth() + " R: " + this.getRoundsFought() + " M: " + this.getMaxMoves() + "**";
+
+	/**
+	 * Describes the record of an opponent.
+	 * @param id The ID of the opponent.
+	 * @return The description.
+	 */
+	public String toString(int id) {
+		return "**ID: " + id + " HL: " + this.healthLost[id] + " (" + this.avenue[id] + ", " + this.street[id] + ") H: " + this.health[id] + " R: " + this.roundsFought[id] + " M: " + this.maxMoves[id] + "**";
 	}
 }
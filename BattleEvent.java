@@ -0,0 +1,195 @@
+package robot_war_summative;
+
+/**
+ * Something that happened in a battle, as written to a BattleLog.  Events are reused: the log keeps a
+ * fixed ring of them and the battle fills one in place for every event, so logging allocates nothing.
+ * A sink must therefore copy anything it wants to keep before it returns.
+ *
+ * Which fields are filled in depends on the type of the event.
+ */
+public class BattleEvent {
+
+	/**
+	 * The kinds of events, with the fields each one fills in.
+	 */
+	public enum Type
+	{
+		/** A player is about to take its turn: id and energy. */
+		TURN_STARTED,
+		/** A player asked for its move and fight: id, toAvenue, toStreet, otherID (the player to fight, or -1) and rounds. */
+		TURN_REQUESTED,
+		/** A player moved: id, avenue, street, toAvenue and toStreet. */
+		MOVED,
+		/** One round of a fight was rolled die by die: id, otherID, the attack and defence rolls. */
+		ROUND_ROLLED,
+		/** A fight is over: id, otherID, rounds, healthLost, otherHealthLost, energy, otherEnergy, health and otherHealth. */
+		FIGHT_RESOLVED,
+		/** A player was penalized: id, penalty and points (the health taken away). */
+		PENALTY_APPLIED,
+		/** A player's health reached 0: id and otherID (the player it was fighting, or -1). */
+		PLAYER_DIED,
+		/** A turn is over, and a STATUS event follows for every player. */
+		TURN_ENDED,
+		/** A player's state at the end of a turn: id, health and energy. */
+		STATUS,
+		/** A robot wrote a note about its own decisions: id and text. */
+		ROBOT_NOTE
+	}
+
+	Type type;
+	int turn;
+	int id;
+	int otherID;
+	int avenue;
+	int street;
+	int toAvenue;
+	int toStreet;
+	int energy;
+	int otherEnergy;
+	int health;
+	int otherHealth;
+	int healthLost;
+	int otherHealthLost;
+	int rounds;
+	Penalty penalty;
+	int points;
+	String text;
+	final int[] attackRolls = new int[CombatResolver.MAX_DICE];
+	int numAttackRolls;
+	final int[] defenceRolls = new int[CombatResolver.MAX_DICE];
+	int numDefenceRolls;
+
+	/**
+	 * Sets up a reused event for a new type, at a turn.
+	 */
+	void reset(Type type, int turn)
+	{
+		this.type = type;
+		this.turn = turn;
+		this.penalty = null;
+		this.text = null;
+		this.numAttackRolls = 0;
+		this.numDefenceRolls = 0;
+	}
+
+	/**
+	 * Copies the sorted rolls of one round into the event, keeping the highest CombatResolver.MAX_DICE of each.
+	 */
+	void setRolls(int[] attackDice, int numAttackDice, int[] defenceDice, int numDefenceDice)
+	{
+		this.numAttackRolls = Math.min(numAttackDice, this.attackRolls.length);
+		System.arraycopy(attackDice, numAttackDice - this.numAttackRolls, this.attackRolls, 0, this.numAttackRolls);
+		this.numDefenceRolls = Math.min(numDefenceDice, this.defenceRolls.length);
+		System.arraycopy(defenceDice, numDefenceDice - this.numDefenceRolls, this.defenceRolls, 0, this.numDefenceRolls);
+	}
+
+	public Type getType()
+	{
+		return this.type;
+	}
+
+	public int getTurn()
+	{
+		return this.turn;
+	}
+
+	public int getID()
+	{
+		return this.id;
+	}
+
+	public int getOtherID()
+	{
+		return this.otherID;
+	}
+
+	public int getAvenue()
+	{
+		return this.avenue;
+	}
+
+	public int getStreet()
+	{
+		return this.street;
+	}
+
+	public int getToAvenue()
+	{
+		return this.toAvenue;
+	}
+
+	public int getToStreet()
+	{
+		return this.toStreet;
+	}
+
+	public int getEnergy()
+	{
+		return this.energy;
+	}
+
+	public int getOtherEnergy()
+	{
+		return this.otherEnergy;
+	}
+
+	public int getHealth()
+	{
+		return this.health;
+	}
+
+	public int getOtherHealth()
+	{
+		return this.otherHealth;
+	}
+
+	public int getHealthLost()
+	{
+		return this.healthLost;
+	}
+
+	public int getOtherHealthLost()
+	{
+		return this.otherHealthLost;
+	}
+
+	public int getRounds()
+	{
+		return this.rounds;
+	}
+
+	public Penalty getPenalty()
+	{
+		return this.penalty;
+	}
+
+	public int getPoints()
+	{
+		return this.points;
+	}
+
+	public String getText()
+	{
+		return this.text;
+	}
+
+	public int getNumAttackRolls()
+	{
+		return this.numAttackRolls;
+	}
+
+	public int getAttackRoll(int i)
+	{
+		return this.attackRolls[i];
+	}
+
+	public int getNumDefenceRolls()
+	{
+		return this.numDefenceRolls;
+	}
+
+	public int getDefenceRoll(int i)
+	{
+		return this.defenceRolls[i];
+	}
+}
@@ -0,0 +1,364 @@
+package robot_war_summative;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintStream;
+import java.io.Writer;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Carries a battle's events to a sink on a separate thread, so the battle never waits on the console.
+ *
+ * The battle fills events in a fixed ring and publishes them with a single ordered write; the writer
+ * thread hands them to the sink and frees the slots the same way, so neither side takes a lock.  The
+ * battle only waits if the sink falls a whole ring behind.
+ *
+ * Before building an event the battle asks isEnabled, so a silent log costs one comparison per event
+ * and never starts a thread.
+ *
+ * The sink is flushed whenever the writer has caught up with the battle, so a console shows the battle
+ * as it is played.  If the sink fails, the log reports it once on System.err and writes nothing more,
+ * but the battle carries on: the writer keeps freeing slots, so the battle never waits on a dead sink.
+ */
+public class BattleLog {
+
+	/**
+	 * How much of a battle is written, each level including everything of the levels before it.
+	 */
+	public enum Verbosity
+	{
+		/** Nothing at all. */
+		SILENT,
+		/** Penalties, fight results and deaths. */
+		RESULTS,
+		/** The start and end of every turn, what each player asked for and every move. */
+		TURNS,
+		/** Every round of every fight, die by die, in a battle configured to play its fights round by round. */
+		ROUNDS,
+		/** Notes the robots write about their own decisions. */
+		TRACE
+	}
+
+	/**
+	 * Where the events of a battle end up.  Only the log's writer thread calls it.
+	 */
+	public interface Sink
+	{
+		/**
+		 * Writes one event.  The event is reused once this returns.
+		 * @param event	the event
+		 */
+		void write(BattleEvent event);
+
+		/**
+		 * Passes on whatever the sink has buffered.  Called whenever every event published so far has been written.
+		 */
+		void flush();
+
+		/**
+		 * Called once the last event of the battle has been written.
+		 */
+		void close();
+	}
+
+	/** A log that writes nothing, shared by every silent battle. */
+	public static final BattleLog SILENT = new BattleLog(Verbosity.SILENT, null);
+
+	private static final int CAPACITY = 1024;		// the number of events in the ring, a power of two
+	private static final long IDLE_PARK_NANOS = 100000;
+
+	private final Verbosity verbosity;
+	private final Sink sink;
+	private final BattleEvent[] ring;
+	private final AtomicLong published = new AtomicLong(-1);	// the sequence number of the last event the battle filled in
+	private final AtomicLong written = new AtomicLong(-1);		// the sequence number of the last event the sink was given
+	private long claimed = -1;									// only touched by the battle
+	private int turn;											// the turn of the last event claimed, for the robots' notes
+	private volatile boolean closed;
+	private volatile RuntimeException failure;					// why the sink stopped working, or null while it works
+	private Thread writer;
+
+	/**
+	 * Creates a log.
+	 * @param verbosity	how much of the battle to write
+	 * @param sink		where to write it, can be null when the log is silent
+	 */
+	public BattleLog(Verbosity verbosity, Sink sink)
+	{
+		this.verbosity = verbosity;
+		this.sink = sink;
+		if (verbosity == Verbosity.SILENT)
+		{
+			this.ring = null;
+			return;
+		}
+
+		this.ring = new BattleEvent[CAPACITY];
+		for (int i = 0; i < CAPACITY; i++)
+			this.ring[i] = new BattleEvent();
+		this.writer = new Thread(this::drain, "battle-log");
+		this.writer.setDaemon(true);
+		this.writer.start();
+	}
+
+	/**
+	 * Creates a log that prints to the console.
+	 * @param verbosity	how much of the battle to print
+	 * @return	the log
+	 */
+	public static BattleLog toConsole(Verbosity verbosity)
+	{
+		if (verbosity == Verbosity.SILENT)
+			return SILENT;
+		return new BattleLog(verbosity, new PrintSink(System.out));
+	}
+
+	/**
+	 * Checks whether events of a level are written, which should be asked before building one.
+	 * @param level	the level of the event
+	 * @return	true if events of that level are written
+	 */
+	public boolean isEnabled(Verbosity level)
+	{
+		return level != Verbosity.SILENT && this.verbosity.compareTo(level) >= 0 && this.failure == null;
+	}
+
+	/**
+	 * Takes the next free event in the ring to fill in.  Only the battle's own thread may call this,
+	 * and it must call publish before claiming another one.
+	 * @param type	the type of the event
+	 * @param turn	the turn the event happened in
+	 * @return	the event to fill in
+	 */
+	BattleEvent claim(BattleEvent.Type type, int turn)
+	{
+		long next = this.claimed + 1;
+		while (next - this.written.get() > CAPACITY)
+			Thread.yield();
+		this.claimed = next;
+		this.turn = turn;
+
+		BattleEvent event = this.ring[(int) (next & (CAPACITY - 1))];
+		event.reset(type, turn);
+		return event;
+	}
+
+	/**
+	 * Writes a note from a robot about its own decisions, in the turn of the last event the battle wrote.
+	 * Like claim, it may only be called from the battle's own thread.
+	 * @param id	the ID of the robot
+	 * @param text	the note
+	 */
+	void note(int id, String text)
+	{
+		BattleEvent event = this.claim(BattleEvent.Type.ROBOT_NOTE, this.turn);
+		event.id = id;
+		event.text = text;
+		this.publish();
+	}
+
+	/**
+	 * Hands the event last claimed over to the writer thread.
+	 */
+	void publish()
+	{
+		this.published.lazySet(this.claimed);
+	}
+
+	/**
+	 * Waits for every published event to be written and closes the sink.  Does nothing for a silent log.
+	 */
+	public void close()
+	{
+		if (this.writer == null)
+			return;
+		this.closed = true;
+		LockSupport.unpark(this.writer);
+		try
+		{
+			this.writer.join();
+		}
+		catch (InterruptedException e)
+		{
+			Thread.currentThread().interrupt();
+		}
+		this.writer = null;
+	}
+
+	/**
+	 * The writer thread: hands every published event to the sink, flushing it and parking briefly when there are none.
+	 */
+	private void drain()
+	{
+		long next = 0;
+		boolean unflushed = false;
+		while (true)
+		{
+			long last = this.published.get();
+			if (last < next)
+			{
+				if (this.closed && this.published.get() < next)
+					break;
+				if (unflushed && this.failure == null)
+				{
+					try
+					{
+						this.sink.flush();
+					}
+					catch (RuntimeException e)
+					{
+						this.fail(e);
+					}
+				}
+				unflushed = false;
+				LockSupport.parkNanos(IDLE_PARK_NANOS);
+				continue;
+			}
+			for (; next <= last; next++)
+			{
+				if (this.failure == null)
+				{
+					try
+					{
+						this.sink.write(this.ring[(int) (next & (CAPACITY - 1))]);
+					}
+					catch (RuntimeException e)
+					{
+						this.fail(e);
+					}
+				}
+				this.written.lazySet(next);
+			}
+			unflushed = true;
+		}
+		if (this.failure == null)
+		{
+			try
+			{
+				this.sink.close();
+			}
+			catch (RuntimeException e)
+			{
+				this.fail(e);
+			}
+		}
+	}
+
+	/**
+	 * Helper method used by the writer thread when the sink fails.  The failure is reported and kept, which turns the log off,
+	 * so the battle stops building events and the writer only frees the slots of those already published.
+	 * @param e	the failure
+	 */
+	private void fail(RuntimeException e)
+	{
+		this.failure = e;
+		System.err.println("The battle log stopped writing: " + e);
+	}
+
+	/**
+	 * A sink that prints events as the lines the battle used to print to the console.
+	 */
+	public static class PrintSink implements Sink
+	{
+		private final Writer out;
+
+		/**
+		 * Creates a sink that prints to a stream, buffering the output.
+		 * @param stream	the stream to print to
+		 */
+		public PrintSink(PrintStream stream)
+		{
+			this.out = new BufferedWriter(new OutputStreamWriter(stream), 1 << 16);
+		}
+
+		public void write(BattleEvent event)
+		{
+			try
+			{
+				this.out.write(format(event));
+			}
+			catch (IOException e)
+			{
+				throw new RuntimeException(e);
+			}
+		}
+
+		public void flush()
+		{
+			try
+			{
+				this.out.flush();
+			}
+			catch (IOException e)
+			{
+				throw new RuntimeException(e);
+			}
+		}
+
+		public void close()
+		{
+			this.flush();
+		}
+
+		/**
+		 * Formats an event as one or more lines of text.
+		 * @param event	the event
+		 * @return	the text, ending in a new line
+		 */
+		public static String format(BattleEvent event)
+		{
+			StringBuilder text = new StringBuilder();
+			switch (event.getType())
+			{
+			case TURN_STARTED:
+				if (event.getTurn() > 1)
+					text.append("******************************************\n");
+				text.append("Player id ").append(event.getID()).append(" initial energy level ").append(event.getEnergy()).append('\n');
+				break;
+			case TURN_REQUESTED:
+				text.append("fighting id: ").append(event.getOtherID()).append('\n');
+				break;
+			case MOVED:
+				text.append("ID ").append(event.getID()).append(" moved from (").append(event.getAvenue()).append(", ").append(event.getStreet())
+					.append(") to (").append(event.getToAvenue()).append(", ").append(event.getToStreet()).append(")\n");
+				break;
+			case ROUND_ROLLED:
+				text.append("Attacker rolled: ");
+				for (int a = 0; a < event.getNumAttackRolls(); a++)
+					text.append(event.getAttackRoll(a)).append(' ');
+				text.append(" Defender rolled: ");
+				for (int d = 0; d < event.getNumDefenceRolls(); d++)
+					text.append(event.getDefenceRoll(d)).append(' ');
+				text.append('\n');
+				text.append("\t highest number: attacker ").append(event.getAttackRoll(event.getNumAttackRolls() - 1))
+					.append(" defender ").append(event.getDefenceRoll(event.getNumDefenceRolls() - 1)).append('\n');
+				break;
+			case FIGHT_RESOLVED:
+				text.append("Energy Result: Attacker ID ").append(event.getID()).append(" energy: ").append(event.getEnergy())
+					.append(" Defender ID ").append(event.getOtherID()).append(" energy: ").append(event.getOtherEnergy()).append('\n');
+				text.append("Health Result: Attacker ID ").append(event.getID()).append(" health ").append(event.getHealth())
+					.append(" Defender ID ").append(event.getOtherID()).append(" health ").append(event.getOtherHealth()).append('\n');
+				break;
+			case PENALTY_APPLIED:
+				text.append("ID ").append(event.getID()).append(' ').append(event.getPenalty().getComment())
+					.append(" (-").append(event.getPoints()).append(")\n");
+				break;
+			case PLAYER_DIED:
+				text.append("ID ").append(event.getID()).append(" died\n");
+				break;
+			case TURN_ENDED:
+				text.append("Turn Result:\n");
+				break;
+			case STATUS:
+				text.append("ID ").append(event.getID()).append(" Health ").append(event.getHealth()).append(" Energy ").append(event.getEnergy()).append('\n');
+				break;
+			case ROBOT_NOTE:
+				text.append(event.getText()).append('\n');
+				break;
+			}
+			return text.toString();
+		}
+	}
+}
@@ -1,469 +1,357 @@
 package robot_war_summative;
 
-import becker.robots.*;
-import java.util.*;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
 
 public class BattleManager {
 
-	// Public constants for the width and height of the arena as well as the number of players.  Can be used in other classes by saying BattleManager.WIDTH for example.
+	// Public constants for the default width and height of the arena as well as the default number of players.  A battle can be set up with
+	// any other size through a BattleConfig, so robots should ask FighterRobot for the size of the arena they are in rather than use these.
 	public static final int WIDTH = 20;
 	public static final int HEIGHT = 12;
 	public static final int NUM_PLAYERS = 6;
 
-	// Constants used in the game to govern the max amount of health, energy, etc. 
-	private static final int NUM_SIDES_ON_DICE = 10;
-	private static final int MAX_HEALTH = 100;
-	private static final int MAX_ENERGY = 100;
-	private static final int ATTACKER_ENERGY_CHANGE = 20;
-	private static final int DEFENDER_ENERGY_CHANGE = 10;
-	private static final int TIE_ENERGY_CHANGE = 5;
-	private static final int MOVES_ENERGY_COST = 5;
-	private static final int TURN_ENERGY_INCREASE = 1;
-	private static final int DEAD_FIGHTER_ID = -1; // K: The ID for when you don't want to attack anyone.
-	private static final int NO_FIGHT_PENALTY = 1;
-	private static final int HEALTH_LOST_PENALTY = 1;
-	private static final int WIN_FIGHT_HEALTH_GAINS = 2;
-	private static final int WIN_DEFEND_FIGHT_HEALTH_GAINS = 1;
-	private static final int KILLED_ROBOT_HEALTH_GAINS = 10;
-	private static final int NUM_ROUNDS_OF_NO_FIGHTS = 5;
-
-	private static City arena = new City(HEIGHT,WIDTH);
-	private static FighterRobot [] player = new FighterRobot[NUM_PLAYERS];
-	private static int[] health = new int[NUM_PLAYERS];             // an array to keep track of the FighterRobots' health (index position refers to the robot ID#)
-	private static int[] energy = new int[NUM_PLAYERS];             // an array to keep track of the FighterRobots' energy (index position refers to the robot ID#)
-	private static int[] numFights = new int[NUM_PLAYERS];  // an array to keep track of the number of fights, a penalty will apply if robot does not initiate a fight in 5 rounds.
-	private static PlayerStats[] stats = new PlayerStats[NUM_PLAYERS];
-	private static int num_lost = 0;
+	// Every option the command line knows, each of which only some modes use
+	private static final List<String> OPTIONS = List.of("-record", "-profiles", "-arena", "-roster", "-budget", "-simultaneous", "-rounds", "-distributions");
 
 	/**
 	 * Main method that sets up the arena and controls the fighting process between the FightingRobots
-	 * @param args
+	 * @param args		pass "-seed" followed by a seed to replay a game, "-headless" followed by a number of games, a seed and
+	 * 					optionally how much to print (SILENT, RESULTS, TURNS, ROUNDS or TRACE) to simulate them without the city,
+	 * 					or "-tournament" followed by a number of games, threads and a seed to simulate them in parallel.  Either
+	 * 					can be followed by "-record" and a file to append the games to, "-scan" followed by a file
+	 * 					summarizes the games recorded in it, and "-verify" followed by a file plays them again to check
+	 * 					they still play out the same.  "-montecarlo" followed by a number of games, threads, a seed and the
+	 * 					precision wanted, then "-roster" and a list of robot classes for each matchup, plays the matchups
+	 * 					until their win rates are known to that precision.  "-headless", "-tournament", "-montecarlo" and "-seed" can
+	 * 					also be followed by "-arena" and a size such as 200x200, by "-budget" and the milliseconds a robot may take
+	 * 					over a call before it is penalized, by "-simultaneous" to have every robot decide its turn at the same time
+	 * 					and by "-rounds" to play every fight round by round, which a log at ROUNDS then shows die by die, and all
+	 * 					but "-montecarlo" by "-roster" and a list of robot classes such as Tank*10,Basic*4990.  A game played
+	 * 					with "-headless" prints its seed unless it is SILENT, so "-seed" can play it again with the same options.
+	 * 					"-tournament" can be followed by "-distributions" and the seconds between reports of how the games play
+	 * 					out by class of robot while it runs, or 0 to only report at the end.  "-headless", "-tournament" and "-seed"
+	 * 					can be followed by "-profiles" and a file of opponent profiles for the robots to learn from, which
+	 * 					every game played adds to.  An option a mode does not use is an error rather than being ignored
+	 * @throws IOException	if a replay archive cannot be read or written
 	 */
-	public static void main(String[] args) {
-		createCity();
-		createPlayers();
-
-		OppData[] playerData = new OppData[NUM_PLAYERS];
+	public static void main(String[] args) throws IOException {
+		int numArgs = args.length;
+		ReplayWriter replay = null;
+		OpponentProfiles profiles = null;
+		String arena = null;
+		String players = null;
+		long turnBudget = 0;
+		boolean simultaneous = false;
+		boolean roundByRound = false;
+		long reportEvery = -1;
+		allowOptions(args);
+		for (int i = 1; i < args.length; i++)
+		{
+			if (args[i].equals("-simultaneous"))
+			{
+				numArgs = Math.min(numArgs, i);
+				simultaneous = true;
+			}
+			else if (args[i].equals("-rounds"))
+			{
+				numArgs = Math.min(numArgs, i);
+				roundByRound = true;
+			}
+			else if (i == args.length - 1)
+				break;
+			else if (args[i].equals("-record") && replay == null)
+			{
+				numArgs = Math.min(numArgs, i);
+				replay = new ReplayWriter(Path.of(args[++i]));
+			}
+			else if (args[i].equals("-profiles") && profiles == null)
+			{
+				numArgs = Math.min(numArgs, i);
+				profiles = new OpponentProfiles(Path.of(args[++i]));
+			}
+			else if (args[i].equals("-arena"))
+			{
+				numArgs = Math.min(numArgs, i);
+				arena = args[++i];
+			}
+			else if (args[i].equals("-distributions"))
+			{
+				numArgs = Math.min(numArgs, i);
+				reportEvery = Long.parseLong(args[++i]);
+			}
+			else if (args[i].equals("-budget"))
+			{
+				numArgs = Math.min(numArgs, i);
+				turnBudget = Long.parseLong(args[++i]);
+			}
+			else if (args[i].equals("-roster") && !args[0].equals("-montecarlo"))
+			{
+				numArgs = Math.min(numArgs, i);
+				players = args[++i];
+			}
+		}
 
-		//continues to take turn until one player wins
-		while (num_lost < NUM_PLAYERS - 1)
+		if (args.length > 1 && args[0].equals("-scan"))
 		{
-			//each player will take turn
-			for (int i = 0; i < NUM_PLAYERS; i++)
+			scan(Path.of(args[1]));
+			return;
+		}
+		if (args.length > 1 && args[0].equals("-verify"))
+		{
+			verify(Path.of(args[1]));
+			return;
+		}
+		if (args.length > 0 && args[0].equals("-montecarlo"))
+		{
+			List<Roster> rosters = new ArrayList<Roster>();
+			int numPositional = numArgs;
+			for (int i = numArgs - 2; i > 0; i--)
 			{
-				if (num_lost < NUM_PLAYERS - 1)
+				if (args[i].equals("-roster"))
 				{
-					//create updated Opponent data of each player and sends as a parameter to the current player
-					for (int j = 0; j < NUM_PLAYERS; j++)
-					{
-						if (health[j] <= 0)
-							playerData[j] = new OppData(j, -1, -1, 0);
-						else
-							playerData[j] = new OppData(j, player[j].getAvenue(), player[j].getStreet(), health[j]);
-					}
-
-					//the current player takes its turn if it is still in play 
-					if (health[i] > 0)
-					{
-						System.out.println("Player id " + i + " initial energy level " + energy[i]);
-						doTurn(i, player[i].takeTurn(energy[i], playerData));
-						System.out.println("Turn Result:");
-						
-						// K: Updating energy levels and printing out stats of each player still in play.
-						for (int k = 0; k < NUM_PLAYERS; k ++)
-						{
-							if (health[k] > 0)
-							{
-								if (energy[k] + TURN_ENERGY_INCREASE <= MAX_ENERGY)
-									energy[k] += TURN_ENERGY_INCREASE;
-								else
-									energy[k] = MAX_ENERGY;
-							}
-							System.out.println("ID " + k + " Health " + health[k] + " Energy " + energy[k]);
-						}
-						System.out.println("******************************************");
-					}
+					rosters.add(0, Roster.parse(args[i + 1]));
+					numPositional = i;
 				}
 			}
+			if (rosters.isEmpty())
+				rosters.add(Roster.DEFAULT);
+			int numGames = numPositional > 1 ? Integer.parseInt(args[1]) : 10000;
+			int numThreads = numPositional > 2 ? Integer.parseInt(args[2]) : Runtime.getRuntime().availableProcessors();
+			long seed = numPositional > 3 ? Long.parseLong(args[3]) : System.nanoTime();
+			double precision = numPositional > 4 ? Double.parseDouble(args[4]) : 0.02;
+			new MonteCarloTournament(rosters, numGames, numThreads, seed, precision)
+					.withConfig(config(arena, null, turnBudget, simultaneous, roundByRound)).run().print();
+			return;
+		}
+		if (args.length > 0 && args[0].equals("-headless"))
+		{
+			int numGames = numArgs > 1 ? Integer.parseInt(args[1]) : 1;
+			long seed = numArgs > 2 ? Long.parseLong(args[2]) : System.nanoTime();
+			BattleLog.Verbosity verbosity = numArgs > 3 ? BattleLog.Verbosity.valueOf(args[3].toUpperCase()) : BattleLog.Verbosity.SILENT;
+			try
+			{
+				runHeadless(numGames, seed, verbosity, config(arena, players, turnBudget, simultaneous, roundByRound), replay, profiles);
+			}
+			finally
+			{
+				if (replay != null)
+					replay.close();
+				if (profiles != null)
+					profiles.close();
+			}
+			return;
+		}
+		if (args.length > 0 && args[0].equals("-tournament"))
+		{
+			int numGames = numArgs > 1 ? Integer.parseInt(args[1]) : 1;
+			int numThreads = numArgs > 2 ? Integer.parseInt(args[2]) : Runtime.getRuntime().availableProcessors();
+			long seed = numArgs > 3 ? Long.parseLong(args[3]) : System.nanoTime();
+			try
+			{
+				Tournament tournament = new Tournament(numGames, numThreads, seed).recordTo(replay).learnFrom(profiles)
+						.withConfig(config(arena, players, turnBudget, simultaneous, roundByRound));
+				if (reportEvery >= 0)
+					tournament.withDistributions(reportEvery);
+				tournament.run().print();
+			}
+			finally
+			{
+				if (replay != null)
+					replay.close();
+				if (profiles != null)
+					profiles.close();
+			}
+			return;
 		}
 
-		// K: Printing out overall stats after the battle is over.
-		System.out.println("Player Statistics");
-		System.out.format("%-5s%-15s%-15s%-20s%-20s%-20s%-25s%-20s", "ID", "Rounds Won", "Rounds Loss", "Fights Initiated", "Fights Defended", "Number of Moves", "Number of Penalities", "Number of Kills");
-		System.out.println();
-		System.out.format("%39s%2s%-6s%-8s%-6s%-6s%-6s", "Wins", "", "Loss", "Ties", "Wins", "Loss", "Ties");
-		System.out.println();
-		for (int n = 0; n < NUM_PLAYERS; n++)
+		long seed = args.length > 1 && args[0].equals("-seed") ? Long.parseLong(args[1]) : System.nanoTime();
+		BattleConfig config = config(arena, players, turnBudget, simultaneous, roundByRound);
+		Battle battle = new Battle(false, seed, BattleLog.toConsole(BattleLog.Verbosity.TRACE), config);
+		System.out.println("Seed: " + seed + options(config));
+		try
 		{
-			System.out.format("%3d",n);
-			System.out.format("%7d", stats[n].getRoundsWin());
-			System.out.format("%15d", stats[n].getRoundsLoss());
-			System.out.format("%13d", stats[n].getFightsInitiatedWin());
-			System.out.format("%6d", stats[n].getFightsInitiatedLoss());
-			System.out.format("%6d", stats[n].getFightsInitiatedTie());
-			System.out.format("%7d", stats[n].getFightsDefendWin());
-			System.out.format("%6d", stats[n].getFightsDefendLoss());
-			System.out.format("%6d", stats[n].getFightsDefendTie());
-			System.out.format("%17d", stats[n].getTotalNumMoves());
-			System.out.format("%20d", stats[n].getNumPenalties());
-			System.out.format("%20d", stats[n].getNumKills());
-			System.out.println();
+			if (profiles != null)
+				battle.learnFrom(profiles);
+			battle.play();
 		}
-		
-		System.out.println();
-		System.out.println("Penalties given to the following robots:");
-		for (int n = 0; n < NUM_PLAYERS; n++)
+		finally
 		{
-			System.out.println("ID #" + n);
-			ArrayList comments = stats[n].getPenalitiesComments();
-			for (int a = 0; a < comments.size(); a++)
-				System.out.println("\t" + comments.get(a));
+			if (profiles != null)
+				profiles.close();
 		}
+		battle.printStatistics();
 	}
 
 	/**
-	 * Helper method used to sets up the arena
+	 * Checks that the command line only gives the options its mode uses, before any of them is acted on, so an option is
+	 * never silently ignored.
+	 * @param args	the command line, starting with its mode
+	 * @throws IllegalArgumentException	if an option its mode does not use is given
 	 */
-	private static void createCity(){       
-		// Build walls for the arena
-		for (int i = 0; i<WIDTH; i++)
+	private static void allowOptions(String[] args)
+	{
+		String mode = args.length > 0 && args[0].startsWith("-") ? args[0] : "-seed";
+		List<String> allowed;
+		switch (mode)
 		{
-			Wall topWalls = new Wall (arena, 0, i, Direction.NORTH);
-			Wall bottomWalls = new Wall (arena, HEIGHT-1, i, Direction.SOUTH);
+			case "-scan":
+			case "-verify":
+				allowed = List.of();
+				break;
+			case "-montecarlo":
+				allowed = List.of("-roster", "-arena", "-budget", "-simultaneous", "-rounds");
+				break;
+			case "-headless":
+				allowed = List.of("-record", "-profiles", "-arena", "-roster", "-budget", "-simultaneous", "-rounds");
+				break;
+			case "-tournament":
+				allowed = List.of("-record", "-profiles", "-arena", "-roster", "-budget", "-simultaneous", "-rounds", "-distributions");
+				break;
+			default:
+				allowed = List.of("-profiles", "-arena", "-roster", "-budget", "-simultaneous", "-rounds");
 		}
-
-		for (int i = 0; i<HEIGHT; i++)
+		for (int i = 1; i < args.length; i++)
 		{
-			Wall leftWalls = new Wall (arena, i, 0, Direction.WEST);
-			Wall rightWalls = new Wall (arena, i, WIDTH-1, Direction.EAST);
+			if (OPTIONS.contains(args[i]) && !allowed.contains(args[i]))
+				throw new IllegalArgumentException(args[i] + " can not be used with " + mode);
 		}
 	}
 
 	/**
-	 * Helper method used to sets up the players and randomly place them in the arena
+	 * Reads the size of the arena and the roster given on the command line, using the defaults for whichever was not given.
+	 * @param arena		the size of the arena, such as 200x200, or null
+	 * @param players		the list of robot classes, or null
+	 * @param turnBudget	the longest a robot may take over a call, in milliseconds, or 0 for no limit
+	 * @param simultaneous	true if every robot decides its turn at the same time
+	 * @param roundByRound	true if every fight is played round by round
+	 * @return	the configuration of the battles to play
 	 */
-	private static void createPlayers()
+	private static BattleConfig config(String arena, String players, long turnBudget, boolean simultaneous, boolean roundByRound)
 	{
-		Random generator = new Random();
-		// create robots for the arena 
-//		player[0] = new TestFighterRobot(arena,generator.nextInt(HEIGHT),generator.nextInt(WIDTH),Direction.NORTH, 0, MAX_HEALTH);
-//		player[1] = new TestFighterRobot(arena,generator.nextInt(HEIGHT),generator.nextInt(WIDTH),Direction.NORTH, 1, MAX_HEALTH);
-//		player[2] = new TestFighterRobot(arena,generator.nextInt(HEIGHT),generator.nextInt(WIDTH),Direction.NORTH, 2, MAX_HEALTH);
-//		player[3] = new TestFighterRobot(arena,generator.nextInt(HEIGHT),generator.nextInt(WIDTH),Direction.NORTH, 3, MAX_HEALTH);
-//		player[4] = new TestFighterRobot(arena,generator.nextInt(HEIGHT),generator.nextInt(WIDTH),Direction.NORTH, 4, MAX_HEALTH);
-//		player[5] = new TestFighterRobot(arena,generator.nextInt(HEIGHT),generator.nextInt(WIDTH),Direction.NORTH, 5, MAX_HEALTH);
-//		player[6] = new TestFighterRobot(arena,generator.nextInt(HEIGHT),generator.nextInt(WIDTH),Direction.NORTH, 6, MAX_HEALTH);
-//		player[7] = new TestFighterRobot(arena,generator.nextInt(HEIGHT),generator.nextInt(WIDTH),Direction.NORTH, 7, MAX_HEALTH);
-//		player[8] = new TestFighterRobot(arena,generator.nextInt(HEIGHT),generator.nextInt(WIDTH),Direction.NORTH, 8, MAX_HEALTH);
-		
-		player[0] = new TankFighterRobot(arena, generator.nextInt(HEIGHT), generator.nextInt(WIDTH), Direction.NORTH, 0, MAX_HEALTH);
-		player[1] = new SwiftFighterRobot(arena, generator.nextInt(HEIGHT), generator.nextInt(WIDTH), Direction.NORTH, 1, MAX_HEALTH);
-		player[2] = new BasicFighterRobot(arena, generator.nextInt(HEIGHT), generator.nextInt(WIDTH), Direction.NORTH, 2, MAX_HEALTH);
-		player[3] = new DengFighterRobot(arena, generator.nextInt(HEIGHT), generator.nextInt(WIDTH), Direction.NORTH, 3, MAX_HEALTH);
-		player[4] = new BasicFighterRobot(arena, generator.nextInt(HEIGHT), generator.nextInt(WIDTH), Direction.NORTH, 4, MAX_HEALTH);
-		player[5] = new BasicFighterRobot(arena, generator.nextInt(HEIGHT), generator.nextInt(WIDTH), Direction.NORTH, 5, MAX_HEALTH);
-//		player[6] = new BasicFighterRobot(arena, generator.nextInt(HEIGHT), generator.nextInt(WIDTH), Direction.NORTH, 6, MAX_HEALTH);
-//		player[7] = new SwiftFighterRobot(arena, generator.nextInt(HEIGHT), generator.nextInt(WIDTH), Direction.NORTH, 7, MAX_HEALTH); 
-//		player[8] = new SwiftFighterRobot(arena, generator.nextInt(HEIGHT), generator.nextInt(WIDTH), Direction.NORTH, 8, MAX_HEALTH); 
-		
-		// K: Initializing all the arrays that keep track of stuff.
-		for (int i = 0; i < NUM_PLAYERS; i++)
-		{
-			//player[i] = new TestFighterRobot(arena,generator.nextInt(HEIGHT),generator.nextInt(WIDTH),Direction.NORTH, i, MAX_HEALTH);
-			stats[i] = new PlayerStats();
-			health[i] = MAX_HEALTH;
-			energy[i] = MAX_ENERGY;
-			numFights[i] = 0;
-		}
+		Roster roster = players != null ? Roster.parse(players) : Roster.DEFAULT;
+		if (arena != null)
+			return BattleConfig.parse(arena, roster, turnBudget, simultaneous, roundByRound);
+		return new BattleConfig(WIDTH, HEIGHT, roster, turnBudget, simultaneous, roundByRound);
 	}
 
 	/**
-	 * Helper method used to control the turn taking process involving the movement, fighting and defending between FighterRobots.
-	 * @param attackerID    The FighterRobot ID whose currently taking its turn.
-	 * @param request               The TurnRequest object sent by the FighterRobot whose currently taking its turn.
+	 * Writes out the options that set up a configuration, so a game printed with its seed shows everything "-seed" needs to
+	 * play it again.  A seed only plays the same game with the same options, and whether fights are played round by round
+	 * changes how they draw from it.  Options left at their defaults are left out.
+	 * @param config	the configuration
+	 * @return	the options, each after a space, or an empty string
 	 */
-	private static void doTurn(int attackerID, TurnRequest request)
+	private static String options(BattleConfig config)
 	{
-		
-		int numRounds = 0;
-		int defend_lost = 0;
-		int defenderID = request.getFightID();
-		int init_attack_health = health[attackerID];
-		
-		if (defenderID != DEAD_FIGHTER_ID && health[defenderID] == 0)
-		{
-			applyPenalty(attackerID, HEALTH_LOST_PENALTY, "Penalty: ID requested is already dead.");
-		}
-		else
-		{
-			int init_defend_health = 0;
-			if (defenderID != DEAD_FIGHTER_ID)
-			{       init_defend_health = health[defenderID];
-			}
-
-			System.out.println("fighting id: " + defenderID);
-			
-			// K: Adding penalty if haven't faught in 5 rounds, (PS: The penalty resets after applied).
-			if (defenderID == DEAD_FIGHTER_ID)
-			{
-				numFights[attackerID] ++;
-				if (numFights[attackerID] == NUM_ROUNDS_OF_NO_FIGHTS)
-				{
-					applyPenalty(attackerID, NO_FIGHT_PENALTY, "Penalty: Did not initiate a fight in 5 rounds.");
-					numFights[attackerID] = 0;
-				}
-			}
-			else
-			{
-				numFights[attackerID] = 0;
-			}
-
-			int numOfMoves = Math.abs(player[attackerID].getAvenue() - request.getEndAvenue()) + Math.abs(player[attackerID].getStreet() - request.getEndStreet());
-			//requested location is beyond the battlefield
-			if (request.getEndAvenue() > WIDTH - 1 || request.getEndStreet() > HEIGHT - 1 || request.getEndStreet() < 0 || request.getEndAvenue() < 0)
-			{
-				applyPenalty(attackerID, HEALTH_LOST_PENALTY, "Penalty: Requested location is beyond battlefield");
-			}
-			//requested location requires more than the maximum number of moves designated by player
-			else if (numOfMoves > player[attackerID].getNumMoves())
-			{
-				applyPenalty(attackerID, HEALTH_LOST_PENALTY, "Penalty: Requested location requires more than maximum number of moves");
-			}
-			//requested location requires more than the available energy    
-			else if ((energy[attackerID] - numOfMoves * MOVES_ENERGY_COST) < 0)
-			{
-				applyPenalty(attackerID, HEALTH_LOST_PENALTY, "Penalty: Requested location requires more than available energy");
-			}
-			//penalty applies if requested number of rounds of fight is greater than the attack power assigned
-			else if (player[attackerID].getAttack() < request.getNumRounds() || request.getNumRounds() < -1)
-			{
-				applyPenalty(attackerID, HEALTH_LOST_PENALTY, "Penalty: invalid requested number of rounds of fight");
-			}
-			else
-			{
-				player[attackerID].goToLocation(request.getEndAvenue(), request.getEndStreet());
-				energy[attackerID] = energy[attackerID] - (numOfMoves * MOVES_ENERGY_COST);
-				stats[attackerID].addTotalNumMoves(numOfMoves);
-				
-				//      player dies if moved to the wrong location
-				if (player[attackerID].getAvenue() != request.getEndAvenue() || player[attackerID].getStreet() != request.getEndStreet())
-				{
-					applyPenalty(attackerID, health[attackerID], "Penalty: Moved to the wrong location" );
-				}
-				//      fight will occur if the player moves to meet the requested opponent
-				
-				else if (defenderID == attackerID)
-				{
-					applyPenalty(attackerID, HEALTH_LOST_PENALTY, "Penalty: Try to fight yourself");
-				}
-				else if (defenderID != DEAD_FIGHTER_ID)
-				{
-					int attackerHealthLost = 0;
-					int defenderHealthLost = 0;
-					
-					//      fight only occurs if the player's location is the same as the requested opponent
-					if (energy[attackerID] > 0 && player[attackerID].getAvenue()==player[defenderID].getAvenue() && player[attackerID].getStreet()==player[defenderID].getStreet())
-					{
-						for (int n = 0; n < request.getNumRounds(); n ++)
-						{
-							if (energy[attackerID] > 0 && health[attackerID] > 0 && health[defenderID] > 0)
-							{
-								numRounds ++;
-								if (energy[defenderID] <= 0) 
-								{
-									defenderHealthLost ++;  
-									health[defenderID] -= 1;
-									energy[attackerID] = energy[attackerID] + ATTACKER_ENERGY_CHANGE;
-									stats[defenderID].addRoundsLoss();
-									stats[attackerID].addRoundsWin();                                                                       
-								}
-								else
-								{
-									Random generator = new Random();
-									int[] attackDice = new int[player[attackerID].getAttack()];
-									int[] defenceDice = new int[player[defenderID].getDefence()];
-
-									for (int i = 0; i < attackDice.length; i++)
-										attackDice[i] = generator.nextInt(NUM_SIDES_ON_DICE) + 1;
-									Arrays.sort(attackDice);
-
-									for (int j = 0; j < defenceDice.length; j++)
-										defenceDice[j] = generator.nextInt(NUM_SIDES_ON_DICE) + 1;      
-									Arrays.sort(defenceDice);
-									
-									//output the results from the dice rolled
-									System.out.print("Attacker rolled: ");
-									for (int a = 0; a < attackDice.length; a++)
-										System.out.print(attackDice[a] + " ");  
-									System.out.print (" Defender rolled: ");
-									for (int d = 0; d < defenceDice.length; d++)
-										System.out.print(defenceDice[d] + " "); 
-									System.out.println();
-
-									// K: In this case, player[attackerID].getAttack = array length.
-									System.out.println("\t highest number: attacker " + attackDice[player[attackerID].getAttack()-1] + " defender " + defenceDice[player[defenderID].getDefence()-1]);
-									
-									//match up the highest numbered rolled from the attacker and defender
-									if (defenceDice[player[defenderID].getDefence()-1] > attackDice[player[attackerID].getAttack()-1])
-									{
-										attackerHealthLost ++;  
-										health[attackerID] -= 1;
-										energy[attackerID] = energy[attackerID] - ATTACKER_ENERGY_CHANGE;
-										energy[defenderID] = energy[defenderID] + DEFENDER_ENERGY_CHANGE;                                                                       
-										stats[attackerID].addRoundsLoss();
-										stats[defenderID].addRoundsWin();
-									}
-									else if (defenceDice[player[defenderID].getDefence()-1] == attackDice[player[attackerID].getAttack()-1])
-									{
-										energy[attackerID] = energy[attackerID] - TIE_ENERGY_CHANGE;
-										energy[defenderID] = energy[defenderID] - TIE_ENERGY_CHANGE;                                                                                                                                            
-									}
-									else
-									{
-										defenderHealthLost ++;  
-										health[defenderID] -= 1;
-										energy[defenderID] = energy[defenderID] - DEFENDER_ENERGY_CHANGE;
-										energy[attackerID] = energy[attackerID] + ATTACKER_ENERGY_CHANGE;
-										stats[defenderID].addRoundsLoss();
-										stats[attackerID].addRoundsWin();                                                                       
-									}
-
-								}
-							}
-							//adjust energy level
-							if (energy[attackerID] < 0)
-								energy[attackerID] = 0;
-							else if (energy[attackerID] > MAX_ENERGY)
-								energy[attackerID] = MAX_ENERGY;
-							
-							if (energy[defenderID] < 0)
-								energy[defenderID] = 0;
-							else if (energy[defenderID] > MAX_ENERGY)
-								energy[defenderID] = MAX_ENERGY;
-							
-							//adjust health level
-							if (health[attackerID] < 0)
-								health[attackerID] = 0;
-							
-							if (health[defenderID] < 0)
-								health[defenderID] = 0;
-						}
-
-						// K: Updates PlayerStats and adjusts health of the two fighters after the entire fight.
-						adjustStats(attackerID, defenderID, attackerHealthLost, defenderHealthLost);
-
-						System.out.println("Energy Result: Attacker ID " + attackerID + " energy: " + energy[attackerID] + " Defender ID " + defenderID + " energy: " + energy[defenderID]);
-						System.out.println("Health Result: Attacker ID " + attackerID + " health " + health[attackerID] + " Defender ID " + defenderID + " health " + health[defenderID]);                                              
-					}
-					else if(energy[attackerID] <= 0)
-					{
-						applyPenalty(attackerID, HEALTH_LOST_PENALTY, "Penalty: Did not have enough energy to fight");
-					}
-					else{
-						applyPenalty(attackerID, 0, "Did not move to the opponent location");
-					}
-				}
-			}
-			//calculate change in health of attacker and defender
-		
-			int attacker_lost = init_attack_health - health[attackerID];
-			if (defenderID != DEAD_FIGHTER_ID)
-			{
-				defend_lost = init_defend_health - health[defenderID];
-				//      return battle result to defender
-				player[defenderID].battleResult(defend_lost, attackerID, attacker_lost, numRounds);
-				player[defenderID].setLabel();
-				
-				if (health[defenderID]==0)
-					num_lost ++;
-			}
-		}
-		int attacker_lost = init_attack_health - health[attackerID];
-		//return battle result to attacker
-		player[attackerID].battleResult(attacker_lost, defenderID, defend_lost, numRounds);
-		player[attackerID].setLabel();
-		if (health[attackerID]==0)
-			num_lost ++;
+		String s = "";
+		if (config.getWidth() != WIDTH || config.getHeight() != HEIGHT)
+			s += " -arena " + config.getWidth() + "x" + config.getHeight();
+		if (!config.getRoster().toString().equals(Roster.DEFAULT.toString()))
+			s += " -roster " + config.getRoster();
+		if (config.getTurnBudget() > 0)
+			s += " -budget " + config.getTurnBudget();
+		if (config.isSimultaneous())
+			s += " -simultaneous";
+		if (config.isRoundByRound())
+			s += " -rounds";
+		return s;
 	}
-	
-	private static void applyPenalty(int attackerID, int numPenalty, String penality)
+
+	/**
+	 * Simulates a number of games one after the other without animating the robots and reports how many turns were taken per second.
+	 * @param numGames		the number of games to play
+	 * @param seed			the seed the games' seeds are derived from
+	 * @param verbosity		how much of each game to print
+	 * @param config		the size of the arena and the players of every game
+	 * @param replay		the archive to record the games into, or null
+	 * @param profiles		the opponent profiles for the robots to learn from, or null
+	 */
+	private static void runHeadless(int numGames, long seed, BattleLog.Verbosity verbosity, BattleConfig config, ReplayWriter replay, OpponentProfiles profiles)
 	{
-		// prevent the robot from going into negative health due to penalties
-		if (health[attackerID] < numPenalty)
-			health[attackerID] = 0;
-		else
-			health[attackerID] -= numPenalty;
-		
-		for (int i = 0; i < numPenalty; i++)
+		long turns = 0;
+		long start = System.nanoTime();
+		for (int g = 0; g < numGames; g++)
 		{
-			stats[attackerID].addNumPenalties();
+			long gameSeed = Tournament.gameSeed(seed, g);
+			if (verbosity != BattleLog.Verbosity.SILENT)
+				System.out.println("Game " + g + " seed: " + gameSeed + options(config));
+			Battle battle = new Battle(true, gameSeed, BattleLog.toConsole(verbosity), config);
+			if (replay != null)
+				battle.recordTo(replay);
+			if (profiles != null)
+				battle.learnFrom(profiles);
+			turns += battle.play();
 		}
-		stats[attackerID].addPenaltiesComments(penality);
+		double seconds = (System.nanoTime() - start) / 1e9;
+		System.out.format("Played %d games, %d turns in %.3f s (%.0f turns/s)%n", numGames, turns, seconds, turns / seconds);
 	}
-	
-	// K: HL = health lost, probably
-	private static void adjustStats(int attackerID, int defenderID, int attackerHL, int defenderHL)
+
+	/**
+	 * Reads every game recorded in a replay archive and prints how many there are and how often each robot won.
+	 * @param path	the archive
+	 * @throws IOException	if the archive cannot be read
+	 */
+	private static void scan(Path path) throws IOException
 	{
-		//add number of fights win, loss or tie
-		if (health[attackerID] > 0 && health[defenderID] > 0)
+		Map<String, Integer> wins = new TreeMap<String, Integer>();
+		long games = 0;
+		long turns = 0;
+		long start = System.nanoTime();
+		try (ReplayReader reader = new ReplayReader(path))
 		{
-			if (attackerHL > defenderHL)
-			{
-				stats[defenderID].addFightsDefendWin();
-				stats[attackerID].addFightsInitiatedLoss();
-				if (health[defenderID] + WIN_DEFEND_FIGHT_HEALTH_GAINS < MAX_HEALTH)
-					health[defenderID] += WIN_DEFEND_FIGHT_HEALTH_GAINS;
-				else
-					health[defenderID] = MAX_HEALTH;
-			}
-			else if (attackerHL < defenderHL)
+			while (reader.nextGame())
 			{
-				stats[defenderID].addFightsDefendLoss();
-				stats[attackerID].addFightsInitiatedWin();
-				if (health[attackerID] + WIN_FIGHT_HEALTH_GAINS < MAX_HEALTH)
-					health[attackerID] += WIN_FIGHT_HEALTH_GAINS;
-				else
-					health[attackerID] = MAX_HEALTH;
-			}
-			else
-			{
-				stats[defenderID].addFightsDefendTie();
-				stats[attackerID].addFightsInitiatedTie();
+				while (reader.nextRecord() != ReplayWriter.TAG_END)
+					;
+				games ++;
+				turns += reader.getTurns();
+				if (reader.getWinner() >= 0)
+					wins.merge(reader.getClassName(reader.getWinner()), 1, Integer::sum);
 			}
 		}
-		//add number of kills for player statistics
-		else if (health[attackerID] == 0 && health[defenderID] > 0)
-		{
-			stats[defenderID].addNumKills();
-			stats[defenderID].addFightsDefendWin();
-			stats[attackerID].addFightsInitiatedLoss();
-			if (health[defenderID] + WIN_DEFEND_FIGHT_HEALTH_GAINS < MAX_HEALTH)
-				health[defenderID] += WIN_DEFEND_FIGHT_HEALTH_GAINS;
-			else
-				health[defenderID] = MAX_HEALTH;
+		double seconds = (System.nanoTime() - start) / 1e9;
+		System.out.format("%-45s%-10s%n", "Robot", "Wins");
+		for (Map.Entry<String, Integer> entry : wins.entrySet())
+			System.out.format("%-45s%-10d%n", entry.getKey(), entry.getValue());
+		System.out.format("Scanned %d games, %d turns in %.3f s%n", games, turns, seconds);
+	}
 
-			if (health[defenderID] + KILLED_ROBOT_HEALTH_GAINS < MAX_HEALTH)
-				health[defenderID] += KILLED_ROBOT_HEALTH_GAINS;
-			else
-				health[defenderID] = MAX_HEALTH;
-		}
-		else if (health[defenderID] == 0 && health[attackerID] > 0)
+	/**
+	 * Plays every game recorded in a replay archive again from its recorded requests, and prints the games that no longer play out as recorded.
+	 * @param path	the archive
+	 * @throws IOException	if the archive cannot be read
+	 */
+	private static void verify(Path path) throws IOException
+	{
+		final int maxReported = 10;
+		long games = 0;
+		long diverged = 0;
+		long turns = 0;
+		long start = System.nanoTime();
+		try (ReplayReader reader = new ReplayReader(path))
 		{
-			stats[attackerID].addNumKills();
-			stats[attackerID].addFightsInitiatedWin();
-			stats[defenderID].addFightsDefendLoss();
-			
-			if (health[attackerID] + WIN_FIGHT_HEALTH_GAINS < MAX_HEALTH)
-				health[attackerID] += WIN_FIGHT_HEALTH_GAINS;
-			else
-				health[attackerID] = MAX_HEALTH;
-			
-			if (health[attackerID] + KILLED_ROBOT_HEALTH_GAINS < MAX_HEALTH)
-				health[attackerID] += KILLED_ROBOT_HEALTH_GAINS;
-			else
-				health[attackerID] = MAX_HEALTH;
+			ReplayVerifier verifier = new ReplayVerifier(reader);
+			while (reader.nextGame())
+			{
+				games ++;
+				if (!verifier.verify())
+				{
+					if (diverged < maxReported)
+						System.out.format("Game %d at byte %d (seed %d%s%s) differs at turn %d: %s%n", games - 1, reader.getGameOffset(), reader.getSeed(),
+								reader.isSimultaneous() ? " -simultaneous" : "", reader.isRoundByRound() ? " -rounds" : "",
+								verifier.getDivergedTurn(), verifier.getDivergence());
+					diverged ++;
+				}
+				else
+					turns += reader.getTurns();
+			}
 		}
-		else
-			System.out.println("Both Fighers Dead");
+		double seconds = (System.nanoTime() - start) / 1e9;
+		System.out.format("Verified %d games, %d differ, %d turns in %.3f s (%.0f turns/s)%n", games, diverged, turns, seconds, turns / seconds);
 	}
 }
@@ -0,0 +1,229 @@
+package robot_war_summative;
+
+import java.util.SplittableRandom;
+
+/**
+ * A small copy of a battle that a robot can play forward on its own to see where a choice leads.  It
+ * holds a few players in arrays, plays their turns with the battle's own rules, moving, the energy moves
+ * cost, fights decided by FightResolver, the health won from fights and kills and the penalty for not
+ * fighting, and is copied into another model of the same size without allocating, so a search can reset
+ * a model of its own before every playout.
+ *
+ * The model only knows what its owner tells it.  A player's stats and energy, which the battle keeps to
+ * itself, are the owner's guesses, and every request it plays is taken to be a legal one, so the battle's
+ * other penalties never come up.
+ */
+public class BattleModel {
+
+	private final int[] ids;
+	private final int[] avenue;
+	private final int[] street;
+	private final int[] health;
+	private final int[] energy;
+	private final int[] attack;
+	private final int[] defence;
+	private final int[] numMoves;
+	private final int[] turnsWithoutFight;
+	private int size;
+
+	/**
+	 * Creates an empty model.
+	 * @param capacity	the most players it can hold
+	 */
+	public BattleModel(int capacity)
+	{
+		this.ids = new int[capacity];
+		this.avenue = new int[capacity];
+		this.street = new int[capacity];
+		this.health = new int[capacity];
+		this.energy = new int[capacity];
+		this.attack = new int[capacity];
+		this.defence = new int[capacity];
+		this.numMoves = new int[capacity];
+		this.turnsWithoutFight = new int[capacity];
+	}
+
+	/**
+	 * Removes every player from the model.
+	 */
+	public void clear()
+	{
+		this.size = 0;
+	}
+
+	/**
+	 * Adds a player to the model.
+	 * @param id				the player's ID in the battle
+	 * @param avenue			its avenue
+	 * @param street			its street
+	 * @param health			its health
+	 * @param energy			its energy
+	 * @param attack			its attack
+	 * @param defence			its defence
+	 * @param numMoves			its number of moves
+	 * @param turnsWithoutFight	the number of turns since it last asked for a fight, counting towards the penalty for not fighting
+	 * @return	the player's index in the model
+	 */
+	public int add(int id, int avenue, int street, int health, int energy, int attack, int defence, int numMoves, int turnsWithoutFight)
+	{
+		int i = this.size++;
+		this.ids[i] = id;
+		this.avenue[i] = avenue;
+		this.street[i] = street;
+		this.health[i] = health;
+		this.energy[i] = energy;
+		this.attack[i] = attack;
+		this.defence[i] = defence;
+		this.numMoves[i] = numMoves;
+		this.turnsWithoutFight[i] = turnsWithoutFight;
+		return i;
+	}
+
+	/**
+	 * Makes this model a copy of another.
+	 * @param other	the model to copy, which must not hold more players than this one has room for
+	 */
+	public void copyFrom(BattleModel other)
+	{
+		int n = other.size;
+		System.arraycopy(other.ids, 0, this.ids, 0, n);
+		System.arraycopy(other.avenue, 0, this.avenue, 0, n);
+		System.arraycopy(other.street, 0, this.street, 0, n);
+		System.arraycopy(other.health, 0, this.health, 0, n);
+		System.arraycopy(other.energy, 0, this.energy, 0, n);
+		System.arraycopy(other.attack, 0, this.attack, 0, n);
+		System.arraycopy(other.defence, 0, this.defence, 0, n);
+		System.arraycopy(other.numMoves, 0, this.numMoves, 0, n);
+		System.arraycopy(other.turnsWithoutFight, 0, this.turnsWithoutFight, 0, n);
+		this.size = n;
+	}
+
+	/**
+	 * Returns the number of players in the model, alive or dead.
+	 * @return	the number of players
+	 */
+	public int size()
+	{
+		return this.size;
+	}
+
+	public int getID(int i)
+	{
+		return this.ids[i];
+	}
+
+	public int getAvenue(int i)
+	{
+		return this.avenue[i];
+	}
+
+	public int getStreet(int i)
+	{
+		return this.street[i];
+	}
+
+	public int getHealth(int i)
+	{
+		return this.health[i];
+	}
+
+	public int getEnergy(int i)
+	{
+		return this.energy[i];
+	}
+
+	public int getAttack(int i)
+	{
+		return this.attack[i];
+	}
+
+	public int getNumMoves(int i)
+	{
+		return this.numMoves[i];
+	}
+
+	/**
+	 * Returns the most moves a player of the model can make in its turn and still have energy left to fight.
+	 * @param i	the player's index
+	 * @return	the number of moves
+	 */
+	public int getBudget(int i)
+	{
+		return MovePlanner.getBudget(this.numMoves[i], this.energy[i]);
+	}
+
+	/**
+	 * Plays a turn of a player the way the battle would: counting it towards the penalty for not fighting,
+	 * moving it, then fighting if it asked to and is on its opponent's intersection with energy left.  Once
+	 * the turn is over every player gains its energy for the turn.
+	 * @param i				the index of the player taking its turn, which must be alive
+	 * @param toAvenue		the avenue it moves to, which must be within its budget
+	 * @param toStreet		the street it moves to
+	 * @param target		the index of the player it attacks, or -1 to only move
+	 * @param rounds		the number of rounds it asks for
+	 * @param random		the stream the fight draws from
+	 */
+	public void playTurn(int i, int toAvenue, int toStreet, int target, int rounds, SplittableRandom random)
+	{
+		if (target < 0)
+		{
+			this.turnsWithoutFight[i] ++;
+			if (this.turnsWithoutFight[i] == Battle.NUM_ROUNDS_OF_NO_FIGHTS)
+			{
+				this.health[i] = Math.max(0, this.health[i] - Battle.NO_FIGHT_PENALTY);
+				this.turnsWithoutFight[i] = 0;
+			}
+		}
+		else
+			this.turnsWithoutFight[i] = 0;
+
+		this.energy[i] -= (Math.abs(toAvenue - this.avenue[i]) + Math.abs(toStreet - this.street[i])) * Battle.MOVES_ENERGY_COST;
+		this.avenue[i] = toAvenue;
+		this.street[i] = toStreet;
+
+		if (target >= 0 && this.health[i] > 0 && this.health[target] > 0 && this.energy[i] > 0
+				&& this.avenue[target] == toAvenue && this.street[target] == toStreet)
+			this.fight(i, target, rounds, random);
+
+		for (int k = 0; k < this.size; k++)
+		{
+			if (this.health[k] > 0)
+				this.energy[k] = Math.min(Battle.MAX_ENERGY, this.energy[k] + Battle.TURN_ENERGY_INCREASE);
+		}
+	}
+
+	/**
+	 * Helper method used to fight, giving the winner the health the battle gives it.
+	 * @param a			the attacker's index
+	 * @param d			the defender's index
+	 * @param rounds	the number of rounds asked for
+	 * @param random	the stream the fight draws from
+	 */
+	private void fight(int a, int d, int rounds, SplittableRandom random)
+	{
+		int outcome = FightResolver.resolve(random, this.attack[a], this.defence[d], rounds, this.energy[a], this.health[a], this.energy[d], this.health[d]);
+		int attackerHL = FightResolver.getAttackerHealthLost(outcome);
+		int defenderHL = FightResolver.getDefenderHealthLost(outcome);
+		this.health[a] -= attackerHL;
+		this.health[d] -= defenderHL;
+		this.energy[a] = FightResolver.getAttackerEnergy(outcome);
+		this.energy[d] = FightResolver.getDefenderEnergy(outcome);
+
+		if (this.health[a] > 0 && this.health[d] > 0)
+		{
+			if (attackerHL > defenderHL)
+				this.gain(d, Battle.WIN_DEFEND_FIGHT_HEALTH_GAINS);
+			else if (attackerHL < defenderHL)
+				this.gain(a, Battle.WIN_FIGHT_HEALTH_GAINS);
+		}
+		else if (this.health[d] > 0)
+			this.gain(d, Battle.WIN_DEFEND_FIGHT_HEALTH_GAINS + Battle.KILLED_ROBOT_HEALTH_GAINS);
+		else if (this.health[a] > 0)
+			this.gain(a, Battle.WIN_FIGHT_HEALTH_GAINS + Battle.KILLED_ROBOT_HEALTH_GAINS);
+	}
+
+	private void gain(int i, int health)
+	{
+		this.health[i] = Math.min(Battle.MAX_HEALTH, this.health[i] + health);
+	}
+}
@@ -0,0 +1,50 @@
+package robot_war_summative;
+
+/**
+ * Receives what happens in a battle in the order it happens, as recorded in a replay archive.  A
+ * ReplayWriter.Game encodes the records into the archive, while a ReplayVerifier checks them against
+ * ones recorded earlier.
+ */
+interface BattleRecorder {
+
+	/**
+	 * A player made its request for its turn.
+	 * @param id		the ID of the player
+	 * @param avenue	the avenue the player was on
+	 * @param street	the street the player was on
+	 * @param request	what it asked for
+	 * @param overran	true if it took longer than its time budget, and the request is the one the battle made for it
+	 */
+	void turn(int id, int avenue, int street, TurnRequest request, boolean overran);
+
+	/**
+	 * The player taking its turn was penalized.
+	 * @param penalty	the rule that was broken
+	 * @param points	the health taken away
+	 */
+	void penalty(Penalty penalty, int points);
+
+	/**
+	 * The player taking its turn moved.
+	 * @param avenueError	the avenue it reached less the one it asked for
+	 * @param streetError	the street it reached less the one it asked for
+	 */
+	void move(int avenueError, int streetError);
+
+	/**
+	 * A fight is over, before the health won for winning it is added.
+	 * @param rounds				the number of rounds fought
+	 * @param attackerHealthLost	the health the attacker lost
+	 * @param defenderHealthLost	the health the defender lost
+	 * @param attackerEnergy		the attacker's energy after the fight
+	 * @param defenderEnergy		the defender's energy after the fight
+	 */
+	void fight(int rounds, int attackerHealthLost, int defenderHealthLost, int attackerEnergy, int defenderEnergy);
+
+	/**
+	 * The battle is over.
+	 * @param turns		the number of turns taken
+	 * @param winner	the ID of the winner, or -1
+	 */
+	void end(int turns, int winner);
+}
@@ -0,0 +1,162 @@
+package robot_war_summative;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+/**
+ * Resolves a single round of combat.  A round only depends on the highest die the attacker rolls
+ * against the highest die the defender rolls, so instead of rolling every die the chance of each
+ * result is worked out once for every number of attack and defence dice, and a round is decided
+ * with a single draw from the battle's random numbers.  FightResolver uses those chances to decide a
+ * whole fight, and falls back on drawing round by round.  A battle that plays its fights round by
+ * round rolls every die instead, so its rounds can be shown die by die.
+ */
+public class CombatResolver {
+
+	// The results of a round of combat, from the attacker's point of view.
+	public static final int ATTACKER_WINS = 1;
+	public static final int TIE = 0;
+	public static final int DEFENDER_WINS = -1;
+
+	public static final int NUM_SIDES_ON_DICE = 10;
+	public static final int MAX_DICE = 10;			// attack or defence values above this are rolled die by die
+
+	private static final int DRAW_BITS = 53;		// a draw is a uniform number below 2^53, the precision of a double
+	private static final long[] ATTACKER_WINS_BELOW = new long[(MAX_DICE + 1) * (MAX_DICE + 1)];
+	private static final long[] TIE_BELOW = new long[(MAX_DICE + 1) * (MAX_DICE + 1)];
+
+	static
+	{
+		// atMost[n][k] is the chance that the highest of n dice is k or less, which is (k / sides) ^ n.
+		// It is worked out by repeated multiplication rather than Math.pow so every JVM gets the same tables.
+		double[][] atMost = new double[MAX_DICE + 1][NUM_SIDES_ON_DICE + 1];
+		for (int k = 0; k <= NUM_SIDES_ON_DICE; k++)
+		{
+			atMost[0][k] = 1;
+			for (int n = 1; n <= MAX_DICE; n++)
+				atMost[n][k] = atMost[n - 1][k] * k / NUM_SIDES_ON_DICE;
+		}
+
+		double scale = (double) (1L << DRAW_BITS);
+		for (int a = 1; a <= MAX_DICE; a++)
+		{
+			for (int d = 1; d <= MAX_DICE; d++)
+			{
+				double win = 0;
+				double tie = 0;
+				for (int k = 1; k <= NUM_SIDES_ON_DICE; k++)
+				{
+					double attackerHighest = atMost[a][k] - atMost[a][k - 1];
+					win += attackerHighest * atMost[d][k - 1];
+					tie += attackerHighest * (atMost[d][k] - atMost[d][k - 1]);
+				}
+				ATTACKER_WINS_BELOW[a * (MAX_DICE + 1) + d] = Math.round(win * scale);
+				TIE_BELOW[a * (MAX_DICE + 1) + d] = Math.round((win + tie) * scale);
+			}
+		}
+	}
+
+	/**
+	 * Decides one round of combat with a single draw, without rolling the individual dice.
+	 * @param random		the stream the fight draws from
+	 * @param attackDice	the number of dice the attacker rolls
+	 * @param defenceDice	the number of dice the defender rolls
+	 * @return	ATTACKER_WINS, TIE or DEFENDER_WINS
+	 */
+	public static int roll(SplittableRandom random, int attackDice, int defenceDice)
+	{
+		if (attackDice < 1 || attackDice > MAX_DICE || defenceDice < 1 || defenceDice > MAX_DICE)
+			return compare(highestRoll(random, attackDice), highestRoll(random, defenceDice));
+
+		long draw = random.nextLong() >>> (64 - DRAW_BITS);
+		int index = attackDice * (MAX_DICE + 1) + defenceDice;
+		if (draw < ATTACKER_WINS_BELOW[index])
+			return ATTACKER_WINS;
+		else if (draw < TIE_BELOW[index])
+			return TIE;
+		else
+			return DEFENDER_WINS;
+	}
+
+	/**
+	 * Rolls every die one by one, for a fight played round by round.  The rolls are left in the order
+	 * they were rolled, as only the highest decides the round; sort them to show them.
+	 * @param random	the stream the fight draws from
+	 * @param dice		an array that is filled with the rolls, reused from round to round
+	 * @param count		the number of dice to roll, no more than the length of dice
+	 * @return	the highest roll, or 0 if no dice were rolled
+	 */
+	public static int rollDice(SplittableRandom random, int[] dice, int count)
+	{
+		int highest = 0;
+		for (int i = 0; i < count; i++)
+		{
+			dice[i] = random.nextInt(NUM_SIDES_ON_DICE) + 1;
+			highest = Math.max(highest, dice[i]);
+		}
+		return highest;
+	}
+
+	/**
+	 * Sorts the rolls of a round from lowest to highest, for showing them.
+	 * @param dice	the rolls
+	 * @param count	the number of rolls in dice
+	 */
+	public static void sortDice(int[] dice, int count)
+	{
+		Arrays.sort(dice, 0, count);
+	}
+
+	/**
+	 * Matches up the highest number rolled by the attacker and by the defender.
+	 * @param attackerHighest	the attacker's highest roll
+	 * @param defenderHighest	the defender's highest roll
+	 * @return	ATTACKER_WINS, TIE or DEFENDER_WINS
+	 */
+	public static int compare(int attackerHighest, int defenderHighest)
+	{
+		if (defenderHighest > attackerHighest)
+			return DEFENDER_WINS;
+		else if (defenderHighest == attackerHighest)
+			return TIE;
+		else
+			return ATTACKER_WINS;
+	}
+
+	/**
+	 * Returns the chance that the attacker wins a round.
+	 * @param attackDice	the number of dice the attacker rolls, from 1 to MAX_DICE
+	 * @param defenceDice	the number of dice the defender rolls, from 1 to MAX_DICE
+	 * @return	the chance the attacker's highest roll beats the defender's
+	 */
+	public static double attackerWinChance(int attackDice, int defenceDice)
+	{
+		return ATTACKER_WINS_BELOW[attackDice * (MAX_DICE + 1) + defenceDice] / (double) (1L << DRAW_BITS);
+	}
+
+	/**
+	 * Returns the chance that a round is a tie.
+	 * @param attackDice	the number of dice the attacker rolls, from 1 to MAX_DICE
+	 * @param defenceDice	the number of dice the defender rolls, from 1 to MAX_DICE
+	 * @return	the chance both highest rolls are the same
+	 */
+	public static double tieChance(int attackDice, int defenceDice)
+	{
+		int index = attackDice * (MAX_DICE + 1) + defenceDice;
+		return (TIE_BELOW[index] - ATTACKER_WINS_BELOW[index]) / (double) (1L << DRAW_BITS);
+	}
+
+	/**
+	 * Rolls a number of dice and keeps only the highest, without storing the rolls.
+	 * @param random	the stream the fight draws from
+	 * @param dice		the number of dice to roll
+	 * @return	the highest roll, or 0 when no dice are rolled
+	 */
+	private static int highestRoll(SplittableRandom random, int dice)
+	{
+		int highest = 0;
+		for (int i = 0; i < dice; i++)
+			highest = Math.max(highest, random.nextInt(NUM_SIDES_ON_DICE) + 1);
+		return highest;
+	}
+}
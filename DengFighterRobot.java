@@ -11,10 +11,16 @@ import java.awt.Color;
 public class DengFighterRobot extends FighterRobot {
 	// Variables and constants used to store information the DFR needs, such as the number of opponents to test attack and the rounds to test attack them.
 	private int health, testNum; 
-	private final int TEST_ATTACKS = 2, TEST_ROUNDS = 3; 
-	private BattleData[] battleRecord = new BattleData[BattleManager.NUM_PLAYERS];
+	private final int TEST_ATTACKS = 2, TEST_ROUNDS = 3, PROFILE_FIGHTS = 20; 
+	private BattleData battleRecord;
 	private boolean setup = false, firstTarget = false;
 
+	// The alive opponents ranked by the part of their strength that doesn't depend on where the DFR is, the ID of the current target (or -1 if there isn't one),
+	// and the number of alive opponents and of those that have been fought at least TEST_ATTACKS times. They're all kept up to date as the records change.
+	private TargetHeap ranking;
+	private int target = -1, numAlive = 0, numTested = 0;
+	private int[] stack;
+
 	/**
 	 * Constructor to set up the robot.
 	 * @param city The city the robot is in.
@@ -28,91 +34,38 @@ public class DengFighterRobot extends FighterRobot {
 		super(city, street, avenue, dir, id, 4, 4, 2); // Attack = 4, defence = 4, movement = 2
 		this.health = health;
 		this.setLabel();
+	}
 
-		// Initializing the battleRecord array when the DFR is created.
-		for(int i = 0; i < BattleManager.NUM_PLAYERS; i++) {
-			if(i != this.getID()) {
-				battleRecord[i] = new BattleData(i, -1, -1, 0);
-			}
-			else { // It uses -2 as to not conflict with the -1 ID used for not attacking rounds.
-				battleRecord[i] = new BattleData(-2, 0, 0, 0);
-			}
-		}
+	/**
+	 * Initializes the battleRecord, one record per player, indexed by ID. It's done on the first turn or fight rather than
+	 * when the DFR is created, since the battle only tells it how many players there are once they've all been created.
+	 * The DFR's own record is never updated, so it stays at no health and is never targeted.
+	 */
+	private void setupRecord() {
+		this.battleRecord = new BattleData(this.getNumPlayers());
 
 		// Setting the number of opponents it will test attack, up to a maximum of three.
-		if(this.battleRecord.length - 1 >= 3) {
+		if(this.battleRecord.size() - 1 >= 3) {
 			this.testNum = 3;
 		}
 		else {
-			this.testNum = this.battleRecord.length - 1;
+			this.testNum = this.battleRecord.size() - 1;
 		}
 
-	}
-
-	/**
-	 * Moves the robot to the specified location.
-	 * @param avenue The destination avenue.
-	 * @param street The destination street.
-	 */
-	public void goToLocation(int avenue, int street) {
-		// Calculating displacements.
-		int x, y;
-		x = avenue - this.getAvenue();
-		y = street - this.getStreet();
-
-		// Horizontal movement.
-		if(x > 0)
-			this.turnTo(Direction.EAST);
-		else if (x < 0)
-			this.turnTo(Direction.WEST);
-		this.move(Math.abs(x));
-
-		// Vertical movement.
-		if(y > 0)
-			this.turnTo(Direction.SOUTH);
-		else if (y < 0)
-			this.turnTo(Direction.NORTH);
-		this.move(Math.abs(y));
-	}
-
-	/**
-	 * Turns the robot towards the specified direction.
-	 * @param dir The direction to turn towards.
-	 */
-	private void turnTo(Direction dir) {
-		/* This works by assigning each direction a number to make it easier to figure out how to turn. 
-		 * north = 0, east = 1, south = 2, west = 3.
-		 * It then calculates the starting direction subtracted by the end direction. 
-		 * For example, north -> east (0 - 1) and east -> south (1 - 2) both have a result of -1,
-		 * and both only involve a right turn. */
-		int start, end; 
-
-		// Converting directions to numbers.
-		if(this.getDirection() == Direction.NORTH)
-			start = 0;
-		else if(this.getDirection() == Direction.EAST)
-			start = 1;
-		else if(this.getDirection() == Direction.SOUTH)
-			start = 2;
-		else
-			start = 3;
-
-		if(dir == Direction.NORTH)
-			end = 0;
-		else if(dir == Direction.EAST)
-			end = 1;
-		else if(dir == Direction.SOUTH)
-			end = 2;
-		else
-			end = 3;
-
-		// Turning based on the results.
-		if(start - end == -1 || start - end == 3) 
-			this.turnRight();
-		else if(start - end == 1 || start - end == -3)
-			this.turnLeft();
-		else if(Math.abs(start - end) == 2)
-			this.turnAround();
+		this.ranking = new TargetHeap(this.battleRecord.size());
+		this.stack = new int[this.battleRecord.size()];
+
+		// If earlier games have shown enough of an opponent's class (at least PROFILE_FIGHTS fights), it doesn't need to test attack it,
+		// so its record starts out as if it had already been fought TEST_ATTACKS times.
+		for(int i = 0; i < this.battleRecord.size(); i++) {
+			OpponentProfile profile = this.getProfile(i);
+			if(i != this.getID() && profile != null && profile.getFights() >= this.PROFILE_FIGHTS) {
+				for(int r = 0; r < this.TEST_ATTACKS; r++)
+					this.battleRecord.addRoundsFought(i);
+				this.battleRecord.addHealthLost(i, (int)Math.round(profile.getHealthLostPerFight() * this.TEST_ATTACKS));
+				this.battleRecord.setMaxMoves(i, profile.getMaxMoves());
+			}
+		}
 	}
 
 	/**
@@ -121,51 +74,51 @@ public class DengFighterRobot extends FighterRobot {
 	 * @param data An array of opponents.
 	 */
 	public TurnRequest takeTurn(int energy, OppData[] data) {
-		BattleData currTarget = null;
-		int[] moves = new int[3];
+		if(this.battleRecord == null)
+			this.setupRecord();
 
 		// Updating data.
-		for(int i = 0; i < this.battleRecord.length; i++) {
-			// Since battleRecord will be sorted by something other than ID, it needs to use the opponent's
-			// ID to locate the same opponent in the OppData array.
-			BattleData current = this.battleRecord[i];
-			int oppID = current.getID(); 
-
-			if(oppID >= 0) {
-				// Updating maxMoves based on the opponent's stored and current coordinates. The if statement is so that
-				// it won't try to calculate maxMoves on its first round, when all the BattleData records haven't been updated yet and have coordinates of (-1, -1).
-				if(current.getAvenue() != -1 && current.getStreet() != -1) {
-					current.setMaxMoves(this.calcDistance(current.getAvenue(), current.getStreet(), data[oppID].getAvenue(), data[oppID].getStreet()));
-				}
-
-				current.setAvenue(data[oppID].getAvenue());
-				current.setStreet(data[oppID].getStreet());
-				current.setHealth(data[oppID].getHealth());
+		for(int i = 0; i < this.battleRecord.size(); i++) {
+			if(i != this.getID()) {
+				int maxMoves = this.battleRecord.getMaxMoves(i), health = this.battleRecord.getHealth(i);
+
+				// Updating the position and health, and maxMoves from how far the opponent moved since the last update.
+				this.battleRecord.update(i, data[i].getAvenue(), data[i].getStreet(), data[i].getHealth());
+
+				// Its ranking only needs updating if something it depends on changed.
+				if(this.battleRecord.getMaxMoves(i) != maxMoves || this.battleRecord.getHealth(i) != health)
+					this.updateRecord(i, health > 0, health > 0 && this.battleRecord.getRoundsFought(i) >= this.TEST_ATTACKS);
 			}
 		}
 
-		// Setting the target. Since sortBD is only called when it resets the target, the current target will always be at the front of the array 
-		// so the DFR will continue to attack that target until it's dead.
+		// Setting the target. Since chooseTarget is only called when it resets the target, the DFR will continue to attack the same target until it's dead.
 		this.setTarget();
-		currTarget = battleRecord[0];
 
 		// If the DFR hasn't finished setup yet but the next target (which is also the closest) is too far away, it'll just work with what it has.
-		if(!this.setup && this.calcDistance(currTarget) > 6 && this.hasData() > 0) {
-			System.out.println("TARGET TOO FAR, SETUP COMPLETE");
+		if(!this.setup && this.target >= 0 && this.calcDistance(this.target) > 6 && this.numTested > 0) {
+			this.trace("TARGET TOO FAR, SETUP COMPLETE");
 			this.setup = true;
 
-			// Sorting the battleRecord again, but this time based on calcStrength as the setup phase has been finished.
-			this.sortBD();
-			currTarget = battleRecord[0];
+			// Choosing again, but this time based on calcStrength as the setup phase has been finished.
+			this.chooseTarget();
+		}
+
+		// If there's nobody left to target, do nothing.
+		if(this.target < 0)
+			return new TurnRequest(this.getAvenue(), this.getStreet(), -1, 0);
+
+		// Only building the notes when somebody is reading them.
+		if(this.isTracing()) {
+			this.displayArray();
+			this.trace("Curr target: " + this.target);
 		}
-		
-		displayArray(battleRecord);
-		System.out.println("Curr target: " + currTarget.getID());
 
-		moves = this.moveAmount(energy, currTarget);
+		// Moving towards the target without using up all the energy.
+		int plan = this.planMove(energy, this.battleRecord.getAvenue(this.target), this.battleRecord.getStreet(this.target));
+		int a = MovePlanner.getAvenue(plan), s = MovePlanner.getStreet(plan);
 
 		// Attack the target if it is in range.
-		if(moves[2] == 1 && energy > 20) {
+		if(a == this.battleRecord.getAvenue(this.target) && s == this.battleRecord.getStreet(this.target) && energy > 20) {
 			int rounds;
 
 			// It will attack less rounds during the setup phase, but will be more aggressive afterwards.
@@ -174,7 +127,7 @@ public class DengFighterRobot extends FighterRobot {
 			else
 				rounds = this.getAttack();
 
-			return new TurnRequest(this.getAvenue() + moves[0], this.getStreet() + moves[1], currTarget.getID(), rounds);
+			return new TurnRequest(a, s, this.target, rounds);
 		}
 		// If its energy is less than 20, do nothing.
 		else if(energy <= 20) {
@@ -182,85 +135,7 @@ public class DengFighterRobot extends FighterRobot {
 		}
 		// Otherwise, move towards the target.
 		else
-			return new TurnRequest(this.getAvenue() + moves[0], this.getStreet() + moves[1], -1, 0);
-	}
-
-	/**
-	 * Calculates the amount to move in each direction towards a target without using up all the energy.
-	 * @param energy The robot's current energy.
-	 * @param target The target's BattleData record.
-	 * @return An array containing vertical and horizontal movement amounts, as well as an integer indicating whether or not it can attack the target after moving.
-	 */
-	private int[] moveAmount(int energy, BattleData target) {
-		int[] moves = new int[3];
-		int x, y, maxMoves, currEnergy = energy, movex = 0, movey = 0;
-
-		// Calculating the distance to the target.
-		x = target.getAvenue() - this.getAvenue();
-		y = target.getStreet() - this.getStreet();
-
-		// Calculating the maximum amount it can move.
-		// If there's more than enough energy to move, set maxMoves equal to the move points.
-		if(energy > this.getNumMoves() * 5) 
-			maxMoves = this.getNumMoves();
-		else if(energy < 5)
-			maxMoves = 0;
-		// If energy is a multiple of 5, reduce maxMoves by 1 as to not use up all the energy.
-		else if(energy % 5 == 0)
-			maxMoves = energy/5 - 1;
-		// If energy is not a multiple of 5, use integer division so some energy will be left.
-		else 
-			maxMoves = energy/5;
-
-		// Matching x coordinates, moving as far as it can or as far as it needs to.
-		if(x != 0) { 
-			if(Math.abs(x) >= maxMoves) {
-				currEnergy -= maxMoves * 5;
-				if(x > 0)
-					movex = maxMoves;
-				else
-					movex = -maxMoves;
-			}
-			else {
-				currEnergy -= Math.abs(x) * 5;
-				movex = x;
-			}
-		}
-
-		// Recalculating maxMoves based on remaining energy and how far it's already moved.
-		if(currEnergy > (this.getNumMoves() - Math.abs(movex)) * 5)
-			maxMoves = this.getNumMoves() - Math.abs(movex);
-		else if(currEnergy < 5)
-			maxMoves = 0;
-		else if(currEnergy % 5 == 0)
-			maxMoves = currEnergy/5 - 1;
-		else
-			maxMoves = currEnergy/5;
-
-		// Matching y coordinates, based on how far it can or how far it has to go.
-		if(y != 0) { 
-			if(Math.abs(y) >= maxMoves) {
-				if(y > 0)
-					movey = maxMoves;
-				else
-					movey = -maxMoves;
-			}
-			else
-				movey = y;
-		}
-
-		// Returning results.
-		moves[0] = movex; 
-		moves[1] = movey;
-
-		// If it can reach the target in this round, the third index will be 1.
-		// Otherwise, it'll be -1 to indicate the target can't be attacked this round.
-		if(this.getAvenue() + movex == target.getAvenue() && this.getStreet() + movey == target.getStreet())
-			moves[2] = 1;
-		else
-			moves[2] = -1;
-
-		return moves;
+			return new TurnRequest(a, s, -1, 0);
 	}
 
 	/**
@@ -268,109 +143,127 @@ public class DengFighterRobot extends FighterRobot {
 	 */
 	private void setTarget() {
 		// If it has data on an equal or greater number of opponents than needed or if it has data on every remaining opponent, the setup process is finished.
-		if(!this.setup && (this.hasData() >= this.testNum || this.hasData() == this.isAlive())) {
-			System.out.println("DONE SETUP");
+		if(!this.setup && (this.numTested >= this.testNum || this.numTested == this.numAlive)) {
+			this.trace("DONE SETUP");
 			this.setup = true;
-			this.sortBD();
+			this.chooseTarget();
 		}
-		// If it's still in the setup phase, it will target the closest opponent. There are two circumstances when it needs to sort and choose a new target: 
+		// If it's still in the setup phase, it will target the closest opponent. There are two circumstances when it needs to choose a new target: 
 		// when choosing the first target or when the current target has been fought more than TEST_ATTACKS number of times.
-		else if(!this.setup && (this.battleRecord[0].getRoundsFought() >= this.TEST_ATTACKS || !this.firstTarget)) {
-			System.out.println("NOT SETUP, NEXT TARGET");
-			this.sortBD();
+		else if(!this.setup && (!this.firstTarget || (this.target >= 0 && this.battleRecord.getRoundsFought(this.target) >= this.TEST_ATTACKS))) {
+			this.trace("NOT SETUP, NEXT TARGET");
+			this.chooseTarget();
 		}
 		// If every fighter that it had data on is dead, restart the setup process.
-		else if(this.setup && this.hasData() == 0) { 
-			System.out.println("OUT OF DATA, RESTART SETUP");
+		else if(this.setup && this.numTested == 0) { 
+			this.trace("OUT OF DATA, RESTART SETUP");
 			this.setup = false;
-			this.sortBD();
+			this.chooseTarget();
 		}
-		// If its previous target is dead, resort the battleRecord.
-		else if(this.battleRecord[0].getHealth() == 0) {
-			System.out.println("TARGET DEAD, RESET TARGET");
-			this.sortBD();
+		// If its previous target is dead, or it didn't have one, choose again.
+		else if(this.target < 0 || this.battleRecord.getHealth(this.target) == 0) {
+			this.trace("TARGET DEAD, RESET TARGET");
+			this.chooseTarget();
 		}
 	}
 
 	/**
-	 * Counts how many currently alive opponents that it has fought at least TEST_ATTACKS times.
-	 * @return The number of opponents that it has data on.
+	 * Updates the ranking and the opponent counters after an opponent's record changed.
+	 * @param opp The ID of that opponent.
+	 * @param wasAlive Whether it was alive before the change.
+	 * @param wasTested Whether it was alive and had been fought at least TEST_ATTACKS times before the change.
 	 */
-	private int hasData() {
-		int counter = 0;
-		for(int i = 0; i < this.battleRecord.length; i++) {
-			if(this.battleRecord[i].getRoundsFought() >= this.TEST_ATTACKS && this.battleRecord[i].getHealth() > 0) {
-				counter++;
-			}
-		}
+	private void updateRecord(int opp, boolean wasAlive, boolean wasTested) {
+		boolean alive = this.battleRecord.getHealth(opp) > 0, tested = alive && this.battleRecord.getRoundsFought(opp) >= this.TEST_ATTACKS;
+		if(alive != wasAlive)
+			this.numAlive += alive ? 1 : -1;
+		if(tested != wasTested)
+			this.numTested += tested ? 1 : -1;
+
+		// Dead opponents are never targeted, so they're taken out of the ranking.
+		if(alive)
+			this.ranking.set(opp, this.calcBaseStrength(opp));
+		else
+			this.ranking.remove(opp);
+	}
 
-		return counter;
+	/**
+	 * Chooses the current target depending on the current situation.
+	 */
+	private void chooseTarget() {
+		this.trace("CHOOSING TARGET");
+		if(!this.setup)
+			this.target = this.findClosest();
+		else
+			this.target = this.findWeakest();
 	}
 
 	/**
-	 * Counts how many opponents are still alive.
-	 * @return The number of alive opponents.
+	 * In the setup phase, it'll target the closest opponent that is alive and hasn't already been fought TEST_ATTACKS times.
+	 * @return The ID of that opponent, or -1 if there isn't one.
 	 */
-	private int isAlive() {
-		int counter = 0;
-		for(int i = 0; i < this.battleRecord.length; i++) {
-			if(this.battleRecord[i].getHealth() > 0) {
-				counter++;
+	private int findClosest() {
+		int best = -1, bestDistance = Integer.MAX_VALUE;
+
+		// Every alive opponent is in the ranking, so only they need checking.
+		for(int i = 0; i < this.ranking.size(); i++) {
+			int opp = this.ranking.idAt(i), distance = this.calcDistance(opp);
+			if(this.isValid(opp) && (distance < bestDistance || (distance == bestDistance && opp < best))) {
+				best = opp;
+				bestDistance = distance;
 			}
 		}
 
-		return counter;
+		return best;
 	}
 
 	/**
-	 * Sorts the battleRecord array depending on the current situation.
+	 * Finds the alive opponent with the lowest strength, choosing the lowest ID between equally strong ones.
+	 * @return The ID of that opponent, or -1 if there isn't one.
 	 */
-	private void sortBD() {
-		System.out.println("SORTING");
-		for(int i = 1; i < this.battleRecord.length; i++) {
-			int check = i;
-
-			// Determining how to sort. In the setup phase, it'll target the closest opponent.
-			if(!setup) {
-
-				// All opponents that are dead or have already been fought TEST_ATTACKS times will be sorted to the back. Otherwise, the array will be sorted by distance.
-				while(this.battleRecord[check - 1].getHealth() == 0 || this.battleRecord[check - 1].getRoundsFought() >= this.TEST_ATTACKS || (this.calcDistance(this.battleRecord[check]) < this.calcDistance(this.battleRecord[check - 1]) && this.isValid(this.battleRecord[check]))) {
-					this.swap(this.battleRecord, check, check - 1);
-					check -= 1;
-
-					// If the current opponent was moved to the start of the array, move on and start checking the next opponent.
-					if(check == 0)
-						break;
-				}
-			}
-			
-			/* If not in the setup phase, the DFR will pick the weakest opponent based on four levels of determination:
-			 * 1. Health
-			 * 2. Distance
-			 * 3. Average health lost from previous encounters
-			 * 4. Its possible max attack and defence point sum, as determined by observing its movements and storing data in its BattleData record.
-			 * For example, if an opponent moves 5 squares in one round, that means the sum of its attack and defence points can be a maximum of 5. 
-			 * 
-			 * Adding these various attributes provides a broader understanding of an opponent. The lower any one (and the sum) is, the better. 
-			 * It'll also prioritize opponents with rounds fought as there is data about them. */
-			else {
-				while(this.battleRecord[check - 1].getHealth() == 0 || (this.calcStrength(this.battleRecord[check]) < this.calcStrength(this.battleRecord[check - 1]) && this.battleRecord[check].getHealth() > 0)) {
-					this.swap(battleRecord, check, check - 1);
-					check -= 1;
-					if(check == 0)
-						break;
-				}
+	private int findWeakest() {
+		/* If not in the setup phase, the DFR will pick the weakest opponent based on four levels of determination:
+		 * 1. Health
+		 * 2. Distance
+		 * 3. Average health lost from previous encounters
+		 * 4. Its possible max attack and defence point sum, as determined by observing its movements and storing data in its battleRecord.
+		 * For example, if an opponent moves 5 squares in one round, that means the sum of its attack and defence points can be a maximum of 5. 
+		 * 
+		 * Adding these various attributes provides a broader understanding of an opponent. The lower any one (and the sum) is, the better. 
+		 * It'll also prioritize opponents with rounds fought as there is data about them. */
+		int best = -1, depth = 0;
+		double bestStrength = Double.MAX_VALUE;
+
+		// An opponent's strength is never lower than its score in the ranking, and no score in the heap is lower than its parent's.
+		// So once a score is higher than the best strength found, nothing below it in the heap needs checking.
+		if(this.ranking.size() > 0)
+			this.stack[depth++] = 0;
+		while(depth > 0) {
+			int i = this.stack[--depth], id = this.ranking.idAt(i);
+			if(this.ranking.getScore(id) > bestStrength)
+				continue;
+
+			double strength = this.calcStrength(id);
+			if(strength < bestStrength || (strength == bestStrength && id < best)) {
+				best = id;
+				bestStrength = strength;
 			}
+			if(2 * i + 1 < this.ranking.size())
+				this.stack[depth++] = 2 * i + 1;
+			if(2 * i + 2 < this.ranking.size())
+				this.stack[depth++] = 2 * i + 2;
 		}
+
+		return best;
 	}
 
 	/**
 	 * Checks if an opponent is "valid", meaning they're alive and hasn't been fought TEST_ATTACKS times yet.
-	 * @param opp The BattleData record for that opponent.
+	 * @param opp The ID of that opponent.
 	 * @return True if yes, false if no.
 	 */
-	private boolean isValid(BattleData opp) {
-		if(opp.getHealth() > 0 && opp.getRoundsFought() < this.TEST_ATTACKS)
+	private boolean isValid(int opp) {
+		if(this.battleRecord.getHealth(opp) > 0 && this.battleRecord.getRoundsFought(opp) < this.TEST_ATTACKS)
 			return true;
 		else
 			return false;
@@ -378,52 +271,40 @@ public class DengFighterRobot extends FighterRobot {
 
 	/**
 	 * Calculates the number of moves needed to reach an opponent.
-	 * @param opp The BattleData record of that opponent.
+	 * @param opp The ID of that opponent.
 	 * @return The number of moves needed to reach that opponent.
 	 */
-	private int calcDistance(BattleData opp) {
-		return Math.abs(opp.getAvenue() - this.getAvenue()) + Math.abs(opp.getStreet() - this.getStreet());
+	private int calcDistance(int opp) {
+		return Math.abs(this.battleRecord.getAvenue(opp) - this.getAvenue()) + Math.abs(this.battleRecord.getStreet(opp) - this.getStreet());
 	}
 
 	/**
-	 * Overloading the calcDistance method to work with coordinates.
-	 * @param x1 The x coordinate of the first point.
-	 * @param y1 The y coordinate of the first point.
-	 * @param x2 The x coordiante of the second point.
-	 * @param y2 The y coordinate of the second point.
-	 * @return The number of moves between the two points.
+	 * Calculates the "strength" of an opponent based on various factors.
+	 * @param opp The ID of that opponent.
+	 * @return Their "strength".
 	 */
-	private int calcDistance(int x1, int y1, int x2, int y2) {
-		return Math.abs(x2 - x1) + Math.abs(y2 - y1); 
+	private double calcStrength(int opp) {
+		if(this.battleRecord.getRoundsFought(opp) > 0)
+			return this.calcDistance(opp) + this.calcBaseStrength(opp);
+		else
+			return this.calcBaseStrength(opp);
 	}
 
 	/**
-	 * Calculates the "strength" of an opponent based on various factors.
-	 * @param opp The BattleData record of that opponent.
-	 * @return Their "strength".
+	 * Calculates the part of an opponent's "strength" that doesn't depend on where the DFR is, so it only changes when the opponent's record does.
+	 * @param opp The ID of that opponent.
+	 * @return Their "strength", without the distance to them.
 	 */
-	private double calcStrength(BattleData opp) {
+	private double calcBaseStrength(int opp) {
 		// The values are multiplied by weighting (e.g. 0.8) based on their importance. 
 		// For example, health isn't that important since it's not necessarily an indicator of strength it's not unusual for a fighter to come back and kill an opponent with higher health.
-		if(opp.getRoundsFought() > 0)
-			return this.calcDistance(opp) + opp.getHealth() * 0.8 + (double)opp.getHealthLost()/opp.getRoundsFought() * 0.4 + (10 - opp.getMaxMoves());
-		// If this opponent hasn't been fought yet, meaning there's no data about it, calcStrength will return a large value so this record gets sorted to the back and the DFR will target opponents that it has experience with.
+		if(this.battleRecord.getRoundsFought(opp) > 0)
+			return this.battleRecord.getHealth(opp) * 0.8 + (double)this.battleRecord.getHealthLost(opp)/this.battleRecord.getRoundsFought(opp) * 0.4 + (10 - this.battleRecord.getMaxMoves(opp));
+		// If this opponent hasn't been fought yet, meaning there's no data about it, it will get a large value so the DFR will target opponents that it has experience with.
 		else
 			return 200;
 	}
 
-	/**
-	 * Swaps two BattleData records in an array.
-	 * @param battleRecord The array of BattleData records.
-	 * @param index1 The index of the first record.
-	 * @param index2 The index of the second record.
-	 */
-	private void swap(BattleData[] battleRecord, int index1, int index2) {
-		BattleData temp = battleRecord[index1];
-		battleRecord[index1] = battleRecord[index2];
-		battleRecord[index2] = temp;
-	}
-
 	/**
 	 * Overriding the setLable method to display health and turn the robot black once it's dead.
 	 */
@@ -437,32 +318,38 @@ public class DengFighterRobot extends FighterRobot {
 	}
 
 	/**
-	 * Updates the robot's health, as well as the BattleData for the opponent it just fought.
+	 * Updates the robot's health, as well as the battleRecord for the opponent it just fought.
 	 */
 	public void battleResult(int healthLost, int oppID, int oppHealthLost, int numRoundsFought) {
 		this.health -= healthLost;
 
+		// It can be attacked before its first turn.
+		if(this.battleRecord == null)
+			this.setupRecord();
+
 		/* firstTarget is used to keep track of whether the DFR has found its first target or not. Before it has, the DFR 
 		 * will be constantly moving towards the closest opponent, but once battleResult is called for an ID >= 0, meaning it
 		 * either attacked or was attacked, then it should target whoever that opponent is as they are now the closest. */
 		if(!this.firstTarget && oppID >= 0) {
 			this.firstTarget = true;
-			this.sortBD();
+			this.chooseTarget();
 		}
 
-		// Finding the opponent in battleRecord and updating its information.
-		for(int i = 0; i < this.battleRecord.length; i++) {
-			if(this.battleRecord[i].getID() == oppID && oppID >= 0) {
-				this.battleRecord[i].addHealthLost(healthLost);
-				this.battleRecord[i].addRoundsFought();
-				break;
-			}
+		// Updating the opponent's information.
+		if(oppID >= 0) {
+			boolean alive = this.battleRecord.getHealth(oppID) > 0;
+			boolean wasTested = alive && this.battleRecord.getRoundsFought(oppID) >= this.TEST_ATTACKS;
+			this.battleRecord.addHealthLost(oppID, healthLost);
+			this.battleRecord.addRoundsFought(oppID);
+			this.updateRecord(oppID, alive, wasTested);
 		}
 	}
 	
-	private void displayArray(BattleData[] battleRecord) {
-		for(BattleData record : battleRecord)
-			System.out.print(record + " S: " + calcStrength(record) + " ");
-		System.out.println();
+	private void displayArray() {
+		StringBuilder line = new StringBuilder();
+		for(int i = 0; i < this.battleRecord.size(); i++)
+			if(i != this.getID())
+				line.append(this.battleRecord.toString(i)).append(" S: ").append(calcStrength(i)).append(" ");
+		this.trace(line.toString());
 	}
 }
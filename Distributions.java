@@ -0,0 +1,118 @@
+package robot_war_summative;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Histograms of how battles play out, kept apart for every class of robot, so balance can be judged
+ * from the spread over many games rather than from the totals of one.  The measures are listed in
+ * Measure.
+ *
+ * Like its histograms, a Distributions is written by one thread.  A tournament keeps one for every
+ * worker thread and merges them once it is over, or merges copies of them to report while it runs.
+ */
+public class Distributions {
+
+	/**
+	 * What is measured, and which robot each value is counted for.
+	 */
+	public enum Measure
+	{
+		GAME_TURNS("Turns per game, by winner"),
+		FIGHT_ROUNDS("Rounds per fight, by attacker"),
+		FIGHT_HEALTH_LOST("Health lost per fight, by each side"),
+		FIRST_KILL_TURN("Turn of a robot's first kill");
+
+		private final String title;
+
+		private Measure(String title)
+		{
+			this.title = title;
+		}
+
+		/**
+		 * Returns the heading the measure is printed under.
+		 * @return	the heading
+		 */
+		public String getTitle()
+		{
+			return this.title;
+		}
+	}
+
+	private final Map<String, Histogram[]> byClass = new LinkedHashMap<String, Histogram[]>();
+
+	/**
+	 * Returns the histograms of a class of robot, one for each Measure in order, creating them the first time the class is seen.
+	 * @param name	the simple name of the class
+	 * @return	the histograms, indexed by the measure's ordinal
+	 */
+	Histogram[] forClass(String name)
+	{
+		Histogram[] histograms = this.byClass.get(name);
+		if (histograms == null)
+		{
+			histograms = new Histogram[Measure.values().length];
+			for (int m = 0; m < histograms.length; m++)
+				histograms[m] = new Histogram();
+			this.byClass.put(name, histograms);
+		}
+		return histograms;
+	}
+
+	/**
+	 * Returns the histogram of one measure for a class of robot.
+	 * @param name		the simple name of the class
+	 * @param measure	what is measured
+	 * @return	the histogram, empty if the class was never seen
+	 */
+	public Histogram get(String name, Measure measure)
+	{
+		Histogram[] histograms = this.byClass.get(name);
+		return histograms == null ? new Histogram() : histograms[measure.ordinal()];
+	}
+
+	/**
+	 * Adds the counts of another set of distributions to this one's.
+	 * @param other	the distributions to add
+	 */
+	public void merge(Distributions other)
+	{
+		for (Map.Entry<String, Histogram[]> entry : other.byClass.entrySet())
+		{
+			Histogram[] histograms = this.forClass(entry.getKey());
+			for (int m = 0; m < histograms.length; m++)
+				histograms[m].merge(entry.getValue()[m]);
+		}
+	}
+
+	/**
+	 * Returns distributions with the same counts as these, which stay as they are while these go on counting.
+	 * @return	the copy
+	 */
+	public Distributions copy()
+	{
+		Distributions copy = new Distributions();
+		copy.merge(this);
+		return copy;
+	}
+
+	/**
+	 * Prints out a table for every measure, with a line for every class of robot.
+	 */
+	public void print()
+	{
+		for (Measure measure : Measure.values())
+		{
+			System.out.println(measure.getTitle());
+			System.out.format("  %-22s%10s%9s%7s%7s%7s%7s%7s%n", "Robot", "Count", "Mean", "Min", "50%", "90%", "99%", "Max");
+			for (Map.Entry<String, Histogram[]> entry : this.byClass.entrySet())
+			{
+				Histogram h = entry.getValue()[measure.ordinal()];
+				if (h.getCount() > 0)
+					System.out.format("  %-22s%10d%9.1f%7d%7d%7d%7d%7d%n", entry.getKey(), h.getCount(), h.getMean(), h.getMin(),
+							h.getValueAtPercentile(50), h.getValueAtPercentile(90), h.getValueAtPercentile(99), h.getMax());
+			}
+		}
+	}
+}
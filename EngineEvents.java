@@ -0,0 +1,121 @@
+package robot_war_summative;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * JDK Flight Recorder events for the phases of a turn, each carrying the robot it was for, so a
+ * recording of a tournament shows which robots and which parts of the engine the time goes to.
+ * Start a recording with -XX:StartFlightRecording or jcmd, and look for the events under Robot War.
+ *
+ * While nothing is recording, an event is never committed and the JIT compiles it away, so the phases
+ * cost nothing extra.  While recording, a battle played at full speed writes several events per turn;
+ * for a long tournament, give the events a threshold in the recording's settings to keep only the slow ones.
+ */
+final class EngineEvents {
+
+	private EngineEvents()
+	{
+	}
+
+	/**
+	 * Asks a robot for its turn inside a TakeTurn event.
+	 * @param robot		the robot
+	 * @param energy	its energy
+	 * @param data		the records of every player
+	 * @return	the robot's request
+	 */
+	static TurnRequest takeTurn(FighterRobot robot, int energy, OppData[] data)
+	{
+		TakeTurn event = new TakeTurn();
+		event.begin();
+		TurnRequest request = robot.takeTurn(energy, data);
+		event.commitFor(robot.getID(), robot);
+		return request;
+	}
+
+	/**
+	 * A phase of the engine's work for one robot.  The robot says who the time went to, so the events
+	 * leave out the stack trace, which would cost far more to record than most phases take.
+	 */
+	@Category({"Robot War", "Engine"})
+	@StackTrace(false)
+	abstract static class Phase extends Event
+	{
+		@Label("Robot ID")
+		@Description("The ID of the robot, or -1 for work done for every robot at once")
+		int robotID;
+
+		@Label("Robot Class")
+		Class<?> robotClass;
+
+		/**
+		 * Ends the event and writes it, if it is being recorded.
+		 * @param id	the ID of the robot, or -1
+		 * @param robot	the robot, or null if there is none
+		 */
+		void commitFor(int id, FighterRobot robot)
+		{
+			this.end();
+			if (this.shouldCommit())
+			{
+				this.robotID = id;
+				this.robotClass = robot == null ? null : robot.getClass();
+				this.commit();
+			}
+		}
+	}
+
+	@Name("robot_war.Snapshot")
+	@Label("Snapshot")
+	@Description("Bringing the opponent snapshot up to date and copying the records handed to the robots")
+	static class Snapshot extends Phase
+	{
+	}
+
+	@Name("robot_war.TakeTurn")
+	@Label("Take Turn")
+	@Description("A robot deciding its turn")
+	static class TakeTurn extends Phase
+	{
+	}
+
+	@Name("robot_war.Validate")
+	@Label("Validate Request")
+	@Description("Checking a robot's request against the rules")
+	static class Validate extends Phase
+	{
+	}
+
+	@Name("robot_war.Move")
+	@Label("Move")
+	@Description("Moving a robot to where it asked to go")
+	static class Move extends Phase
+	{
+	}
+
+	@Name("robot_war.Combat")
+	@Label("Combat")
+	@Description("Resolving a fight, with the attacker's ID")
+	static class Combat extends Phase
+	{
+	}
+
+	@Name("robot_war.AdjustStats")
+	@Label("Adjust Stats")
+	@Description("Counting a fight in both robots' statistics, with the attacker's ID")
+	static class AdjustStats extends Phase
+	{
+	}
+
+	@Name("robot_war.SetLabel")
+	@Label("Set Label")
+	@Description("A robot updating its label in the city")
+	static class SetLabel extends Phase
+	{
+	}
+}
@@ -0,0 +1,274 @@
+package robot_war_summative;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Resolves a whole fight of several rounds at once.  The result of a fight only depends on the
+ * number of attack and defence dice, the number of rounds and the fighters' energy and health, so
+ * the chance of every possible end of the fight is worked out the first time that starting point is
+ * seen and remembered.  After that a fight is decided with a single draw.
+ *
+ * The end of a fight is packed into an int so resolving it allocates nothing.  The rounds won and
+ * lost by each fighter are not stored separately, since every round a fighter wins costs the other
+ * exactly one point of health.
+ */
+public class FightResolver {
+
+	public static final int MAX_ROUNDS = 31;		// fights longer than this are played round by round
+
+	private static final int DRAW_BITS = 53;
+	private static final long ONE = 1L << DRAW_BITS;
+
+	// Layout of a packed outcome: attacker energy, defender energy, attacker health lost, defender health lost, rounds fought.
+	private static final int ENERGY_BITS = 7;
+	private static final int COUNT_BITS = 5;
+	private static final int ENERGY_MASK = (1 << ENERGY_BITS) - 1;
+	private static final int COUNT_MASK = (1 << COUNT_BITS) - 1;
+	private static final int DEFENDER_ENERGY_SHIFT = ENERGY_BITS;
+	private static final int ATTACKER_LOST_SHIFT = 2 * ENERGY_BITS;
+	private static final int DEFENDER_LOST_SHIFT = 2 * ENERGY_BITS + COUNT_BITS;
+	private static final int ROUNDS_SHIFT = 2 * ENERGY_BITS + 2 * COUNT_BITS;
+
+	private static final ConcurrentHashMap<Long, Distribution> fights = new ConcurrentHashMap<Long, Distribution>();
+
+	/**
+	 * Decides a whole fight with a single draw.
+	 * @param random			the stream the fight draws from
+	 * @param attackDice		the number of dice the attacker rolls
+	 * @param defenceDice		the number of dice the defender rolls
+	 * @param rounds			the number of rounds the attacker asked for
+	 * @param attackerEnergy	the attacker's energy before the fight
+	 * @param attackerHealth	the attacker's health before the fight
+	 * @param defenderEnergy	the defender's energy before the fight
+	 * @param defenderHealth	the defender's health before the fight
+	 * @return	the packed end of the fight, read with the get methods of this class
+	 */
+	public static int resolve(SplittableRandom random, int attackDice, int defenceDice, int rounds, int attackerEnergy, int attackerHealth, int defenderEnergy, int defenderHealth)
+	{
+		if (rounds <= 0)
+			return pack(attackerEnergy, defenderEnergy, 0, 0, 0);
+		if (rounds > MAX_ROUNDS || attackDice < 1 || attackDice > CombatResolver.MAX_DICE || defenceDice < 1 || defenceDice > CombatResolver.MAX_DICE
+				|| attackerEnergy > ENERGY_MASK || defenderEnergy > ENERGY_MASK)
+			return playRounds(random, attackDice, defenceDice, rounds, attackerEnergy, attackerHealth, defenderEnergy, defenderHealth);
+
+		Distribution fight = distribution(attackDice, defenceDice, rounds, attackerEnergy, Math.min(attackerHealth, rounds + 1), defenderEnergy, Math.min(defenderHealth, rounds + 1));
+		return fight.sample(random.nextLong() >>> (64 - DRAW_BITS));
+	}
+
+	/**
+	 * Returns the attacker's energy at the end of a fight.
+	 * @param outcome	the packed end of the fight
+	 * @return	the attacker's energy
+	 */
+	public static int getAttackerEnergy(int outcome)
+	{
+		return outcome & ENERGY_MASK;
+	}
+
+	/**
+	 * Returns the defender's energy at the end of a fight.
+	 * @param outcome	the packed end of the fight
+	 * @return	the defender's energy
+	 */
+	public static int getDefenderEnergy(int outcome)
+	{
+		return (outcome >>> DEFENDER_ENERGY_SHIFT) & ENERGY_MASK;
+	}
+
+	/**
+	 * Returns the health the attacker lost in a fight, which is also the number of rounds the defender won.
+	 * @param outcome	the packed end of the fight
+	 * @return	the attacker's health lost
+	 */
+	public static int getAttackerHealthLost(int outcome)
+	{
+		return (outcome >>> ATTACKER_LOST_SHIFT) & COUNT_MASK;
+	}
+
+	/**
+	 * Returns the health the defender lost in a fight, which is also the number of rounds the attacker won.
+	 * @param outcome	the packed end of the fight
+	 * @return	the defender's health lost
+	 */
+	public static int getDefenderHealthLost(int outcome)
+	{
+		return (outcome >>> DEFENDER_LOST_SHIFT) & COUNT_MASK;
+	}
+
+	/**
+	 * Returns the number of rounds actually fought, which can be less than asked for when a fighter
+	 * dies or the attacker runs out of energy.
+	 * @param outcome	the packed end of the fight
+	 * @return	the number of rounds fought
+	 */
+	public static int getRounds(int outcome)
+	{
+		return (outcome >>> ROUNDS_SHIFT) & COUNT_MASK;
+	}
+
+	/**
+	 * Returns the chances of every possible end of a fight, working them out if this starting point
+	 * has not been seen before.  Health is capped at one more than the rounds left, since any more
+	 * than that can not run out during the fight.
+	 */
+	private static Distribution distribution(int attackDice, int defenceDice, int rounds, int attackerEnergy, int attackerHealth, int defenderEnergy, int defenderHealth)
+	{
+		long key = (((((((long) attackDice * 16 + defenceDice) * 32 + rounds) * 128 + attackerEnergy) * 128 + defenderEnergy) * 64 + attackerHealth) * 64) + defenderHealth;
+		Distribution fight = fights.get(key);
+		if (fight != null)
+			return fight;
+
+		Map<Integer, Double> chances = new HashMap<Integer, Double>();
+		if (attackerEnergy <= 0 || attackerHealth <= 0 || defenderHealth <= 0)
+		{
+			// the fight is over, nothing changes for the rounds that are left
+			chances.put(pack(attackerEnergy, defenderEnergy, 0, 0, 0), 1.0);
+		}
+		else if (defenderEnergy <= 0)
+		{
+			// a defender with no energy loses the round without rolling
+			addRound(chances, 1.0, attackDice, defenceDice, rounds, clamp(attackerEnergy + Battle.ATTACKER_ENERGY_CHANGE), attackerHealth, defenderEnergy, defenderHealth - 1, 0, 1);
+		}
+		else
+		{
+			double win = CombatResolver.attackerWinChance(attackDice, defenceDice);
+			double tie = CombatResolver.tieChance(attackDice, defenceDice);
+			addRound(chances, win, attackDice, defenceDice, rounds,
+					clamp(attackerEnergy + Battle.ATTACKER_ENERGY_CHANGE), attackerHealth, clamp(defenderEnergy - Battle.DEFENDER_ENERGY_CHANGE), defenderHealth - 1, 0, 1);
+			addRound(chances, tie, attackDice, defenceDice, rounds,
+					clamp(attackerEnergy - Battle.TIE_ENERGY_CHANGE), attackerHealth, clamp(defenderEnergy - Battle.TIE_ENERGY_CHANGE), defenderHealth, 0, 0);
+			addRound(chances, 1 - win - tie, attackDice, defenceDice, rounds,
+					clamp(attackerEnergy - Battle.ATTACKER_ENERGY_CHANGE), attackerHealth - 1, clamp(defenderEnergy + Battle.DEFENDER_ENERGY_CHANGE), defenderHealth, 1, 0);
+		}
+
+		fight = new Distribution(chances);
+		Distribution other = fights.putIfAbsent(key, fight);
+		return other != null ? other : fight;
+	}
+
+	/**
+	 * Adds the ends of the rest of a fight, after one round with the given chance and result, to a table of chances.
+	 */
+	private static void addRound(Map<Integer, Double> chances, double chance, int attackDice, int defenceDice, int rounds,
+			int attackerEnergy, int attackerHealth, int defenderEnergy, int defenderHealth, int attackerLost, int defenderLost)
+	{
+		if (chance <= 0)
+			return;
+
+		Distribution rest = rounds == 1
+				? null
+				: distribution(attackDice, defenceDice, rounds - 1, attackerEnergy, attackerHealth, defenderEnergy, defenderHealth);
+		if (rest == null)
+		{
+			chances.merge(pack(attackerEnergy, defenderEnergy, attackerLost, defenderLost, 1), chance, Double::sum);
+			return;
+		}
+
+		long below = 0;
+		for (int i = 0; i < rest.outcomes.length; i++)
+		{
+			int outcome = rest.outcomes[i];
+			double restChance = (rest.below[i] - below) / (double) ONE;
+			below = rest.below[i];
+			int next = pack(getAttackerEnergy(outcome), getDefenderEnergy(outcome), getAttackerHealthLost(outcome) + attackerLost,
+					getDefenderHealthLost(outcome) + defenderLost, getRounds(outcome) + 1);
+			chances.merge(next, chance * restChance, Double::sum);
+		}
+	}
+
+	/**
+	 * Plays a fight one round at a time, for fights outside the range the tables are kept for.
+	 */
+	private static int playRounds(SplittableRandom random, int attackDice, int defenceDice, int rounds, int attackerEnergy, int attackerHealth, int defenderEnergy, int defenderHealth)
+	{
+		int attackerLost = 0;
+		int defenderLost = 0;
+		int fought = 0;
+		for (int n = 0; n < rounds && attackerEnergy > 0 && attackerLost < attackerHealth && defenderLost < defenderHealth; n++)
+		{
+			fought ++;
+			int result = defenderEnergy <= 0 ? CombatResolver.ATTACKER_WINS : CombatResolver.roll(random, attackDice, defenceDice);
+			if (result == CombatResolver.DEFENDER_WINS)
+			{
+				attackerLost ++;
+				attackerEnergy = clamp(attackerEnergy - Battle.ATTACKER_ENERGY_CHANGE);
+				defenderEnergy = clamp(defenderEnergy + Battle.DEFENDER_ENERGY_CHANGE);
+			}
+			else if (result == CombatResolver.TIE)
+			{
+				attackerEnergy = clamp(attackerEnergy - Battle.TIE_ENERGY_CHANGE);
+				defenderEnergy = clamp(defenderEnergy - Battle.TIE_ENERGY_CHANGE);
+			}
+			else
+			{
+				defenderLost ++;
+				attackerEnergy = clamp(attackerEnergy + Battle.ATTACKER_ENERGY_CHANGE);
+				if (defenderEnergy > 0)
+					defenderEnergy = clamp(defenderEnergy - Battle.DEFENDER_ENERGY_CHANGE);
+			}
+		}
+		return pack(attackerEnergy, defenderEnergy, attackerLost, defenderLost, fought);
+	}
+
+	private static int clamp(int energy)
+	{
+		if (energy < 0)
+			return 0;
+		else if (energy > Battle.MAX_ENERGY)
+			return Battle.MAX_ENERGY;
+		return energy;
+	}
+
+	private static int pack(int attackerEnergy, int defenderEnergy, int attackerLost, int defenderLost, int rounds)
+	{
+		return attackerEnergy | defenderEnergy << DEFENDER_ENERGY_SHIFT | attackerLost << ATTACKER_LOST_SHIFT
+				| defenderLost << DEFENDER_LOST_SHIFT | rounds << ROUNDS_SHIFT;
+	}
+
+	/**
+	 * The possible ends of a fight from one starting point, each with the draws below which it is picked.
+	 */
+	private static class Distribution
+	{
+		private final int[] outcomes;
+		private final long[] below;
+
+		Distribution(Map<Integer, Double> chances)
+		{
+			// sorted so the table, and so every draw, is the same no matter the order the chances were added in
+			this.outcomes = new int[chances.size()];
+			int n = 0;
+			for (Integer outcome : chances.keySet())
+				this.outcomes[n++] = outcome;
+			Arrays.sort(this.outcomes);
+
+			this.below = new long[n];
+			double total = 0;
+			for (int i = 0; i < n; i++)
+			{
+				total += chances.get(this.outcomes[i]);
+				this.below[i] = Math.min(ONE, Math.round(total * ONE));
+			}
+			this.below[n - 1] = ONE;
+		}
+
+		int sample(long draw)
+		{
+			int low = 0;
+			int high = this.outcomes.length - 1;
+			while (low < high)
+			{
+				int middle = (low + high) >>> 1;
+				if (draw < this.below[middle])
+					high = middle;
+				else
+					low = middle + 1;
+			}
+			return this.outcomes[low];
+		}
+	}
+}
@@ -1,6 +1,9 @@
 package robot_war_summative;
 
 import becker.robots.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
 
 public abstract class FighterRobot extends RobotSE{
 
@@ -9,6 +12,20 @@ public abstract class FighterRobot extends RobotSE{
 	private int defence;
 	private int numMoves;
 	
+	// Engine-owned position and direction, read instead of the robot's intersection when the battle is run headless.
+	private int[] avenues;
+	private int[] streets;
+	private Direction[] directions;
+	private SplittableRandom random = new SplittableRandom();
+	private OpponentView opponents;
+	private OpponentProfile[] profiles;	// what earlier games showed of each player's class, indexed by ID, or null when the battle does not learn
+	private BattleLog log = BattleLog.SILENT;
+	private List<String> notes;		// the notes written during a call on another thread, held until the battle knows it finished in time
+	private int arenaWidth = BattleManager.WIDTH;
+	private int arenaHeight = BattleManager.HEIGHT;
+	private int numPlayers = BattleManager.NUM_PLAYERS;
+	private long turnBudget;		// the longest the robot may take over a call, in milliseconds, or 0 for no limit
+	
 	public FighterRobot (City c, int a, int s, Direction d, int id, int attack, int defence, int numMoves){
 		super(c,a,s,d);
 		this.id = id;
@@ -55,6 +72,286 @@ public abstract class FighterRobot extends RobotSE{
 		return this.numMoves;
 	}
 	
+	/**
+	 * This method returns the avenue of the robot.  When the battle is run headless this is the
+	 * position held by the BattleManager, since the robot is never moved through the city.
+	 * @return	the avenue of the robot
+	 */
+	public int getAvenue()
+	{
+		if (this.avenues == null)
+			return super.getAvenue();
+		return this.avenues[this.id];
+	}
+	
+	/**
+	 * This method returns the street of the robot.  When the battle is run headless this is the
+	 * position held by the BattleManager, since the robot is never moved through the city.
+	 * @return	the street of the robot
+	 */
+	public int getStreet()
+	{
+		if (this.streets == null)
+			return super.getStreet();
+		return this.streets[this.id];
+	}
+	
+	/**
+	 * This method returns the direction of the robot.  When the battle is run headless this is the
+	 * direction held by the BattleManager, since the robot is never turned in the city.
+	 * @return	the direction the robot is facing
+	 */
+	public Direction getDirection()
+	{
+		if (this.directions == null)
+			return super.getDirection();
+		return this.directions[this.id];
+	}
+	
+	/**
+	 * Binds the robot to the position arrays of a headless battle.  From then on getAvenue, getStreet
+	 * and getDirection read the arrays (indexed by robot ID) instead of the city.
+	 * @param avenues		the avenue of every robot
+	 * @param streets		the street of every robot
+	 * @param directions	the direction of every robot
+	 */
+	void runHeadless(int[] avenues, int[] streets, Direction[] directions)
+	{
+		this.avenues = avenues;
+		this.streets = streets;
+		this.directions = directions;
+	}
+	
+	/**
+	 * This method returns the robot's own stream of random numbers.  The battle splits it off its seed,
+	 * so a robot that only uses this stream makes the same choices every time the same seed is played.
+	 * @return	the robot's random number generator
+	 */
+	protected SplittableRandom getRandom()
+	{
+		return this.random;
+	}
+	
+	/**
+	 * Gives the robot the stream of random numbers it draws from for the rest of the battle.
+	 * @param random	the robot's random number generator
+	 */
+	void useRandom(SplittableRandom random)
+	{
+		this.random = random;
+	}
+	
+	/**
+	 * This method returns the battle's shared, read-only view of every player, with the players
+	 * already ordered by health and by distance.  It holds the same records as the array passed to
+	 * takeTurn, so robots can use it instead of sorting the opponents themselves.
+	 * @return	the view of every player
+	 */
+	protected OpponentView getOpponents()
+	{
+		return this.opponents;
+	}
+	
+	/**
+	 * Gives the robot the battle's view of every player.
+	 * @param opponents	the view of every player
+	 */
+	void useOpponents(OpponentView opponents)
+	{
+		this.opponents = opponents;
+	}
+	
+	/**
+	 * This method returns what earlier games showed of the class of a player, so a robot that learns
+	 * about its opponents can start from it instead of finding it all out again.
+	 * @param id	the ID of the player
+	 * @return	the profile of its class, or null if the battle was not given profiles or the class was never profiled
+	 */
+	protected OpponentProfile getProfile(int id)
+	{
+		return this.profiles == null ? null : this.profiles[id];
+	}
+	
+	/**
+	 * Gives the robot the profiles of the classes of every player.
+	 * @param profiles	the profile of each player's class, indexed by ID
+	 */
+	void useProfiles(OpponentProfile[] profiles)
+	{
+		this.profiles = profiles;
+	}
+	
+	/**
+	 * This method tells whether the robot's notes are written to the battle's log.  Check it before
+	 * building a note, so a robot costs nothing extra when nobody is reading.
+	 * @return	true if notes passed to trace are written
+	 */
+	protected boolean isTracing()
+	{
+		return this.log.isEnabled(BattleLog.Verbosity.TRACE);
+	}
+	
+	/**
+	 * This method writes a note about the robot's own decisions to the battle's log, in place of
+	 * printing it to the console.  It should only be called from takeTurn or battleResult.
+	 * @param note	the note
+	 */
+	protected void trace(String note)
+	{
+		if (this.isTracing())
+		{
+			if (this.notes != null)
+				this.notes.add(note);
+			else
+				this.log.note(this.id, note);
+		}
+	}
+	
+	/**
+	 * Gives the robot the log of the battle it is playing in.
+	 * @param log	the battle's log
+	 */
+	void useLog(BattleLog log)
+	{
+		this.log = log;
+	}
+	
+	/**
+	 * Makes the robot hold on to its notes instead of writing them to the log, as it is called on
+	 * threads other than the battle's, which is the only one that may write to the log.
+	 */
+	void holdNotes()
+	{
+		this.notes = new ArrayList<String>();
+	}
+	
+	/**
+	 * Writes the notes held since the last call to the log, or drops them, on the battle's thread.
+	 * @param write	true to write them, false to drop them
+	 */
+	void flushNotes(boolean write)
+	{
+		if (this.notes == null)
+			return;
+		if (write)
+		{
+			for (int i = 0; i < this.notes.size(); i++)
+				this.log.note(this.id, this.notes.get(i));
+		}
+		this.notes.clear();
+	}
+	
+	/**
+	 * This method returns the number of avenues in the arena the robot is fighting in.  Avenues are
+	 * numbered from 0 to one less than the width.
+	 * @return	the width of the arena
+	 */
+	protected int getArenaWidth()
+	{
+		return this.arenaWidth;
+	}
+	
+	/**
+	 * This method returns the number of streets in the arena the robot is fighting in.  Streets are
+	 * numbered from 0 to one less than the height.
+	 * @return	the height of the arena
+	 */
+	protected int getArenaHeight()
+	{
+		return this.arenaHeight;
+	}
+	
+	/**
+	 * This method returns the number of players in the battle, alive or dead, which is also the length
+	 * of the array passed to takeTurn.  It is known from the time the battle is set up, so unlike that
+	 * array it can be used before the robot's first turn.
+	 * @return	the number of players
+	 */
+	protected int getNumPlayers()
+	{
+		return this.numPlayers;
+	}
+	
+	/**
+	 * Tells the robot the size of the arena and the number of players in the battle it is playing in.
+	 * @param width			the number of avenues
+	 * @param height		the number of streets
+	 * @param numPlayers	the number of players
+	 */
+	void useArena(int width, int height, int numPlayers)
+	{
+		this.arenaWidth = width;
+		this.arenaHeight = height;
+		this.numPlayers = numPlayers;
+	}
+	
+	/**
+	 * This method returns the longest the robot may take over a call before it is penalized, so a robot
+	 * that can think for as long as it likes knows how long it has.  Without a budget a game only depends
+	 * on its seed, so a robot that uses the clock should only do so when there is one.
+	 * @return	the time budget in milliseconds, or 0 if there is no limit
+	 */
+	protected long getTurnBudget()
+	{
+		return this.turnBudget;
+	}
+	
+	/**
+	 * Tells the robot the longest it may take over a call.
+	 * @param turnBudget	the time budget in milliseconds, or 0 for no limit
+	 */
+	void useTurnBudget(long turnBudget)
+	{
+		this.turnBudget = turnBudget;
+	}
+	
+	/**
+	 * This method returns the most moves the robot can make this turn and still have energy left to
+	 * fight where it ends up.
+	 * @param energy	the robot's energy
+	 * @return	the number of moves
+	 */
+	protected int getMoveBudget(int energy)
+	{
+		return MovePlanner.getBudget(this.numMoves, energy);
+	}
+	
+	/**
+	 * This method plans the robot's way towards an intersection this turn, as far along the avenue
+	 * as it needs to or can and then along the street, keeping energy to fight when it gets there.
+	 * @param energy	the robot's energy
+	 * @param avenue	the avenue to go towards
+	 * @param street	the street to go towards
+	 * @return	the intersection to ask for, read with MovePlanner.getAvenue and getStreet
+	 */
+	protected int planMove(int energy, int avenue, int street)
+	{
+		return MovePlanner.toward(this.getMoveBudget(energy), this.getAvenue(), this.getStreet(), avenue, street);
+	}
+	
+	/**
+	 * This method returns the number of intersections the robot can reach this turn and still fight
+	 * there, counting where it is.  Some of them can be outside the arena.
+	 * @param energy	the robot's energy
+	 * @return	the number of intersections
+	 */
+	protected int getNumReachable(int energy)
+	{
+		return MovePlanner.getNumReachable(this.getMoveBudget(energy));
+	}
+	
+	/**
+	 * This method returns one of the intersections the robot can reach this turn, from the closest to
+	 * the farthest, so an opponent on it can be attacked.
+	 * @param n	the position in the order, from 0 to getNumReachable less one
+	 * @return	the intersection, read with MovePlanner.getAvenue and getStreet
+	 */
+	protected int getReachable(int n)
+	{
+		int change = MovePlanner.getReachable(n);
+		return MovePlanner.pack(this.getAvenue() + MovePlanner.getAvenue(change), this.getStreet() + MovePlanner.getStreet(change));
+	}
+	
 	/**
 	 * This method labels the player.
 	 * 
@@ -66,8 +363,72 @@ public abstract class FighterRobot extends RobotSE{
 		this.setLabel("ID: " + this.getID());
 	}
 	
+	/**
+	 * This method walks the robot through the city to an intersection, along the avenue first and then
+	 * the street, turning the shortest way before each leg.  It is only called when the battle is
+	 * animated.  A headless battle places the robot itself, in one step, and records the direction the
+	 * robot would have ended up facing, so calling this then has no effect.
+	 * @param a	the avenue to go to
+	 * @param s	the street to go to
+	 */
+	public void goToLocation(int a, int s)
+	{
+		if (this.avenues != null)
+			return;
+
+		int x = a - this.getAvenue();
+		int y = s - this.getStreet();
+		if (x != 0)
+		{
+			this.turnTo(x > 0 ? Direction.EAST : Direction.WEST);
+			this.move(Math.abs(x));
+		}
+		if (y != 0)
+		{
+			this.turnTo(y > 0 ? Direction.SOUTH : Direction.NORTH);
+			this.move(Math.abs(y));
+		}
+	}
 
-	public abstract void goToLocation(int a, int s);
+	/**
+	 * Turns the robot to face a direction with a single turn, right, left or around.
+	 * @param dir	the direction to face
+	 */
+	private void turnTo(Direction dir)
+	{
+		switch ((quarterOf(dir) - quarterOf(this.getDirection()) + 4) % 4)
+		{
+		case 1:
+			this.turnRight();
+			break;
+		case 2:
+			this.turnAround();
+			break;
+		case 3:
+			this.turnLeft();
+			break;
+		}
+	}
+
+	/**
+	 * Returns the number of right turns from north to a direction.
+	 * @param dir	the direction
+	 * @return	0 for north, 1 for east, 2 for south or 3 for west
+	 */
+	private static int quarterOf(Direction dir)
+	{
+		switch (dir)
+		{
+		case EAST:
+			return 1;
+		case SOUTH:
+			return 2;
+		case WEST:
+			return 3;
+		default:
+			return 0;
+		}
+	}
 	
 	public abstract TurnRequest takeTurn(int energy, OppData[] data);
 	
@@ -0,0 +1,132 @@
+package robot_war_summative;
+
+/**
+ * Counts how often each value was recorded, in the log-linear buckets of an HdrHistogram, so that the
+ * counts of any number of values fit in a fixed amount of memory and two histograms can be merged by
+ * adding up their buckets.
+ *
+ * Values below 2 * SUB_BUCKETS each have a bucket of their own.  Above that, every power of two is
+ * split into SUB_BUCKETS buckets of equal width, so a value is only ever reported within about 3% of
+ * what was recorded.  Any int from 0 up can be recorded, which takes 864 buckets, or about 7 KB.
+ *
+ * A histogram is written by one thread only.  To read the counts of a histogram another thread is
+ * still writing, the writer hands over a copy.
+ */
+public class Histogram {
+
+	private static final int SUB_BUCKET_BITS = 5;
+	private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+	private static final int NUM_BUCKETS = (Integer.SIZE - 1 - SUB_BUCKET_BITS + 1) * SUB_BUCKETS;
+
+	private final long[] counts = new long[NUM_BUCKETS];
+	private long count;
+	private long sum;
+	private int min = Integer.MAX_VALUE;
+	private int max;
+
+	/**
+	 * Counts a value.
+	 * @param value	the value, 0 or more
+	 * @throws IllegalArgumentException	if the value is negative
+	 */
+	public void record(int value)
+	{
+		if (value < 0)
+			throw new IllegalArgumentException("A histogram can not count " + value);
+		this.counts[indexOf(value)] ++;
+		this.count ++;
+		this.sum += value;
+		this.min = Math.min(this.min, value);
+		this.max = Math.max(this.max, value);
+	}
+
+	/**
+	 * Adds the counts of another histogram to this one's.
+	 * @param other	the histogram to add
+	 */
+	public void merge(Histogram other)
+	{
+		for (int i = 0; i < NUM_BUCKETS; i++)
+			this.counts[i] += other.counts[i];
+		this.count += other.count;
+		this.sum += other.sum;
+		this.min = Math.min(this.min, other.min);
+		this.max = Math.max(this.max, other.max);
+	}
+
+	/**
+	 * Returns a histogram with the same counts as this one, which stays as it is while this one goes on counting.
+	 * @return	the copy
+	 */
+	public Histogram copy()
+	{
+		Histogram copy = new Histogram();
+		copy.merge(this);
+		return copy;
+	}
+
+	public long getCount()
+	{
+		return this.count;
+	}
+
+	/**
+	 * Returns the smallest value counted.
+	 * @return	the smallest value, or 0 if none was counted
+	 */
+	public int getMin()
+	{
+		return this.count == 0 ? 0 : this.min;
+	}
+
+	public int getMax()
+	{
+		return this.max;
+	}
+
+	/**
+	 * Returns the mean of the values counted, which is exact rather than worked out from the buckets.
+	 * @return	the mean, or 0 if no value was counted
+	 */
+	public double getMean()
+	{
+		return this.count == 0 ? 0 : (double) this.sum / this.count;
+	}
+
+	/**
+	 * Returns the value that a percentage of the values counted are at or below.
+	 * @param percentile	the percentage, from 0 to 100
+	 * @return	the highest value in the bucket the percentile falls in, but no more than the largest value counted
+	 */
+	public int getValueAtPercentile(double percentile)
+	{
+		long rank = Math.max(1, (long) Math.ceil(percentile / 100 * this.count));
+		long seen = 0;
+		for (int i = 0; i < NUM_BUCKETS; i++)
+		{
+			seen += this.counts[i];
+			if (seen >= rank)
+				return (int) Math.min(this.max, highestIn(i));
+		}
+		return this.max;
+	}
+
+	/**
+	 * Returns the bucket a value is counted in.
+	 */
+	private static int indexOf(int value)
+	{
+		int shift = Math.max(0, Integer.SIZE - 1 - Integer.numberOfLeadingZeros(value) - SUB_BUCKET_BITS);
+		return (shift << SUB_BUCKET_BITS) + (value >>> shift);
+	}
+
+	/**
+	 * Returns the largest value counted in a bucket.
+	 */
+	private static long highestIn(int index)
+	{
+		int shift = Math.max(0, (index >>> SUB_BUCKET_BITS) - 1);
+		long lowest = (long) (index - (shift << SUB_BUCKET_BITS)) << shift;
+		return lowest + (1L << shift) - 1;
+	}
+}
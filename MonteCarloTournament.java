@@ -0,0 +1,427 @@
+package robot_war_summative;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Plays headless battles between several rosters of FighterRobots, called matchups, until a budget of
+ * games is spent, and reports how well each class of robot does in each matchup with 95% confidence
+ * intervals.
+ *
+ * The games are played in rounds, a batch of games for every matchup still running, spread over a
+ * ForkJoinPool.  After each round a matchup stops once the interval of every class's win rate is
+ * narrower than the precision asked for, so the rest of the budget goes to the matchups that are still
+ * too close to call.  Every game's seed only depends on the tournament's seed, its matchup and its
+ * number, so the results are the same however many threads play them.
+ */
+public class MonteCarloTournament {
+
+	private static final int BATCH_SIZE = 256;		// the games each running matchup plays per round, before its intervals are checked again
+	private static final int GAMES_PER_TASK = 16;	// ranges of games smaller than this are played one after the other by a single task
+	private static final double Z = 1.959964;		// the number of standard deviations either side of the mean for a 95% interval
+
+	private final List<Matchup> matchups = new ArrayList<Matchup>();
+	private final int budget;
+	private final int numThreads;
+	private final long seed;
+	private final double precision;
+	private BattleConfig config = BattleConfig.DEFAULT;	// the arena and the way every game is played, each with its own matchup's roster
+	private int gamesPlayed;
+	private long nanos;
+
+	/**
+	 * Sets up a tournament.
+	 * @param rosters		the matchups to play
+	 * @param budget		the most games to play over every matchup
+	 * @param numThreads	the number of games to play at the same time
+	 * @param seed			the seed every game's own seed is derived from
+	 * @param precision		the largest width of a win rate's interval, as a fraction, at which a matchup can stop early
+	 */
+	public MonteCarloTournament(List<Roster> rosters, int budget, int numThreads, long seed, double precision)
+	{
+		for (int m = 0; m < rosters.size(); m++)
+			this.matchups.add(new Matchup(rosters.get(m), Tournament.gameSeed(seed, -1 - m)));
+		this.budget = budget;
+		this.numThreads = numThreads;
+		this.seed = seed;
+		this.precision = precision;
+	}
+
+	/**
+	 * Plays every game in the arena, with the time budget and in the way a configuration sets out.  Each game is played
+	 * by the roster of its own matchup, so the configuration's roster is not used.
+	 * @param config	the configuration to play every matchup with
+	 * @return	this tournament
+	 */
+	public MonteCarloTournament withConfig(BattleConfig config)
+	{
+		this.config = config;
+		return this;
+	}
+
+	/**
+	 * Gives the robots of every game a time budget for each call, so a slow robot can not hold up the tournament.
+	 * @param turnBudget	the longest a robot may take over a call, in milliseconds, or 0 for no limit
+	 * @return	this tournament
+	 */
+	public MonteCarloTournament withTurnBudget(long turnBudget)
+	{
+		this.config = new BattleConfig(this.config.getWidth(), this.config.getHeight(), this.config.getRoster(), turnBudget,
+				this.config.isSimultaneous(), this.config.isRoundByRound());
+		return this;
+	}
+
+	/**
+	 * Plays rounds of games until every matchup has stopped or the budget is spent.
+	 * @return	this tournament, to print the results of
+	 */
+	public MonteCarloTournament run()
+	{
+		ForkJoinPool pool = new ForkJoinPool(this.numThreads);
+		long start = System.nanoTime();
+		try
+		{
+			List<Matchup> running = new ArrayList<Matchup>(this.matchups);
+			List<ForkJoinTask<Tally>> batches = new ArrayList<ForkJoinTask<Tally>>();
+			while (!running.isEmpty() && this.gamesPlayed < this.budget)
+			{
+				// Shares out what is left of the budget if it is not enough for a whole batch each.
+				int batch = Math.min(BATCH_SIZE, Math.max(1, (this.budget - this.gamesPlayed) / running.size()));
+				batches.clear();
+				for (Matchup matchup : running)
+				{
+					int games = Math.min(batch, this.budget - this.gamesPlayed);
+					if (games <= 0)
+						break;
+					BattleConfig config = new BattleConfig(this.config.getWidth(), this.config.getHeight(), matchup.roster, this.config.getTurnBudget(),
+							this.config.isSimultaneous(), this.config.isRoundByRound());
+					batches.add(pool.submit(new Games(matchup, config, matchup.games, matchup.games + games)));
+					this.gamesPlayed += games;
+				}
+				for (int b = 0; b < batches.size(); b++)
+					running.get(b).add(batches.get(b).join());
+
+				for (int m = running.size() - 1; m >= 0; m--)
+				{
+					if (running.get(m).isPreciseEnough(this.precision))
+					{
+						running.get(m).stoppedEarly = true;
+						running.remove(m);
+					}
+				}
+			}
+		}
+		finally
+		{
+			pool.shutdown();
+		}
+		this.nanos = System.nanoTime() - start;
+		return this;
+	}
+
+	/**
+	 * Returns the matchups, with the results of the games played so far.
+	 * @return	the matchups, in the order they were given
+	 */
+	public List<Matchup> getMatchups()
+	{
+		return this.matchups;
+	}
+
+	/**
+	 * Prints out the results of every matchup and how fast the games were played.
+	 */
+	public void print()
+	{
+		for (Matchup matchup : this.matchups)
+		{
+			System.out.format("%s: %d games%s%n", matchup.roster, matchup.games, matchup.stoppedEarly ? ", stopped early" : "");
+			System.out.format("  %-22s%-7s%-22s%-22s%-22s%n", "Robot", "Seats", "Win %", "Kills per game", "Average place");
+			for (int c = 0; c < matchup.getNumClasses(); c++)
+			{
+				double[] win = matchup.getWinInterval(c);
+				double[] kills = matchup.getKillInterval(c);
+				double[] place = matchup.getPlacementInterval(c);
+				System.out.format("  %-22s%-7d%-22s%-22s%-22s%n", matchup.classes.get(c).getSimpleName(), matchup.seats[c],
+						String.format("%.1f [%.1f, %.1f]", 100 * matchup.getWinRate(c), 100 * win[0], 100 * win[1]),
+						String.format("%.2f [%.2f, %.2f]", matchup.getKillRate(c), kills[0], kills[1]),
+						String.format("%.2f [%.2f, %.2f]", matchup.getPlacement(c), place[0], place[1]));
+			}
+		}
+		System.out.format("Played %d of %d games in %.3f s with seed %d%n", this.gamesPlayed, this.budget, this.nanos / 1e9, this.seed);
+	}
+
+	/**
+	 * Works out the Wilson score interval of a proportion, which unlike the normal one stays inside
+	 * [0, 1] and is still sound when there are no or only successes.
+	 * @param successes	the number of successes
+	 * @param trials	the number of trials
+	 * @return	the lower and upper ends of the interval
+	 */
+	static double[] wilson(long successes, long trials)
+	{
+		if (trials == 0)
+			return new double[] {0, 1};
+		double p = (double) successes / trials;
+		double zz = Z * Z / trials;
+		double centre = (p + zz / 2) / (1 + zz);
+		double half = Z * Math.sqrt(p * (1 - p) / trials + zz / (4 * trials)) / (1 + zz);
+		return new double[] {Math.max(0, centre - half), Math.min(1, centre + half)};
+	}
+
+	/**
+	 * Works out the normal interval of a mean from the sum and sum of squares of the samples.
+	 * @param sum			the sum of the samples
+	 * @param sumSquares	the sum of the squares of the samples
+	 * @param n				the number of samples
+	 * @return	the lower and upper ends of the interval
+	 */
+	static double[] normal(double sum, double sumSquares, long n)
+	{
+		if (n < 2)
+			return new double[] {Double.NEGATIVE_INFINITY, Double.POSITIVE_INFINITY};
+		double mean = sum / n;
+		double variance = Math.max(0, (sumSquares - n * mean * mean) / (n - 1));
+		double half = Z * Math.sqrt(variance / n);
+		return new double[] {mean - half, mean + half};
+	}
+
+	/**
+	 * One roster and the results of the games it has played.  Robots of the same class are counted
+	 * together.  Each game is one sample for every class: whether one of its robots won, and the kills
+	 * and place of its robots averaged over its seats, so robots in the same game are never counted as
+	 * if they were independent.
+	 */
+	public static class Matchup
+	{
+		private final Roster roster;
+		private final long seed;
+		private final List<Class<? extends FighterRobot>> classes = new ArrayList<Class<? extends FighterRobot>>();
+		private final int[] classOf;		// the index in classes of each player ID
+		private final int[] seats;			// the number of players of each class
+		private final Tally tally;
+		private int games;
+		private boolean stoppedEarly;
+
+		private Matchup(Roster roster, long seed)
+		{
+			this.roster = roster;
+			this.seed = seed;
+			this.classOf = new int[roster.size()];
+			for (int i = 0; i < roster.size(); i++)
+			{
+				int c = this.classes.indexOf(roster.getPlayerClass(i));
+				if (c < 0)
+				{
+					c = this.classes.size();
+					this.classes.add(roster.getPlayerClass(i));
+				}
+				this.classOf[i] = c;
+			}
+			this.seats = new int[this.classes.size()];
+			for (int i = 0; i < roster.size(); i++)
+				this.seats[this.classOf[i]] ++;
+			this.tally = new Tally(this.classes.size());
+		}
+
+		private void add(Tally other)
+		{
+			this.tally.merge(other);
+			this.games = this.tally.games;
+		}
+
+		private boolean isPreciseEnough(double precision)
+		{
+			for (int c = 0; c < this.classes.size(); c++)
+			{
+				double[] win = this.getWinInterval(c);
+				if (win[1] - win[0] > precision)
+					return false;
+			}
+			return true;
+		}
+
+		public Roster getRoster()
+		{
+			return this.roster;
+		}
+
+		public int getGames()
+		{
+			return this.games;
+		}
+
+		/**
+		 * Tells whether the matchup stopped before the budget was spent, as its intervals were narrow enough.
+		 * @return	true if it stopped early
+		 */
+		public boolean isStoppedEarly()
+		{
+			return this.stoppedEarly;
+		}
+
+		public int getNumClasses()
+		{
+			return this.classes.size();
+		}
+
+		public Class<? extends FighterRobot> getRobotClass(int c)
+		{
+			return this.classes.get(c);
+		}
+
+		/**
+		 * Returns the fraction of games won by a robot of a class.
+		 * @param c	the index of the class
+		 * @return	the win rate
+		 */
+		public double getWinRate(int c)
+		{
+			return this.games == 0 ? 0 : (double) this.tally.wins[c] / this.games;
+		}
+
+		public double[] getWinInterval(int c)
+		{
+			return wilson(this.tally.wins[c], this.games);
+		}
+
+		/**
+		 * Returns the average number of kills per game of a robot of a class.
+		 * @param c	the index of the class
+		 * @return	the kill rate
+		 */
+		public double getKillRate(int c)
+		{
+			return this.games == 0 ? 0 : this.tally.kills[c] / this.games;
+		}
+
+		public double[] getKillInterval(int c)
+		{
+			return normal(this.tally.kills[c], this.tally.killSquares[c], this.games);
+		}
+
+		/**
+		 * Returns the average place a robot of a class finishes in, 1 being the winner.
+		 * @param c	the index of the class
+		 * @return	the average place
+		 */
+		public double getPlacement(int c)
+		{
+			return this.games == 0 ? 0 : this.tally.places[c] / this.games;
+		}
+
+		public double[] getPlacementInterval(int c)
+		{
+			return normal(this.tally.places[c], this.tally.placeSquares[c], this.games);
+		}
+	}
+
+	/**
+	 * The sums the statistics of a matchup are worked out from, kept by each task and merged at the end of a round.
+	 */
+	private static class Tally
+	{
+		private int games;
+		private final long[] wins;
+		private final double[] kills;
+		private final double[] killSquares;
+		private final double[] places;
+		private final double[] placeSquares;
+		private final double[] killSample;		// scratch space for one game
+		private final double[] placeSample;
+
+		Tally(int numClasses)
+		{
+			this.wins = new long[numClasses];
+			this.kills = new double[numClasses];
+			this.killSquares = new double[numClasses];
+			this.places = new double[numClasses];
+			this.placeSquares = new double[numClasses];
+			this.killSample = new double[numClasses];
+			this.placeSample = new double[numClasses];
+		}
+
+		void add(Matchup matchup, Battle battle)
+		{
+			Arrays.fill(this.killSample, 0);
+			Arrays.fill(this.placeSample, 0);
+			for (int i = 0; i < matchup.classOf.length; i++)
+			{
+				int c = matchup.classOf[i];
+				this.killSample[c] += (double) battle.getStats(i).getNumKills() / matchup.seats[c];
+				this.placeSample[c] += (double) battle.getPlacement(i) / matchup.seats[c];
+			}
+			for (int c = 0; c < this.wins.length; c++)
+			{
+				this.kills[c] += this.killSample[c];
+				this.killSquares[c] += this.killSample[c] * this.killSample[c];
+				this.places[c] += this.placeSample[c];
+				this.placeSquares[c] += this.placeSample[c] * this.placeSample[c];
+			}
+			int winner = battle.getWinner();
+			if (winner >= 0)
+				this.wins[matchup.classOf[winner]] ++;
+			this.games ++;
+		}
+
+		void merge(Tally other)
+		{
+			for (int c = 0; c < this.wins.length; c++)
+			{
+				this.wins[c] += other.wins[c];
+				this.kills[c] += other.kills[c];
+				this.killSquares[c] += other.killSquares[c];
+				this.places[c] += other.places[c];
+				this.placeSquares[c] += other.placeSquares[c];
+			}
+			this.games += other.games;
+		}
+	}
+
+	/**
+	 * A range of games of one matchup, split in half until it is small enough to play directly.
+	 */
+	private static class Games extends RecursiveTask<Tally>
+	{
+		private static final long serialVersionUID = 1L;
+
+		private final Matchup matchup;
+		private final BattleConfig config;
+		private final int from;
+		private final int to;
+
+		Games(Matchup matchup, BattleConfig config, int from, int to)
+		{
+			this.matchup = matchup;
+			this.config = config;
+			this.from = from;
+			this.to = to;
+		}
+
+		protected Tally compute()
+		{
+			if (this.to - this.from <= GAMES_PER_TASK)
+			{
+				Tally tally = new Tally(this.matchup.classes.size());
+				for (int g = this.from; g < this.to; g++)
+				{
+					Battle battle = new Battle(true, Tournament.gameSeed(this.matchup.seed, g), BattleLog.SILENT, this.config);
+					battle.play();
+					tally.add(this.matchup, battle);
+				}
+				return tally;
+			}
+
+			int middle = (this.from + this.to) >>> 1;
+			Games left = new Games(this.matchup, this.config, this.from, middle);
+			left.fork();
+			Tally tally = new Games(this.matchup, this.config, middle, this.to).compute();
+			tally.merge(left.join());
+			return tally;
+		}
+	}
+}
@@ -0,0 +1,112 @@
+package robot_war_summative;
+
+/**
+ * Plans a robot's moves for a turn.  How far a robot can go only depends on its number of moves and
+ * its energy, keeping at least one point of energy so it can still fight where it ends up, and no
+ * robot can ever afford more than (MAX_ENERGY - 1) / MOVES_ENERGY_COST moves.  The intersections
+ * within each number of moves are worked out once, in a table ordered by distance, so the ones
+ * within any smaller number are the start of the same table.
+ *
+ * A plan is an intersection, or a change of position, packed into an int so planning allocates
+ * nothing.  Read it with getAvenue and getStreet.  It holds avenues and streets up to 32,767.
+ */
+public class MovePlanner {
+
+	public static final int MAX_BUDGET = (Battle.MAX_ENERGY - 1) / Battle.MOVES_ENERGY_COST;
+
+	private static final int STREET_BITS = 16;
+	private static final int STREET_MASK = (1 << STREET_BITS) - 1;
+
+	private static final int[] REACHABLE;			// every change of position within MAX_BUDGET moves, from the closest to the farthest
+	private static final int[] NUM_REACHABLE;		// the number of them within each budget
+
+	static
+	{
+		NUM_REACHABLE = new int[MAX_BUDGET + 1];
+		REACHABLE = new int[2 * MAX_BUDGET * MAX_BUDGET + 2 * MAX_BUDGET + 1];
+		int n = 0;
+		for (int d = 0; d <= MAX_BUDGET; d++)
+		{
+			// the changes d moves away, by change of avenue and then of street
+			for (int x = -d; x <= d; x++)
+			{
+				int y = d - Math.abs(x);
+				REACHABLE[n++] = pack(x, -y);
+				if (y != 0)
+					REACHABLE[n++] = pack(x, y);
+			}
+			NUM_REACHABLE[d] = n;
+		}
+	}
+
+	/**
+	 * Returns the most moves a robot can make in a turn and still have energy left to fight.
+	 * @param numMoves	the robot's number of moves
+	 * @param energy	its energy
+	 * @return	the number of moves, from 0 to MAX_BUDGET
+	 */
+	public static int getBudget(int numMoves, int energy)
+	{
+		return Math.max(0, Math.min(Math.min(numMoves, MAX_BUDGET), (energy - 1) / Battle.MOVES_ENERGY_COST));
+	}
+
+	/**
+	 * Plans the way towards an intersection within a budget of moves: as far along the avenue as it
+	 * needs to or can, then along the street with the moves left.
+	 * @param budget	the number of moves to spend at most
+	 * @param avenue	the avenue it starts from
+	 * @param street	the street it starts from
+	 * @param toAvenue	the avenue to go towards
+	 * @param toStreet	the street to go towards
+	 * @return	the intersection reached, which is the one asked for if it is within the budget
+	 */
+	public static int toward(int budget, int avenue, int street, int toAvenue, int toStreet)
+	{
+		int x = Math.max(-budget, Math.min(budget, toAvenue - avenue));
+		int left = budget - Math.abs(x);
+		int y = Math.max(-left, Math.min(left, toStreet - street));
+		return pack(avenue + x, street + y);
+	}
+
+	/**
+	 * Returns the number of changes of position within a budget of moves, counting staying put.
+	 * @param budget	the number of moves, from 0 to MAX_BUDGET
+	 * @return	the number of changes
+	 */
+	public static int getNumReachable(int budget)
+	{
+		return NUM_REACHABLE[budget];
+	}
+
+	/**
+	 * Returns one of the changes of position within a budget of moves.  They are ordered from the
+	 * fewest moves to the most, so going through them in order finds the closest of anything first.
+	 * @param n	the position in the order, from 0 to getNumReachable of the budget less one
+	 * @return	the change of position, 0 moves being staying put
+	 */
+	public static int getReachable(int n)
+	{
+		return REACHABLE[n];
+	}
+
+	/**
+	 * Packs an intersection, or a change of position, into a plan.
+	 * @param avenue	the avenue, or the change of avenue
+	 * @param street	the street, or the change of street
+	 * @return	the plan
+	 */
+	public static int pack(int avenue, int street)
+	{
+		return (avenue << STREET_BITS) | (street & STREET_MASK);
+	}
+
+	public static int getAvenue(int plan)
+	{
+		return plan >> STREET_BITS;
+	}
+
+	public static int getStreet(int plan)
+	{
+		return (plan << (Integer.SIZE - STREET_BITS)) >> (Integer.SIZE - STREET_BITS);
+	}
+}
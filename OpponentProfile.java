@@ -0,0 +1,82 @@
+package robot_war_summative;
+
+/**
+ * What earlier games showed of a class of robot, as seen by the robots that played against it: how far
+ * it was seen to move in a turn, how much health its opponents lost fighting it, and how often it started
+ * a fight.  A profile is read from OpponentProfiles when a battle starts and does not change during it.
+ */
+public class OpponentProfile {
+
+	private final int games;
+	private final int maxMoves;
+	private final long turns;
+	private final long fights;
+	private final long fightsStarted;
+	private final long rounds;
+	private final long healthLost;
+
+	OpponentProfile(int games, int maxMoves, long turns, long fights, long fightsStarted, long rounds, long healthLost)
+	{
+		this.games = games;
+		this.maxMoves = maxMoves;
+		this.turns = turns;
+		this.fights = fights;
+		this.fightsStarted = fightsStarted;
+		this.rounds = rounds;
+		this.healthLost = healthLost;
+	}
+
+	/**
+	 * Returns the number of times a robot of the class played a game, counting each robot of a game.
+	 * @return	the number of games
+	 */
+	public int getGames()
+	{
+		return this.games;
+	}
+
+	/**
+	 * Returns the most moves a robot of the class was seen to make in one turn.
+	 * @return	the number of moves
+	 */
+	public int getMaxMoves()
+	{
+		return this.maxMoves;
+	}
+
+	/**
+	 * Returns the number of fights robots of the class were in, whether they attacked or were attacked.
+	 * @return	the number of fights
+	 */
+	public long getFights()
+	{
+		return this.fights;
+	}
+
+	/**
+	 * Returns the health the opponents of the class lost for every round they fought it.
+	 * @return	the health lost per round, or 0 if it never fought
+	 */
+	public double getHealthLostPerRound()
+	{
+		return this.rounds == 0 ? 0 : (double) this.healthLost / this.rounds;
+	}
+
+	/**
+	 * Returns the health the opponents of the class lost for every fight they had with it.
+	 * @return	the health lost per fight, or 0 if it never fought
+	 */
+	public double getHealthLostPerFight()
+	{
+		return this.fights == 0 ? 0 : (double) this.healthLost / this.fights;
+	}
+
+	/**
+	 * Returns how aggressive the class is, as the number of fights its robots started for every turn they took.
+	 * @return	the fights started per turn, or 0 if it never took a turn
+	 */
+	public double getAggression()
+	{
+		return this.turns == 0 ? 0 : (double) this.fightsStarted / this.turns;
+	}
+}
@@ -0,0 +1,305 @@
+package robot_war_summative;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * A store of OpponentProfiles, one for every class of robot, kept in a file from one run to the next so
+ * robots that learn about their opponents can start a battle knowing what earlier ones showed.
+ *
+ * The file is mapped into memory.  It starts with the magic number "RWOP", the version, the number of
+ * classes it has room for and the number it holds, each a big-endian int, followed by a record of
+ * RECORD_SIZE bytes for every class:
+ * <pre>
+ *   class name           its length in one byte, then up to 63 bytes of UTF-8
+ *   games, max moves     ints
+ *   turns, fights, fights started, rounds, health lost    longs
+ * </pre>
+ * A class whose name is too long, or that is first seen once the file is full, is not profiled.
+ *
+ * A battle reads the profiles of its players' classes once, when it starts, and counts what it sees into
+ * a Game of its own, which is added to the file in one go once the battle is over.  Battles on many
+ * threads can share one store.  A game then depends on the games that ended before it started as well as
+ * on its seed, so a tournament that learns only plays out the same every time if it is played on one thread.
+ */
+public class OpponentProfiles implements Closeable {
+
+	static final int MAGIC = 0x52574F50;		// "RWOP"
+	static final int VERSION = 1;
+	static final int HEADER_SIZE = 16;
+	static final int RECORD_SIZE = 112;
+	static final int DEFAULT_CAPACITY = 256;
+
+	private static final int MAX_NAME_LENGTH = 63;
+	private static final int CAPACITY = 8;
+	private static final int COUNT = 12;
+	private static final int GAMES = 64;
+	private static final int MAX_MOVES = 68;
+	private static final int TURNS = 72;
+	private static final int FIGHTS = 80;
+	private static final int FIGHTS_STARTED = 88;
+	private static final int ROUNDS = 96;
+	private static final int HEALTH_LOST = 104;
+
+	private final FileChannel channel;
+	private final MappedByteBuffer file;
+	private final int capacity;
+	private final Map<String, Integer> records = new HashMap<String, Integer>();	// the offset of each class's record in the file
+
+	/**
+	 * Opens a store, creating it with room for DEFAULT_CAPACITY classes if it does not exist yet.
+	 * @param path	the file
+	 * @throws IOException	if the file cannot be opened or is not a store of profiles
+	 */
+	public OpponentProfiles(Path path) throws IOException
+	{
+		this(path, DEFAULT_CAPACITY);
+	}
+
+	/**
+	 * Opens a store, creating it if it does not exist yet.
+	 * @param path		the file
+	 * @param capacity	the number of classes to make room for if the file is created, which an existing file keeps as it is
+	 * @throws IOException	if the file cannot be opened or is not a store of profiles
+	 */
+	public OpponentProfiles(Path path, int capacity) throws IOException
+	{
+		this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+		try
+		{
+			boolean created = this.channel.size() == 0;
+			if (!created)
+				capacity = checkHeader(this.channel);
+			this.capacity = capacity;
+			this.file = this.channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_SIZE + (long) capacity * RECORD_SIZE);
+			this.file.order(ByteOrder.BIG_ENDIAN);
+			if (created)
+				this.file.putInt(0, MAGIC).putInt(4, VERSION).putInt(CAPACITY, capacity).putInt(COUNT, 0);
+
+			for (int r = 0; r < this.file.getInt(COUNT); r++)
+			{
+				int offset = HEADER_SIZE + r * RECORD_SIZE;
+				byte[] name = new byte[this.file.get(offset)];
+				this.file.get(offset + 1, name);
+				this.records.put(new String(name, StandardCharsets.UTF_8), offset);
+			}
+		}
+		catch (IOException e)
+		{
+			this.channel.close();
+			throw e;
+		}
+	}
+
+	/**
+	 * Checks that a file starts with the header of a store this version can read, and holds all the records the header promises.
+	 * @param channel	the file
+	 * @return	the number of classes the file has room for
+	 * @throws IOException	if it does not
+	 */
+	private static int checkHeader(FileChannel channel) throws IOException
+	{
+		ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.BIG_ENDIAN);
+		while (header.hasRemaining() && channel.read(header, header.position()) > 0)
+			;
+		header.flip();
+		if (header.remaining() < HEADER_SIZE || header.getInt() != MAGIC)
+			throw new IOException("Not a store of opponent profiles");
+		int version = header.getInt();
+		if (version != VERSION)
+			throw new IOException("Unsupported opponent profile version " + version);
+		int capacity = header.getInt();
+		int count = header.getInt();
+		if (capacity < 0 || count < 0 || count > capacity || channel.size() < HEADER_SIZE + (long) capacity * RECORD_SIZE)
+			throw new IOException("The store of opponent profiles is cut short");
+		return capacity;
+	}
+
+	/**
+	 * Returns the number of classes the store holds a profile of.
+	 * @return	the number of classes
+	 */
+	public synchronized int size()
+	{
+		return this.records.size();
+	}
+
+	/**
+	 * Returns the profile of a class of robot.
+	 * @param className	the full name of the class
+	 * @return	its profile, or null if it was never profiled
+	 */
+	public synchronized OpponentProfile get(String className)
+	{
+		Integer offset = this.records.get(className);
+		if (offset == null)
+			return null;
+		return new OpponentProfile(this.file.getInt(offset + GAMES), this.file.getInt(offset + MAX_MOVES), this.file.getLong(offset + TURNS),
+				this.file.getLong(offset + FIGHTS), this.file.getLong(offset + FIGHTS_STARTED), this.file.getLong(offset + ROUNDS),
+				this.file.getLong(offset + HEALTH_LOST));
+	}
+
+	/**
+	 * Starts counting what a battle shows of its players, reading the profile of each one's class as it is now.
+	 * @param players	the players of the battle, indexed by ID
+	 * @return	the game to count into
+	 */
+	Game startGame(FighterRobot[] players)
+	{
+		Map<String, OpponentProfile> known = new HashMap<String, OpponentProfile>();
+		Game game = new Game(this, players.length);
+		for (int i = 0; i < players.length; i++)
+		{
+			game.classNames[i] = players[i].getClass().getName();
+			game.profiles[i] = known.computeIfAbsent(game.classNames[i], this::get);
+		}
+		return game;
+	}
+
+	/**
+	 * Adds what a battle showed to the profile of each player's class.
+	 * @param game	what the battle showed
+	 */
+	private synchronized void add(Game game)
+	{
+		for (int i = 0; i < game.classNames.length; i++)
+		{
+			int offset = this.recordOf(game.classNames[i]);
+			if (offset < 0)
+				continue;
+			this.file.putInt(offset + GAMES, this.file.getInt(offset + GAMES) + 1);
+			this.file.putInt(offset + MAX_MOVES, Math.max(this.file.getInt(offset + MAX_MOVES), game.maxMoves[i]));
+			this.file.putLong(offset + TURNS, this.file.getLong(offset + TURNS) + game.turns[i]);
+			this.file.putLong(offset + FIGHTS, this.file.getLong(offset + FIGHTS) + game.fights[i]);
+			this.file.putLong(offset + FIGHTS_STARTED, this.file.getLong(offset + FIGHTS_STARTED) + game.fightsStarted[i]);
+			this.file.putLong(offset + ROUNDS, this.file.getLong(offset + ROUNDS) + game.rounds[i]);
+			this.file.putLong(offset + HEALTH_LOST, this.file.getLong(offset + HEALTH_LOST) + game.healthLost[i]);
+		}
+	}
+
+	/**
+	 * Finds the record of a class, making one if the class is new and there is room for it.
+	 * @param className	the full name of the class
+	 * @return	the offset of its record in the file, or -1 if it is not profiled
+	 */
+	private int recordOf(String className)
+	{
+		Integer offset = this.records.get(className);
+		if (offset != null)
+			return offset;
+
+		int count = this.file.getInt(COUNT);
+		byte[] name = className.getBytes(StandardCharsets.UTF_8);
+		if (count == this.capacity || name.length > MAX_NAME_LENGTH)
+			return -1;
+		int record = HEADER_SIZE + count * RECORD_SIZE;
+		this.file.put(record, (byte) name.length).put(record + 1, name);
+		this.file.putInt(COUNT, count + 1);
+		this.records.put(className, record);
+		return record;
+	}
+
+	/**
+	 * Writes the profiles out to the file and closes it.
+	 * @throws IOException	if the file cannot be closed
+	 */
+	@Override
+	public synchronized void close() throws IOException
+	{
+		this.file.force();
+		this.channel.close();
+	}
+
+	/**
+	 * What one battle shows of its players, counted by the battle's own thread and added to the store once it is over.
+	 */
+	static class Game
+	{
+		private final OpponentProfiles store;
+		private final String[] classNames;
+		private final OpponentProfile[] profiles;	// the profile of each player's class when the battle started, or null
+		private final int[] maxMoves;
+		private final int[] turns;
+		private final int[] fights;
+		private final int[] fightsStarted;
+		private final int[] rounds;
+		private final int[] healthLost;				// the health each player's opponents lost fighting it
+
+		private Game(OpponentProfiles store, int numPlayers)
+		{
+			this.store = store;
+			this.classNames = new String[numPlayers];
+			this.profiles = new OpponentProfile[numPlayers];
+			this.maxMoves = new int[numPlayers];
+			this.turns = new int[numPlayers];
+			this.fights = new int[numPlayers];
+			this.fightsStarted = new int[numPlayers];
+			this.rounds = new int[numPlayers];
+			this.healthLost = new int[numPlayers];
+		}
+
+		/**
+		 * Returns the profile of each player's class as it was when the battle started.
+		 * @return	the profiles, indexed by ID, with null for a class that was never profiled
+		 */
+		OpponentProfile[] getProfiles()
+		{
+			return this.profiles;
+		}
+
+		/**
+		 * Counts a turn a player took.
+		 * @param id	the ID of the player
+		 */
+		void turn(int id)
+		{
+			this.turns[id] ++;
+		}
+
+		/**
+		 * Counts the moves a player made in a turn.
+		 * @param id	the ID of the player
+		 * @param moves	the number of moves
+		 */
+		void moved(int id, int moves)
+		{
+			this.maxMoves[id] = Math.max(this.maxMoves[id], moves);
+		}
+
+		/**
+		 * Counts a fight.
+		 * @param attackerID	the ID of the player that started it
+		 * @param defenderID	the ID of the player it attacked
+		 * @param rounds		the number of rounds fought
+		 * @param attackerHL	the health the attacker lost
+		 * @param defenderHL	the health the defender lost
+		 */
+		void fight(int attackerID, int defenderID, int rounds, int attackerHL, int defenderHL)
+		{
+			this.fights[attackerID] ++;
+			this.fights[defenderID] ++;
+			this.fightsStarted[attackerID] ++;
+			this.rounds[attackerID] += rounds;
+			this.rounds[defenderID] += rounds;
+			this.healthLost[attackerID] += defenderHL;
+			this.healthLost[defenderID] += attackerHL;
+		}
+
+		/**
+		 * Adds what the battle showed to the store, once it is over.
+		 */
+		void end()
+		{
+			this.store.add(this);
+		}
+	}
+}
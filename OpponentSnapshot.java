@@ -0,0 +1,462 @@
+package robot_war_summative;
+
+import java.util.Arrays;
+
+/**
+ * A reusable, read-only picture of every player's position and health that is handed to the
+ * FighterRobots when they take their turn.  The values are kept in plain arrays indexed by ID and
+ * only the players whose state changed since the last turn are copied from the battle, so building
+ * the picture for a turn allocates nothing.
+ *
+ * Robots read it through ordinary OppData records, which look up the arrays instead of holding
+ * their own copy.  A dead player is shown at (-1, -1) with 0 health.  The orderings by health and by
+ * distance are worked out with a counting sort the first time they are asked for after a refresh,
+ * and shared by every robot until the next one.
+ *
+ * The live players are also kept in a grid with a list of the players on each intersection, which a
+ * refresh updates for the players that moved or died.  Finding the players on an intersection then
+ * only looks at that intersection, and finding the closest player searches outwards ring by ring
+ * from where it is asked, so on a large arena neither has to look at every player.
+ *
+ * In a simultaneous battle the robots read the snapshot from several threads at once, and are handed
+ * a Shared snapshot instead.  Between refreshes nothing but the orderings and the place getAt left off
+ * ever changes.  Robots asking from different places need different orderings by distance, so each
+ * thread sorts into arrays of its own and keeps its last ordering until the next refresh; only the
+ * ordering by health and getAt take the snapshot's lock.
+ */
+public class OpponentSnapshot implements OpponentView {
+
+	private final int[] avenue;
+	private final int[] street;
+	private final int[] health;
+	private final OppData[] records;
+
+	private final boolean[] dirty;		// true for a player whose state changed since the last refresh
+	private final int[] dirtyIDs;		// the IDs marked dirty, so a refresh only visits those
+	private int numDirty;
+
+	private final int[] healthOrder;	// IDs from lowest to highest health
+	private boolean healthOrderValid;
+	private final Distances distances;	// the last ordering by distance asked for
+	private int version;				// the number of refreshes that changed something, so an ordering knows when it is out of date
+	private final int[] sortKeys;		// scratch space for the counting sort
+	private int[] sortCounts = new int[0];
+
+	private final int width;
+	private final int height;
+	private final int[] cellHead;		// the lowest ID on each intersection, indexed by street * width + avenue, or -1
+	private final int[] cellCount;		// the number of players on each intersection
+	private final int[] cell;			// the intersection each player is listed on, or -1 if it is dead
+	private final int[] nextInCell;		// the next higher ID on the same intersection, or -1
+	private final int[] prevInCell;		// the next lower ID on the same intersection, or -1
+	private int cursorCell = -1;		// where the last getAt left off, so going through an intersection in order takes one step per player
+	private int cursorRank;
+	private int cursorID;
+
+	/**
+	 * Creates a snapshot for a number of players.  Every player starts out marked as changed, so the
+	 * first refresh copies everyone.
+	 * @param numPlayers	the number of players in the battle
+	 * @param width			the number of avenues in the arena
+	 * @param height		the number of streets in the arena
+	 */
+	public OpponentSnapshot(int numPlayers, int width, int height)
+	{
+		this.width = width;
+		this.height = height;
+		this.cellHead = new int[width * height];
+		this.cellCount = new int[width * height];
+		this.cell = new int[numPlayers];
+		this.nextInCell = new int[numPlayers];
+		this.prevInCell = new int[numPlayers];
+		Arrays.fill(this.cellHead, -1);
+		Arrays.fill(this.cell, -1);
+
+		this.avenue = new int[numPlayers];
+		this.street = new int[numPlayers];
+		this.health = new int[numPlayers];
+		this.records = new OppData[numPlayers];
+		this.dirty = new boolean[numPlayers];
+		this.dirtyIDs = new int[numPlayers];
+		this.healthOrder = new int[numPlayers];
+		this.distances = new Distances(numPlayers);
+		this.sortKeys = new int[numPlayers];
+		for (int i = 0; i < numPlayers; i++)
+		{
+			this.records[i] = new Record(i);
+			this.markChanged(i);
+		}
+	}
+
+	/**
+	 * Notes that a player's position or health changed, so the next refresh copies it.
+	 * @param id	the ID of the player
+	 */
+	void markChanged(int id)
+	{
+		if (!this.dirty[id])
+		{
+			this.dirty[id] = true;
+			this.dirtyIDs[this.numDirty++] = id;
+		}
+	}
+
+	/**
+	 * Copies the state of every player marked as changed from the battle's arrays.
+	 * @param avenue	the avenue of every player, indexed by ID
+	 * @param street	the street of every player, indexed by ID
+	 * @param health	the health of every player, indexed by ID
+	 */
+	void refresh(int[] avenue, int[] street, int[] health)
+	{
+		if (this.numDirty > 0)
+		{
+			this.healthOrderValid = false;
+			this.version ++;
+		}
+		for (int n = 0; n < this.numDirty; n++)
+		{
+			int id = this.dirtyIDs[n];
+			this.dirty[id] = false;
+			if (health[id] <= 0)
+			{
+				this.avenue[id] = -1;
+				this.street[id] = -1;
+				this.health[id] = 0;
+			}
+			else
+			{
+				this.avenue[id] = avenue[id];
+				this.street[id] = street[id];
+				this.health[id] = health[id];
+			}
+			this.place(id);
+		}
+		this.numDirty = 0;
+	}
+
+	/**
+	 * Moves a player to the list of the intersection it is now on, or takes it out of the grid if it died.
+	 * @param id	the ID of the player
+	 */
+	private void place(int id)
+	{
+		int to = this.cellOf(this.avenue[id], this.street[id]);
+		if (to == this.cell[id])
+			return;
+		this.cursorCell = -1;
+
+		int from = this.cell[id];
+		if (from >= 0)
+		{
+			if (this.prevInCell[id] >= 0)
+				this.nextInCell[this.prevInCell[id]] = this.nextInCell[id];
+			else
+				this.cellHead[from] = this.nextInCell[id];
+			if (this.nextInCell[id] >= 0)
+				this.prevInCell[this.nextInCell[id]] = this.prevInCell[id];
+			this.cellCount[from] --;
+		}
+
+		this.cell[id] = to;
+		if (to >= 0)
+		{
+			// the lists are kept in order of ID, so ties between players on the same intersection always go to the lowest ID
+			int prev = -1;
+			int next = this.cellHead[to];
+			while (next >= 0 && next < id)
+			{
+				prev = next;
+				next = this.nextInCell[next];
+			}
+			this.prevInCell[id] = prev;
+			this.nextInCell[id] = next;
+			if (prev >= 0)
+				this.nextInCell[prev] = id;
+			else
+				this.cellHead[to] = id;
+			if (next >= 0)
+				this.prevInCell[next] = id;
+			this.cellCount[to] ++;
+		}
+	}
+
+	/**
+	 * Returns the index of an intersection in the grid, or -1 if it is outside the arena.
+	 */
+	private int cellOf(int avenue, int street)
+	{
+		if (avenue < 0 || avenue >= this.width || street < 0 || street >= this.height)
+			return -1;
+		return street * this.width + avenue;
+	}
+
+	/**
+	 * Copies the records, in order of ID, into an array that is handed to a robot.  The array belongs to
+	 * the robot for its turn, so it is refilled before every turn and nothing a robot does to it can
+	 * change what the other robots see.
+	 * @param data	the array to fill, one element per player
+	 * @return	the filled array
+	 */
+	OppData[] copyInto(OppData[] data)
+	{
+		System.arraycopy(this.records, 0, data, 0, this.records.length);
+		return data;
+	}
+
+	public int size()
+	{
+		return this.records.length;
+	}
+
+	public OppData get(int id)
+	{
+		return this.records[id];
+	}
+
+	public OppData getByHealth(int rank)
+	{
+		if (!this.healthOrderValid)
+		{
+			for (int i = 0; i < this.records.length; i++)
+				this.sortKeys[i] = this.health[i];
+			this.sortCounts = sortByKey(this.sortKeys, this.sortCounts, this.healthOrder);
+			this.healthOrderValid = true;
+		}
+		return this.records[this.healthOrder[rank]];
+	}
+
+	public OppData getByDistance(int rank, int avenue, int street)
+	{
+		return this.getByDistance(this.distances, rank, avenue, street);
+	}
+
+	/**
+	 * Returns a player by its distance from an intersection, sorting into an ordering's arrays unless it
+	 * already holds the order from that intersection since the last refresh.
+	 * @param d			the ordering to use
+	 * @param rank		the player's rank, 0 for the closest
+	 * @param avenue	the avenue to measure from
+	 * @param street	the street to measure from
+	 * @return	the player's record
+	 */
+	OppData getByDistance(Distances d, int rank, int avenue, int street)
+	{
+		if (d.version != this.version || d.avenue != avenue || d.street != street)
+		{
+			for (int i = 0; i < this.records.length; i++)
+				d.keys[i] = Math.abs(this.avenue[i] - avenue) + Math.abs(this.street[i] - street);
+			d.counts = sortByKey(d.keys, d.counts, d.order);
+			d.avenue = avenue;
+			d.street = street;
+			d.version = this.version;
+		}
+		return this.records[d.order[rank]];
+	}
+
+	public int getNumAt(int avenue, int street)
+	{
+		int c = this.cellOf(avenue, street);
+		return c < 0 ? 0 : this.cellCount[c];
+	}
+
+	public OppData getAt(int avenue, int street, int n)
+	{
+		int c = this.cellOf(avenue, street);
+		if (c < 0 || n < 0 || n >= this.cellCount[c])
+			throw new IndexOutOfBoundsException("No player " + n + " on (" + avenue + ", " + street + ")");
+
+		if (c != this.cursorCell || n < this.cursorRank)
+		{
+			this.cursorCell = c;
+			this.cursorRank = 0;
+			this.cursorID = this.cellHead[c];
+		}
+		for (; this.cursorRank < n; this.cursorRank++)
+			this.cursorID = this.nextInCell[this.cursorID];
+		return this.records[this.cursorID];
+	}
+
+	public OppData getNearest(int avenue, int street, int excludeID)
+	{
+		// The rings grow by four intersections each, so once the search has looked at more intersections
+		// than there are players, going through the players is the cheaper way to finish it.
+		int maxRadius = Math.max(avenue, this.width - 1 - avenue) + Math.max(street, this.height - 1 - street);
+		int visited = 0;
+		for (int r = 0; r <= maxRadius; r++)
+		{
+			int nearest = -1;
+			for (int da = -r; da <= r; da++)
+			{
+				int ds = r - Math.abs(da);
+				nearest = this.lowestIn(this.cellOf(avenue + da, street - ds), excludeID, nearest);
+				if (ds != 0)
+					nearest = this.lowestIn(this.cellOf(avenue + da, street + ds), excludeID, nearest);
+			}
+			if (nearest >= 0)
+				return this.records[nearest];
+
+			visited += Math.max(1, 4 * r);
+			if (visited > this.records.length)
+				return this.nearestByScan(avenue, street, excludeID);
+		}
+		return null;
+	}
+
+	/**
+	 * Returns the lower of an ID and the lowest ID on an intersection other than excludeID.
+	 */
+	private int lowestIn(int c, int excludeID, int lowest)
+	{
+		if (c < 0)
+			return lowest;
+		int id = this.cellHead[c];
+		if (id == excludeID)
+			id = this.nextInCell[id];
+		if (id >= 0 && (lowest < 0 || id < lowest))
+			return id;
+		return lowest;
+	}
+
+	/**
+	 * Finds the closest live player other than excludeID by going through every player.
+	 */
+	private OppData nearestByScan(int avenue, int street, int excludeID)
+	{
+		int nearest = -1;
+		int nearestDistance = Integer.MAX_VALUE;
+		for (int i = 0; i < this.records.length; i++)
+		{
+			if (this.cell[i] >= 0 && i != excludeID)
+			{
+				int distance = Math.abs(this.avenue[i] - avenue) + Math.abs(this.street[i] - street);
+				if (distance < nearestDistance)
+				{
+					nearest = i;
+					nearestDistance = distance;
+				}
+			}
+		}
+		return nearest < 0 ? null : this.records[nearest];
+	}
+
+	/**
+	 * Orders the IDs by their keys with a counting sort.  The keys are small, non-negative numbers
+	 * (health or a distance), and players with the same key stay in order of ID.
+	 * @param keys		the key of every player, indexed by ID
+	 * @param counts	scratch space for the counts, which is replaced if it is too small
+	 * @param order		the array to fill with the ordered IDs
+	 * @return	the scratch space for the counts, to pass to the next sort
+	 */
+	private static int[] sortByKey(int[] keys, int[] counts, int[] order)
+	{
+		int maxKey = 0;
+		for (int i = 0; i < keys.length; i++)
+			maxKey = Math.max(maxKey, keys[i]);
+
+		if (counts.length < maxKey + 2)
+			counts = new int[maxKey + 2];
+		else
+			Arrays.fill(counts, 0, maxKey + 2, 0);
+
+		for (int i = 0; i < keys.length; i++)
+			counts[keys[i] + 1] ++;
+		for (int k = 0; k <= maxKey; k++)
+			counts[k + 1] += counts[k];
+		for (int i = 0; i < keys.length; i++)
+			order[counts[keys[i]]++] = i;
+		return counts;
+	}
+
+	/**
+	 * The players in order of distance from an intersection, with the space to sort them in.
+	 */
+	static class Distances
+	{
+		private final int[] order;			// IDs from closest to farthest from (avenue, street)
+		private final int[] keys;			// scratch space for the counting sort
+		private int[] counts = new int[0];
+		private int avenue;
+		private int street;
+		private int version = -1;			// the snapshot's version the order was sorted in
+
+		Distances(int numPlayers)
+		{
+			this.order = new int[numPlayers];
+			this.keys = new int[numPlayers];
+		}
+	}
+
+	/**
+	 * An OppData record that reads the snapshot's arrays, so it never has to be rebuilt.
+	 */
+	private class Record extends OppData
+	{
+		Record(int id)
+		{
+			super(id, -1, -1, 0);
+		}
+
+		public int getAvenue()
+		{
+			return avenue[this.getID()];
+		}
+
+		public int getStreet()
+		{
+			return street[this.getID()];
+		}
+
+		public int getHealth()
+		{
+			return health[this.getID()];
+		}
+
+		public void setAvenue(int avenue)
+		{
+			throw new UnsupportedOperationException("The opponent snapshot is read-only");
+		}
+
+		public void setStreet(int street)
+		{
+			throw new UnsupportedOperationException("The opponent snapshot is read-only");
+		}
+
+		public void setHealth(int health)
+		{
+			throw new UnsupportedOperationException("The opponent snapshot is read-only");
+		}
+	}
+
+	/**
+	 * A snapshot that several robots can read at the same time.  It is kept apart so the robots of a
+	 * battle that asks them one at a time never pay for the lock.  Each thread orders the players by
+	 * distance in its own arrays, so the robots asking from different places neither wait for each other
+	 * nor undo each other's ordering.
+	 */
+	static class Shared extends OpponentSnapshot
+	{
+		private final ThreadLocal<Distances> distances;
+
+		Shared(int numPlayers, int width, int height)
+		{
+			super(numPlayers, width, height);
+			this.distances = ThreadLocal.withInitial(() -> new Distances(numPlayers));
+		}
+
+		public synchronized OppData getByHealth(int rank)
+		{
+			return super.getByHealth(rank);
+		}
+
+		public OppData getByDistance(int rank, int avenue, int street)
+		{
+			return this.getByDistance(this.distances.get(), rank, avenue, street);
+		}
+
+		public synchronized OppData getAt(int avenue, int street, int n)
+		{
+			return super.getAt(avenue, street, n);
+		}
+	}
+}
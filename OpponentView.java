@@ -0,0 +1,71 @@
+package robot_war_summative;
+
+/**
+ * A read-only view of every player's position and health, shared by all the FighterRobots in a
+ * battle.  Besides looking a player up by ID, it offers the players ordered by health and by
+ * distance, worked out once per turn by the battle so robots don't have to sort the opponents themselves.
+ *
+ * Players with the same health or distance are always ordered by ID.  Dead players are included,
+ * at (-1, -1) with 0 health, so callers should skip them.  The players on an intersection and the
+ * closest player are looked up in a grid of the live players instead, so those leave the dead out.
+ */
+public interface OpponentView {
+
+	/**
+	 * Returns the number of players in the battle, alive or dead.
+	 * @return	the number of players
+	 */
+	int size();
+
+	/**
+	 * Returns the record of a player.
+	 * @param id	the ID of the player
+	 * @return	the player's record
+	 */
+	OppData get(int id);
+
+	/**
+	 * Returns the record of the player with the given rank when ordered from lowest to highest health.
+	 * @param rank	the position in the order, 0 being the lowest health
+	 * @return	the player's record
+	 */
+	OppData getByHealth(int rank);
+
+	/**
+	 * Returns the record of the player with the given rank when ordered from closest to farthest
+	 * from an intersection, counting the moves needed to get there.
+	 * @param rank		the position in the order, 0 being the closest
+	 * @param avenue	the avenue to measure from
+	 * @param street	the street to measure from
+	 * @return	the player's record
+	 */
+	OppData getByDistance(int rank, int avenue, int street);
+
+	/**
+	 * Returns the number of live players on an intersection.
+	 * @param avenue	the avenue of the intersection
+	 * @param street	the street of the intersection
+	 * @return	the number of players there, 0 if it is outside the arena
+	 */
+	int getNumAt(int avenue, int street);
+
+	/**
+	 * Returns one of the live players on an intersection, in order of ID.  Going through them in order,
+	 * from 0 to getNumAt less one, takes one step per player.
+	 * @param avenue	the avenue of the intersection
+	 * @param street	the street of the intersection
+	 * @param n			the position among the players there, 0 being the lowest ID
+	 * @return	the player's record
+	 */
+	OppData getAt(int avenue, int street, int n);
+
+	/**
+	 * Returns the closest live player to an intersection, counting the moves needed to get there, or the
+	 * one with the lowest ID if several are as close.
+	 * @param avenue	the avenue to measure from
+	 * @param street	the street to measure from
+	 * @param excludeID	the ID of a player to leave out, usually the one asking, or -1
+	 * @return	the player's record, or null if there is no other live player
+	 */
+	OppData getNearest(int avenue, int street, int excludeID);
+}
@@ -0,0 +1,35 @@
+package robot_war_summative;
+
+/**
+ * The reasons a FighterRobot can be penalized during its turn, with the comment recorded for each.
+ */
+public enum Penalty {
+
+	ATTACKED_DEAD_ROBOT("Penalty: ID requested is already dead."),
+	NO_FIGHT("Penalty: Did not initiate a fight in 5 rounds."),
+	BEYOND_BATTLEFIELD("Penalty: Requested location is beyond battlefield"),
+	TOO_MANY_MOVES("Penalty: Requested location requires more than maximum number of moves"),
+	NOT_ENOUGH_ENERGY_TO_MOVE("Penalty: Requested location requires more than available energy"),
+	INVALID_ROUNDS("Penalty: invalid requested number of rounds of fight"),
+	WRONG_LOCATION("Penalty: Moved to the wrong location"),
+	FOUGHT_SELF("Penalty: Try to fight yourself"),
+	NOT_ENOUGH_ENERGY_TO_FIGHT("Penalty: Did not have enough energy to fight"),
+	MISSED_OPPONENT("Did not move to the opponent location"),
+	OVERRAN_TIME_BUDGET("Penalty: Took longer than its time budget");
+
+	private final String comment;
+
+	private Penalty(String comment)
+	{
+		this.comment = comment;
+	}
+
+	/**
+	 * Returns the comment recorded in the player's statistics when this penalty is applied.
+	 * @return	the comment
+	 */
+	public String getComment()
+	{
+		return this.comment;
+	}
+}
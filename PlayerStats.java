@@ -1,9 +1,17 @@
 package robot_war_summative;
 
-import java.util.*;
-
+/**
+ * The statistics of a player over one battle, or of many battles added together with merge.
+ *
+ * Penalties are counted by kind rather than kept as comments, so the statistics stay the same size
+ * however many penalties a player gets.  The turns the first few penalties were given on can also be
+ * kept, up to a fixed number, to point at them in a report.  A PlayerStats belongs to one thread: the
+ * statistics of games played on several threads are added up per thread and then merged.
+ */
 public class PlayerStats {
 
+	private static final Penalty[] PENALTIES = Penalty.values();
+
 	private int roundsWin;
 	private int roundsLoss;
 	private int fightsInitiatedWin;
@@ -15,33 +23,49 @@ public class PlayerStats {
 	private int totalNumMoves;
 	private int numPenalties;
 	private int numKills;
-	private ArrayList penaltiesComments = new ArrayList();
-	
+	private final int[] penalties = new int[PENALTIES.length];	// the number of times each penalty was given, indexed by ordinal
+	private final int[] sampleTurns;								// the turns the first penalties were given on
+	private final byte[] samplePenalties;							// the ordinal of each of those penalties
+	private int sampleSize;
+
+	/**
+	 * Creates empty statistics that keep no turns.
+	 */
 	public PlayerStats()
 	{
-		this.roundsWin = 0;
-		this.roundsLoss = 0;
-		this.fightsInitiatedWin = 0;
-		this.fightsInitiatedLoss = 0;
-		this.fightsInitiatedTie = 0;
-		this.fightsDefendWin = 0;
-		this.fightsDefendLoss = 0;
-		this.fightsDefendTie = 0;
-		this.totalNumMoves = 0;
-		this.numPenalties = 0;
-		this.numKills = 0;
-	}
-	
+		this(0);
+	}
+
+	/**
+	 * Creates empty statistics.
+	 * @param maxSampleSize	the most penalties to keep the turn of
+	 */
+	public PlayerStats(int maxSampleSize)
+	{
+		this.sampleTurns = new int[maxSampleSize];
+		this.samplePenalties = new byte[maxSampleSize];
+	}
+
 	public void addRoundsWin()
 	{
 		this.roundsWin ++;
 	}
 
+	public void addRoundsWin(int num)
+	{
+		this.roundsWin += num;
+	}
+
 	public void addRoundsLoss()
 	{
 		this.roundsLoss ++;
 	}
 
+	public void addRoundsLoss(int num)
+	{
+		this.roundsLoss += num;
+	}
+
 	public void addFightsInitiatedWin()
 	{
 		this.fightsInitiatedWin ++;
@@ -77,14 +101,22 @@ public class PlayerStats {
 		this.totalNumMoves += num;
 	}
 
-	public void addNumPenalties()
-	{
-		this.numPenalties ++;
-	}
-	
-	public void addPenaltiesComments(String comment)
+	/**
+	 * Counts a penalty, and keeps the turn it was given on if there is still room.
+	 * @param penalty	the rule that was broken
+	 * @param points	the health taken away for it
+	 * @param turn		the turn it was given on
+	 */
+	public void addPenalty(Penalty penalty, int points, int turn)
 	{
-		this.penaltiesComments.add(comment);
+		this.penalties[penalty.ordinal()] ++;
+		this.numPenalties += points;
+		if (this.sampleSize < this.sampleTurns.length)
+		{
+			this.sampleTurns[this.sampleSize] = turn;
+			this.samplePenalties[this.sampleSize] = (byte) penalty.ordinal();
+			this.sampleSize ++;
+		}
 	}
 
 	public void addNumKills()
@@ -92,6 +124,33 @@ public class PlayerStats {
 		this.numKills ++;
 	}
 
+	/**
+	 * Adds the statistics of the same player in another battle, or of other players.  The turns other
+	 * kept are added after this one's, as far as there is room for them.
+	 * @param other	the statistics to add
+	 */
+	public void merge(PlayerStats other)
+	{
+		this.roundsWin += other.roundsWin;
+		this.roundsLoss += other.roundsLoss;
+		this.fightsInitiatedWin += other.fightsInitiatedWin;
+		this.fightsInitiatedLoss += other.fightsInitiatedLoss;
+		this.fightsInitiatedTie += other.fightsInitiatedTie;
+		this.fightsDefendWin += other.fightsDefendWin;
+		this.fightsDefendLoss += other.fightsDefendLoss;
+		this.fightsDefendTie += other.fightsDefendTie;
+		this.totalNumMoves += other.totalNumMoves;
+		this.numPenalties += other.numPenalties;
+		this.numKills += other.numKills;
+		for (int p = 0; p < this.penalties.length; p++)
+			this.penalties[p] += other.penalties[p];
+
+		int n = Math.min(other.sampleSize, this.sampleTurns.length - this.sampleSize);
+		System.arraycopy(other.sampleTurns, 0, this.sampleTurns, this.sampleSize, n);
+		System.arraycopy(other.samplePenalties, 0, this.samplePenalties, this.sampleSize, n);
+		this.sampleSize += n;
+	}
+
 	public int getRoundsWin()
 	{
 		return this.roundsWin;
@@ -129,14 +188,55 @@ public class PlayerStats {
 	{
 		return this.totalNumMoves;
 	}
+
+	/**
+	 * Returns the health taken away by every penalty together.
+	 * @return	the points of health
+	 */
 	public int getNumPenalties()
 	{
 		return this.numPenalties;
 	}
-	public ArrayList getPenalitiesComments()
+
+	/**
+	 * Returns the number of times a penalty was given, whatever it cost.
+	 * @param penalty	the rule that was broken
+	 * @return	the number of times
+	 */
+	public int getNumPenalties(Penalty penalty)
+	{
+		return this.penalties[penalty.ordinal()];
+	}
+
+	/**
+	 * Returns the number of penalties whose turn was kept.
+	 * @return	the number of penalties, no more than the most asked for
+	 */
+	public int getSampleSize()
+	{
+		return this.sampleSize;
+	}
+
+	/**
+	 * Returns the turn a kept penalty was given on.
+	 * @param i	the position of the penalty among those kept, in the order they were given
+	 * @return	the turn
+	 */
+	public int getSampleTurn(int i)
 	{
-		return this.penaltiesComments;
+		return this.sampleTurns[i];
 	}
+
+	/**
+	 * Returns which penalty a kept penalty was.
+	 * @param i	the position of the penalty among those kept, in the order they were given
+	 * @return	the rule that was broken
+	 */
+	public Penalty getSamplePenalty(int i)
+	{
+		return PENALTIES[this.samplePenalties[i]];
+	}
+
 	public int getNumKills()
 	{
 		return this.numKills;
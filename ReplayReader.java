@@ -0,0 +1,448 @@
+package robot_war_summative;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Reads the games in a replay archive written by a ReplayWriter, one record at a time.
+ *
+ * The archive is memory-mapped a window at a time rather than read onto the heap, so an archive of any
+ * size can be scanned with a few megabytes of memory.  The reader is a cursor: nextGame moves to the
+ * next game and decodes its header, and nextRecord decodes the game's records one by one into the
+ * reader's own fields, so scanning allocates nothing but the players' class names, which are only
+ * decoded when asked for.  Positions are given as the avenue and street, not the changes stored in
+ * the file.
+ */
+public class ReplayReader implements Closeable {
+
+	private static final int WINDOW_SIZE = 64 << 20;	// the number of bytes mapped at once, unless a single game is bigger
+
+	private final FileChannel channel;
+	private final long size;
+	private ByteBuffer window;
+	private long windowStart;
+	private long gameStart;
+	private long gameEnd = ReplayWriter.HEADER_SIZE;
+
+	// The header of the current game.
+	private long seed;
+	private int flags;
+	private int width;
+	private int height;
+	private int[] rules = new int[0];
+	private int numRules;
+	private int numPlayers;
+	private int[] nameOffset = new int[0];
+	private int[] nameLength = new int[0];
+	private int[] attack = new int[0];
+	private int[] defence = new int[0];
+	private int[] numMoves = new int[0];
+	private int[] startAvenue = new int[0];
+	private int[] startStreet = new int[0];
+	private int[] avenue = new int[0];
+	private int[] street = new int[0];
+
+	// The current record.
+	private int tag;
+	private int id;
+	private int endAvenue;
+	private int endStreet;
+	private int fightID;
+	private int numRounds;
+	private boolean overran;
+	private Penalty penalty;
+	private int points;
+	private int rounds;
+	private int attackerHealthLost;
+	private int defenderHealthLost;
+	private int attackerEnergy;
+	private int defenderEnergy;
+	private int turns;
+	private int winner;
+
+	/**
+	 * Opens an archive to read.
+	 * @param path	the archive
+	 * @throws IOException	if the file cannot be opened or is not a replay archive
+	 */
+	public ReplayReader(Path path) throws IOException
+	{
+		this.channel = FileChannel.open(path, StandardOpenOption.READ);
+		try
+		{
+			ReplayWriter.checkHeader(this.channel);
+			this.size = this.channel.size();
+		}
+		catch (IOException e)
+		{
+			this.channel.close();
+			throw e;
+		}
+	}
+
+	/**
+	 * Moves to the next game in the archive, skipping whatever is left of the current one, and decodes its header.
+	 * @return	false if there are no more games
+	 * @throws IOException	if the archive cannot be mapped
+	 */
+	public boolean nextGame() throws IOException
+	{
+		if (this.gameEnd >= this.size)
+			return false;
+
+		this.map(this.gameEnd, Math.min(5, this.size - this.gameEnd));
+		int length = this.getVarint();
+		this.gameStart = this.windowStart + this.window.position();
+		this.gameEnd = this.gameStart + length;
+		if (this.gameEnd > this.size)
+			throw new IOException("Replay archive ends in the middle of a game");
+		this.map(this.gameStart, length);
+
+		this.seed = this.window.getLong();
+		this.flags = this.getVarint();
+		this.width = this.getVarint();
+		this.height = this.getVarint();
+		this.numRules = this.getVarint();
+		if (this.rules.length < this.numRules)
+			this.rules = new int[this.numRules];
+		for (int i = 0; i < this.numRules; i++)
+			this.rules[i] = ReplayWriter.unzigzag(this.getVarint());
+
+		this.numPlayers = this.getVarint();
+		if (this.attack.length < this.numPlayers)
+		{
+			this.nameOffset = new int[this.numPlayers];
+			this.nameLength = new int[this.numPlayers];
+			this.attack = new int[this.numPlayers];
+			this.defence = new int[this.numPlayers];
+			this.numMoves = new int[this.numPlayers];
+			this.startAvenue = new int[this.numPlayers];
+			this.startStreet = new int[this.numPlayers];
+			this.avenue = new int[this.numPlayers];
+			this.street = new int[this.numPlayers];
+		}
+		for (int i = 0; i < this.numPlayers; i++)
+		{
+			this.nameLength[i] = this.getVarint();
+			this.nameOffset[i] = this.window.position();
+			this.window.position(this.nameOffset[i] + this.nameLength[i]);
+			this.attack[i] = this.getVarint();
+			this.defence[i] = this.getVarint();
+			this.numMoves[i] = this.getVarint();
+			this.startAvenue[i] = this.getVarint();
+			this.startStreet[i] = this.getVarint();
+			this.avenue[i] = this.startAvenue[i];
+			this.street[i] = this.startStreet[i];
+		}
+		this.tag = -1;
+		this.id = -1;
+		return true;
+	}
+
+	/**
+	 * Moves back to before the first game of the archive, so nextGame reads it again.
+	 */
+	void rewind()
+	{
+		this.gameEnd = ReplayWriter.HEADER_SIZE;
+	}
+
+	/**
+	 * Decodes the next record of the current game.  Once the game's TAG_END record has been read, it is returned again.
+	 * @return	the tag of the record, one of ReplayWriter's TAG_ constants
+	 */
+	public int nextRecord()
+	{
+		if (this.tag == ReplayWriter.TAG_END)
+			return this.tag;
+
+		this.tag = this.window.get();
+		switch (this.tag)
+		{
+		case ReplayWriter.TAG_TURN:
+		case ReplayWriter.TAG_OVERRAN:
+			this.overran = this.tag == ReplayWriter.TAG_OVERRAN;
+			this.id = this.getVarint();
+			this.endAvenue = this.avenue[this.id] + ReplayWriter.unzigzag(this.getVarint());
+			this.endStreet = this.street[this.id] + ReplayWriter.unzigzag(this.getVarint());
+			this.fightID = ReplayWriter.unzigzag(this.getVarint()) - 1;
+			this.numRounds = ReplayWriter.unzigzag(this.getVarint());
+			break;
+		case ReplayWriter.TAG_PENALTY:
+			this.penalty = Penalty.values()[this.getVarint()];
+			this.points = this.getVarint();
+			break;
+		case ReplayWriter.TAG_MOVE:
+			this.avenue[this.id] = this.endAvenue + ReplayWriter.unzigzag(this.getVarint());
+			this.street[this.id] = this.endStreet + ReplayWriter.unzigzag(this.getVarint());
+			break;
+		case ReplayWriter.TAG_FIGHT:
+			this.rounds = this.getVarint();
+			this.attackerHealthLost = this.getVarint();
+			this.defenderHealthLost = this.getVarint();
+			this.attackerEnergy = this.getVarint();
+			this.defenderEnergy = this.getVarint();
+			break;
+		case ReplayWriter.TAG_END:
+			this.turns = this.getVarint();
+			this.winner = ReplayWriter.unzigzag(this.getVarint()) - 1;
+			break;
+		default:
+			throw new IllegalStateException("Unknown replay record " + this.tag + " in the game at byte " + this.gameStart);
+		}
+		return this.tag;
+	}
+
+	/**
+	 * Makes sure the bytes from an offset in the file are mapped, and moves to that offset.
+	 */
+	private void map(long offset, long length) throws IOException
+	{
+		if (this.window == null || offset < this.windowStart || offset + length > this.windowStart + this.window.limit())
+		{
+			long mapSize = Math.min(Math.max(WINDOW_SIZE, length), this.size - offset);
+			if (mapSize > Integer.MAX_VALUE)
+				throw new IOException("Replay game too large to map");
+			this.window = this.channel.map(FileChannel.MapMode.READ_ONLY, offset, mapSize).order(ByteOrder.BIG_ENDIAN);
+			this.windowStart = offset;
+		}
+		this.window.position((int) (offset - this.windowStart));
+	}
+
+	private int getVarint()
+	{
+		int value = 0;
+		int shift = 0;
+		byte b;
+		do
+		{
+			b = this.window.get();
+			value |= (b & 0x7F) << shift;
+			shift += 7;
+		}
+		while (b < 0);
+		return value;
+	}
+
+	/**
+	 * Closes the archive.
+	 */
+	public void close() throws IOException
+	{
+		this.window = null;
+		this.channel.close();
+	}
+
+	/**
+	 * Returns where the current game starts in the archive, to point at it in a report.
+	 * @return	the offset of the game in bytes
+	 */
+	public long getGameOffset()
+	{
+		return this.gameStart;
+	}
+
+	public long getSeed()
+	{
+		return this.seed;
+	}
+
+	/**
+	 * Tells whether the game's fights were played round by round, which draws the dice differently from resolving them at once.
+	 * @return	true if they were played round by round
+	 */
+	public boolean isRoundByRound()
+	{
+		return (this.flags & ReplayWriter.FLAG_ROUND_BY_ROUND) != 0;
+	}
+
+	/**
+	 * Tells whether the players of the game decided their turns at the same time, which plays the turns of a round in a different order.
+	 * @return	true if they decided at the same time
+	 */
+	public boolean isSimultaneous()
+	{
+		return (this.flags & ReplayWriter.FLAG_SIMULTANEOUS) != 0;
+	}
+
+	public int getWidth()
+	{
+		return this.width;
+	}
+
+	public int getHeight()
+	{
+		return this.height;
+	}
+
+	public int getNumRules()
+	{
+		return this.numRules;
+	}
+
+	public int getRule(int i)
+	{
+		return this.rules[i];
+	}
+
+	public int getNumPlayers()
+	{
+		return this.numPlayers;
+	}
+
+	/**
+	 * Decodes the class name of a player.
+	 * @param id	the ID of the player
+	 * @return	the fully qualified name of the player's class
+	 */
+	public String getClassName(int id)
+	{
+		byte[] name = new byte[this.nameLength[id]];
+		this.window.get(this.nameOffset[id], name);
+		return new String(name, StandardCharsets.UTF_8);
+	}
+
+	public int getAttack(int id)
+	{
+		return this.attack[id];
+	}
+
+	public int getDefence(int id)
+	{
+		return this.defence[id];
+	}
+
+	public int getNumMoves(int id)
+	{
+		return this.numMoves[id];
+	}
+
+	public int getStartAvenue(int id)
+	{
+		return this.startAvenue[id];
+	}
+
+	public int getStartStreet(int id)
+	{
+		return this.startStreet[id];
+	}
+
+	/**
+	 * Returns the ID of the player whose turn the current record belongs to.
+	 * @return	the ID of the player
+	 */
+	public int getID()
+	{
+		return this.id;
+	}
+
+	/**
+	 * Returns the request of the last TAG_TURN or TAG_OVERRAN record as a TurnRequest.
+	 * @return	the request
+	 */
+	public TurnRequest getRequest()
+	{
+		return new TurnRequest(this.endAvenue, this.endStreet, this.fightID, this.numRounds);
+	}
+
+	public int getEndAvenue()
+	{
+		return this.endAvenue;
+	}
+
+	public int getEndStreet()
+	{
+		return this.endStreet;
+	}
+
+	public int getFightID()
+	{
+		return this.fightID;
+	}
+
+	public int getNumRounds()
+	{
+		return this.numRounds;
+	}
+
+	/**
+	 * Tells whether the player of the last TAG_TURN or TAG_OVERRAN record took longer than its time
+	 * budget, in which case the request is the one the battle made for it.
+	 * @return	true if it took too long
+	 */
+	public boolean hasOverran()
+	{
+		return this.overran;
+	}
+
+	public Penalty getPenalty()
+	{
+		return this.penalty;
+	}
+
+	public int getPoints()
+	{
+		return this.points;
+	}
+
+	/**
+	 * Returns the avenue a player is on after the records read so far.
+	 * @param id	the ID of the player
+	 * @return	the avenue
+	 */
+	public int getAvenue(int id)
+	{
+		return this.avenue[id];
+	}
+
+	/**
+	 * Returns the street a player is on after the records read so far.
+	 * @param id	the ID of the player
+	 * @return	the street
+	 */
+	public int getStreet(int id)
+	{
+		return this.street[id];
+	}
+
+	public int getRounds()
+	{
+		return this.rounds;
+	}
+
+	public int getAttackerHealthLost()
+	{
+		return this.attackerHealthLost;
+	}
+
+	public int getDefenderHealthLost()
+	{
+		return this.defenderHealthLost;
+	}
+
+	public int getAttackerEnergy()
+	{
+		return this.attackerEnergy;
+	}
+
+	public int getDefenderEnergy()
+	{
+		return this.defenderEnergy;
+	}
+
+	public int getTurns()
+	{
+		return this.turns;
+	}
+
+	public int getWinner()
+	{
+		return this.winner;
+	}
+}
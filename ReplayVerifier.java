@@ -0,0 +1,215 @@
+package robot_war_summative;
+
+/**
+ * Plays recorded games again from their recorded requests, without the robots that played them, and
+ * reports the first turn where the battle no longer plays out as recorded.
+ *
+ * Only the requests are taken from the recording.  Everything the battle works out from them (the
+ * penalties, moves, fights and the winner) is checked against the recording as it happens, so a change
+ * to the battle's rules or to how it resolves fights shows up at the first turn it makes a difference.
+ */
+public class ReplayVerifier implements BattleRecorder {
+
+	private final ReplayReader game;
+	private int turn;				// the turn being checked
+	private int id;					// the player taking it
+	private int divergedTurn;
+	private String divergence;
+
+	/**
+	 * Creates a verifier for the games of an archive.
+	 * @param game	the archive to read the games from
+	 */
+	public ReplayVerifier(ReplayReader game)
+	{
+		this.game = game;
+	}
+
+	/**
+	 * Plays the game the archive is on again and checks it against the recording.
+	 * @return	true if it played out exactly as recorded
+	 */
+	public boolean verify()
+	{
+		this.turn = 0;
+		this.id = -1;
+		this.divergedTurn = -1;
+		this.divergence = null;
+
+		Battle battle;
+		try
+		{
+			battle = new Battle(this.game);
+		}
+		catch (IllegalArgumentException e)
+		{
+			this.diverge(e.getMessage());
+			return false;
+		}
+		battle.resimulate(this);
+		return this.divergence == null;
+	}
+
+	/**
+	 * Tells whether the game played so far differs from the recording.
+	 * @return	true if it differs
+	 */
+	public boolean hasDiverged()
+	{
+		return this.divergence != null;
+	}
+
+	/**
+	 * Returns the first turn where the game differed from the recording.
+	 * @return	the turn, 0 if the game could not be played at all, or -1 if it did not differ
+	 */
+	public int getDivergedTurn()
+	{
+		return this.divergedTurn;
+	}
+
+	/**
+	 * Describes how the game first differed from the recording.
+	 * @return	the description, or null if it did not differ
+	 */
+	public String getDivergence()
+	{
+		return this.divergence;
+	}
+
+	/**
+	 * Reads the request of the next turn from the recording.
+	 * @param turn	the number of the turn the battle is about to play
+	 * @param id	the ID of the player the battle expects to take it
+	 * @return	the recorded request, or null if the recording does not have that turn
+	 */
+	TurnRequest nextRequest(int turn, int id)
+	{
+		int tag = this.game.nextRecord();
+		if (tag != ReplayWriter.TAG_TURN && tag != ReplayWriter.TAG_OVERRAN)
+		{
+			this.diverge("the battle went on to turn " + turn + " but the recording has " + this.describeRecord(tag));
+			return null;
+		}
+		this.turn = turn;
+		this.id = id;
+		if (this.game.getID() != id)
+		{
+			this.diverge("player " + id + " took the turn but the recording has player " + this.game.getID());
+			return null;
+		}
+		return this.game.getRequest();
+	}
+
+	/**
+	 * Tells whether the player of the request last read took longer than its time budget when the game was recorded.
+	 * @return	true if it took too long
+	 */
+	boolean hasOverran()
+	{
+		return this.game.hasOverran();
+	}
+
+	public void turn(int id, int avenue, int street, TurnRequest request, boolean overran)
+	{
+		// The request itself came from the recording, so only where the player was can differ.
+		if (!this.hasDiverged() && (avenue != this.game.getAvenue(id) || street != this.game.getStreet(id)))
+			this.diverge("player " + id + " was on (" + avenue + ", " + street + ") but the recording has (" + this.game.getAvenue(id) + ", " + this.game.getStreet(id) + ")");
+	}
+
+	public void penalty(Penalty penalty, int points)
+	{
+		if (this.hasDiverged())
+			return;
+		int tag = this.game.nextRecord();
+		if (tag != ReplayWriter.TAG_PENALTY || this.game.getPenalty() != penalty || this.game.getPoints() != points)
+			this.diverge("the battle gave " + describePenalty(penalty, points) + " but the recording has " + this.describeRecord(tag));
+	}
+
+	public void move(int avenueError, int streetError)
+	{
+		if (this.hasDiverged())
+			return;
+		int tag = this.game.nextRecord();
+		if (tag != ReplayWriter.TAG_MOVE || this.game.getAvenue(this.id) - this.game.getEndAvenue() != avenueError
+				|| this.game.getStreet(this.id) - this.game.getEndStreet() != streetError)
+			this.diverge("the battle made " + describeMove(this.game.getEndAvenue() + avenueError, this.game.getEndStreet() + streetError)
+					+ " but the recording has " + this.describeRecord(tag));
+	}
+
+	public void fight(int rounds, int attackerHealthLost, int defenderHealthLost, int attackerEnergy, int defenderEnergy)
+	{
+		if (this.hasDiverged())
+			return;
+		int tag = this.game.nextRecord();
+		if (tag != ReplayWriter.TAG_FIGHT || this.game.getRounds() != rounds || this.game.getAttackerHealthLost() != attackerHealthLost
+				|| this.game.getDefenderHealthLost() != defenderHealthLost || this.game.getAttackerEnergy() != attackerEnergy
+				|| this.game.getDefenderEnergy() != defenderEnergy)
+			this.diverge("the battle had " + describeFight(rounds, attackerHealthLost, defenderHealthLost, attackerEnergy, defenderEnergy)
+					+ " but the recording has " + this.describeRecord(tag));
+	}
+
+	public void end(int turns, int winner)
+	{
+		if (this.hasDiverged())
+			return;
+		int tag = this.game.nextRecord();
+		if (tag != ReplayWriter.TAG_END || this.game.getTurns() != turns || this.game.getWinner() != winner)
+			this.diverge("the battle had " + describeEnd(turns, winner) + " but the recording has " + this.describeRecord(tag));
+	}
+
+	/**
+	 * Notes the first difference from the recording, at the turn being checked.
+	 */
+	private void diverge(String description)
+	{
+		if (this.divergence == null)
+		{
+			this.divergedTurn = this.turn;
+			this.divergence = description;
+		}
+	}
+
+	/**
+	 * Describes the record the archive was just moved to.
+	 */
+	private String describeRecord(int tag)
+	{
+		switch (tag)
+		{
+		case ReplayWriter.TAG_TURN:
+		case ReplayWriter.TAG_OVERRAN:
+			return "a turn of player " + this.game.getID();
+		case ReplayWriter.TAG_PENALTY:
+			return describePenalty(this.game.getPenalty(), this.game.getPoints());
+		case ReplayWriter.TAG_MOVE:
+			return describeMove(this.game.getAvenue(this.id), this.game.getStreet(this.id));
+		case ReplayWriter.TAG_FIGHT:
+			return describeFight(this.game.getRounds(), this.game.getAttackerHealthLost(), this.game.getDefenderHealthLost(),
+					this.game.getAttackerEnergy(), this.game.getDefenderEnergy());
+		default:
+			return describeEnd(this.game.getTurns(), this.game.getWinner());
+		}
+	}
+
+	private static String describePenalty(Penalty penalty, int points)
+	{
+		return "the penalty " + penalty + " of " + points;
+	}
+
+	private static String describeMove(int avenue, int street)
+	{
+		return "a move to (" + avenue + ", " + street + ")";
+	}
+
+	private static String describeFight(int rounds, int attackerHealthLost, int defenderHealthLost, int attackerEnergy, int defenderEnergy)
+	{
+		return "a fight of " + rounds + " rounds losing " + attackerHealthLost + " and " + defenderHealthLost + " health, leaving "
+				+ attackerEnergy + " and " + defenderEnergy + " energy";
+	}
+
+	private static String describeEnd(int turns, int winner)
+	{
+		return "the end after " + turns + " turns won by " + winner;
+	}
+}
@@ -0,0 +1,314 @@
+package robot_war_summative;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Appends the games played to a binary replay archive, so they can be audited or played again later.
+ *
+ * An archive starts with the magic number "RWRP" and a version byte, followed by the games one after
+ * the other.  Each game is its length in bytes and then:
+ * <pre>
+ *   seed                      8 bytes, big-endian
+ *   flags                     FLAG_ROUND_BY_ROUND when the fights were played round by round, FLAG_SIMULTANEOUS
+ *                             when the players decided their turns at the same time
+ *   width, height
+ *   number of rules, rules    the rule constants of the battle, in the order of Battle.RULES
+ *   number of players, then for each player:
+ *     class name              its length, then UTF-8
+ *     attack, defence, moves, starting avenue, starting street
+ *   records, each a tag followed by its fields:
+ *     TAG_TURN      id, requested avenue and street as a change from the player's position, fight ID + 1, rounds
+ *     TAG_OVERRAN   the same as TAG_TURN, for a player that took longer than its time budget to make its request
+ *     TAG_PENALTY   penalty, health taken away
+ *     TAG_MOVE      avenue and street reached, as a change from the requested ones (0, 0 unless it got lost)
+ *     TAG_FIGHT     rounds fought, attacker's and defender's health lost, attacker's and defender's energy after
+ *     TAG_END       number of turns, winner ID + 1
+ * </pre>
+ * Every number after the seed is a varint, and every number that can be negative is zigzag-encoded
+ * first, so a typical turn takes 5 to 12 bytes.
+ *
+ * A game is encoded into a buffer belonging to the thread playing it and is only handed to the file
+ * once it is over, so battles on many threads can share one writer and each game stays in one piece.
+ */
+public class ReplayWriter implements Closeable {
+
+	static final int MAGIC = 0x52575250;		// "RWRP"
+	static final int VERSION = 1;
+	static final int HEADER_SIZE = 5;
+
+	static final int FLAG_ROUND_BY_ROUND = 1;
+	static final int FLAG_SIMULTANEOUS = 2;
+
+	static final int TAG_END = 0;
+	static final int TAG_TURN = 1;
+	static final int TAG_PENALTY = 2;
+	static final int TAG_MOVE = 3;
+	static final int TAG_FIGHT = 4;
+	static final int TAG_OVERRAN = 5;
+
+	private static final int OUTPUT_BUFFER_SIZE = 1 << 20;
+	private static final int GAME_BUFFER_SIZE = 1 << 16;
+
+	private final FileChannel channel;
+	private final ByteBuffer output = ByteBuffer.allocateDirect(OUTPUT_BUFFER_SIZE);
+	private final ThreadLocal<Game> games = ThreadLocal.withInitial(() -> new Game(this));
+
+	/**
+	 * Opens an archive to append games to, creating it if it does not exist yet.
+	 * @param path	the archive
+	 * @throws IOException	if the file cannot be opened or is not a replay archive
+	 */
+	public ReplayWriter(Path path) throws IOException
+	{
+		this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+		try
+		{
+			if (this.channel.size() == 0)
+			{
+				ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.BIG_ENDIAN);
+				header.putInt(MAGIC).put((byte) VERSION).flip();
+				while (header.hasRemaining())
+					this.channel.write(header);
+			}
+			else
+				checkHeader(this.channel);
+			this.channel.position(this.channel.size());
+		}
+		catch (IOException e)
+		{
+			this.channel.close();
+			throw e;
+		}
+	}
+
+	/**
+	 * Checks that a file starts with the header of a replay archive this version can read.
+	 * @param channel	the file
+	 * @throws IOException	if it does not
+	 */
+	static void checkHeader(FileChannel channel) throws IOException
+	{
+		ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.BIG_ENDIAN);
+		while (header.hasRemaining() && channel.read(header, header.position()) > 0)
+			;
+		header.flip();
+		if (header.remaining() < HEADER_SIZE || header.getInt() != MAGIC)
+			throw new IOException("Not a replay archive");
+		int version = header.get();
+		if (version != VERSION)
+			throw new IOException("Unsupported replay version " + version);
+	}
+
+	/**
+	 * Starts recording a game on the calling thread.  The game must be played and ended on the same thread.
+	 * @return	the game to record into
+	 */
+	Game startGame()
+	{
+		return this.games.get();
+	}
+
+	/**
+	 * Writes out a finished game, prefixed with its length.
+	 */
+	private synchronized void write(ByteBuffer game)
+	{
+		try
+		{
+			int length = game.remaining();
+			if (this.output.remaining() < length + 5)
+				this.flush();
+			putVarint(this.output, length);
+			if (length > this.output.remaining())
+			{
+				this.flush();
+				while (game.hasRemaining())
+					this.channel.write(game);
+			}
+			else
+				this.output.put(game);
+		}
+		catch (IOException e)
+		{
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	/**
+	 * Writes everything buffered so far to the file.
+	 */
+	private void flush() throws IOException
+	{
+		this.output.flip();
+		while (this.output.hasRemaining())
+			this.channel.write(this.output);
+		this.output.clear();
+	}
+
+	/**
+	 * Writes out the games buffered so far and closes the archive.
+	 */
+	public synchronized void close() throws IOException
+	{
+		try
+		{
+			this.flush();
+		}
+		finally
+		{
+			this.channel.close();
+		}
+	}
+
+	static void putVarint(ByteBuffer buffer, int value)
+	{
+		while ((value & ~0x7F) != 0)
+		{
+			buffer.put((byte) ((value & 0x7F) | 0x80));
+			value >>>= 7;
+		}
+		buffer.put((byte) value);
+	}
+
+	static int zigzag(int value)
+	{
+		return (value << 1) ^ (value >> 31);
+	}
+
+	static int unzigzag(int value)
+	{
+		return (value >>> 1) ^ -(value & 1);
+	}
+
+	/**
+	 * The recording of one game, reused by every game its thread plays.  It encodes into a plain array
+	 * rather than a ByteBuffer, as this runs on every turn of every recorded battle.
+	 */
+	static class Game implements BattleRecorder
+	{
+		private static final int MAX_RECORD_SIZE = 6 * 5;		// the most bytes a tag and its fields can take
+
+		private final ReplayWriter writer;
+		private byte[] bytes = new byte[GAME_BUFFER_SIZE];
+		private int length;
+
+		private Game(ReplayWriter writer)
+		{
+			this.writer = writer;
+		}
+
+		/**
+		 * Records the header of the game.
+		 * @param seed			the seed of the battle
+		 * @param roundByRound	true if fights are played round by round rather than resolved at once
+		 * @param simultaneous	true if the players decide their turns at the same time
+		 * @param width			the width of the arena
+		 * @param height		the height of the arena
+		 * @param rules			the rule constants of the battle
+		 * @param players		the players, in order of ID, at their starting positions
+		 */
+		void header(long seed, boolean roundByRound, boolean simultaneous, int width, int height, int[] rules, FighterRobot[] players)
+		{
+			this.length = 0;
+			this.ensure(8 + 5 * (4 + rules.length));
+			for (int shift = 56; shift >= 0; shift -= 8)
+				this.bytes[this.length++] = (byte) (seed >>> shift);
+			this.putVarint((roundByRound ? FLAG_ROUND_BY_ROUND : 0) | (simultaneous ? FLAG_SIMULTANEOUS : 0));
+			this.putVarint(width);
+			this.putVarint(height);
+			this.putVarint(rules.length);
+			for (int rule : rules)
+				this.putVarint(zigzag(rule));
+			this.putVarint(players.length);
+			for (FighterRobot player : players)
+			{
+				byte[] name = player.getClass().getName().getBytes(StandardCharsets.UTF_8);
+				this.ensure(name.length + MAX_RECORD_SIZE);
+				this.putVarint(name.length);
+				System.arraycopy(name, 0, this.bytes, this.length, name.length);
+				this.length += name.length;
+				this.putVarint(player.getAttack());
+				this.putVarint(player.getDefence());
+				this.putVarint(player.getNumMoves());
+				this.putVarint(player.getAvenue());
+				this.putVarint(player.getStreet());
+			}
+		}
+
+		public void turn(int id, int avenue, int street, TurnRequest request, boolean overran)
+		{
+			this.ensure(MAX_RECORD_SIZE);
+			this.bytes[this.length++] = (byte) (overran ? TAG_OVERRAN : TAG_TURN);
+			this.putVarint(id);
+			this.putVarint(zigzag(request.getEndAvenue() - avenue));
+			this.putVarint(zigzag(request.getEndStreet() - street));
+			this.putVarint(zigzag(request.getFightID() + 1));
+			this.putVarint(zigzag(request.getNumRounds()));
+		}
+
+		public void penalty(Penalty penalty, int points)
+		{
+			this.ensure(MAX_RECORD_SIZE);
+			this.bytes[this.length++] = TAG_PENALTY;
+			this.putVarint(penalty.ordinal());
+			this.putVarint(points);
+		}
+
+		public void move(int avenueError, int streetError)
+		{
+			this.ensure(MAX_RECORD_SIZE);
+			this.bytes[this.length++] = TAG_MOVE;
+			this.putVarint(zigzag(avenueError));
+			this.putVarint(zigzag(streetError));
+		}
+
+		public void fight(int rounds, int attackerHealthLost, int defenderHealthLost, int attackerEnergy, int defenderEnergy)
+		{
+			this.ensure(MAX_RECORD_SIZE);
+			this.bytes[this.length++] = TAG_FIGHT;
+			this.putVarint(rounds);
+			this.putVarint(attackerHealthLost);
+			this.putVarint(defenderHealthLost);
+			this.putVarint(attackerEnergy);
+			this.putVarint(defenderEnergy);
+		}
+
+		public void end(int turns, int winner)
+		{
+			this.ensure(MAX_RECORD_SIZE);
+			this.bytes[this.length++] = TAG_END;
+			this.putVarint(turns);
+			this.putVarint(zigzag(winner + 1));
+			// the whole game goes to the archive at once, so games played on different threads never interleave
+			this.writer.write(ByteBuffer.wrap(this.bytes, 0, this.length));
+		}
+
+		private void putVarint(int value)
+		{
+			while ((value & ~0x7F) != 0)
+			{
+				this.bytes[this.length++] = (byte) ((value & 0x7F) | 0x80);
+				value >>>= 7;
+			}
+			this.bytes[this.length++] = (byte) value;
+		}
+
+		/**
+		 * Grows the array if fewer than a number of bytes are left in it.
+		 */
+		private void ensure(int bytes)
+		{
+			if (this.bytes.length - this.length < bytes)
+				this.bytes = Arrays.copyOf(this.bytes, Math.max(this.bytes.length * 2, this.length + bytes));
+		}
+	}
+}
@@ -0,0 +1,183 @@
+package robot_war_summative;
+
+import becker.robots.City;
+import becker.robots.Direction;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.InvocationTargetException;
+
+/**
+ * The FighterRobot classes that play a battle, one per player ID.  Every class needs the constructor
+ * the battle has always used, (City, int street, int avenue, Direction, int id, int health), which
+ * the roster looks up once and calls for every battle.
+ */
+public class Roster {
+
+	/** The roster the battle has always been played with. */
+	public static final Roster DEFAULT = new Roster(TankFighterRobot.class, SwiftFighterRobot.class, BasicFighterRobot.class,
+			DengFighterRobot.class, BasicFighterRobot.class, BasicFighterRobot.class);
+
+	private final Class<? extends FighterRobot>[] classes;
+	private final Constructor<? extends FighterRobot>[] constructors;
+
+	/**
+	 * Creates a roster.
+	 * @param classes	the class of each player, in order of ID
+	 * @throws IllegalArgumentException	if a class does not have the constructor a battle needs
+	 */
+	@SafeVarargs
+	@SuppressWarnings({"unchecked", "rawtypes", "varargs"})
+	public Roster(Class<? extends FighterRobot>... classes)
+	{
+		this.classes = classes.clone();
+		this.constructors = new Constructor[classes.length];
+		for (int i = 0; i < classes.length; i++)
+		{
+			try
+			{
+				// a large roster repeats a few classes, so each class is only looked up once
+				if (i > 0 && classes[i] == classes[i - 1])
+					this.constructors[i] = this.constructors[i - 1];
+				else
+					this.constructors[i] = classes[i].getConstructor(City.class, int.class, int.class, Direction.class, int.class, int.class);
+			}
+			catch (NoSuchMethodException e)
+			{
+				throw new IllegalArgumentException(classes[i].getName() + " does not have a (City, int, int, Direction, int, int) constructor", e);
+			}
+		}
+	}
+
+	/**
+	 * Reads a roster from a list of class names separated by commas.  Names without a package are
+	 * looked up in this package, and "FighterRobot" can be left off, so "Tank,Basic" is enough.  A name
+	 * followed by "*" and a number stands for that many players of the class, as in "Tank*10,Basic*4990".
+	 * @param names	the class names
+	 * @return	the roster
+	 * @throws IllegalArgumentException	if a class can not be found or is not a FighterRobot
+	 */
+	@SuppressWarnings({"unchecked", "rawtypes"})
+	public static Roster parse(String names)
+	{
+		String[] parts = names.split(",");
+		Class<? extends FighterRobot>[] found = new Class[parts.length];
+		int[] counts = new int[parts.length];
+		int numPlayers = 0;
+		for (int i = 0; i < parts.length; i++)
+		{
+			String name = parts[i].trim();
+			counts[i] = 1;
+			int star = name.indexOf('*');
+			if (star >= 0)
+			{
+				counts[i] = Integer.parseInt(name.substring(star + 1).trim());
+				name = name.substring(0, star).trim();
+				if (counts[i] < 1)
+					throw new IllegalArgumentException("A roster of " + counts[i] + " " + name);
+			}
+			if (name.indexOf('.') < 0)
+				name = Roster.class.getPackage().getName() + "." + name;
+			try
+			{
+				found[i] = forName(name).asSubclass(FighterRobot.class);
+			}
+			catch (ClassNotFoundException | ClassCastException e)
+			{
+				throw new IllegalArgumentException(name + " is not a FighterRobot", e);
+			}
+			numPlayers += counts[i];
+		}
+
+		Class<? extends FighterRobot>[] classes = new Class[numPlayers];
+		int id = 0;
+		for (int i = 0; i < parts.length; i++)
+		{
+			for (int n = 0; n < counts[i]; n++)
+				classes[id++] = found[i];
+		}
+		return new Roster(classes);
+	}
+
+	/**
+	 * Looks up a class, trying the name with "FighterRobot" added if there is no class by that name.
+	 */
+	private static Class<?> forName(String name) throws ClassNotFoundException
+	{
+		try
+		{
+			return Class.forName(name);
+		}
+		catch (ClassNotFoundException e)
+		{
+			if (name.endsWith("FighterRobot"))
+				throw e;
+			return Class.forName(name + "FighterRobot");
+		}
+	}
+
+	/**
+	 * Returns the number of players.
+	 * @return	the number of players
+	 */
+	public int size()
+	{
+		return this.classes.length;
+	}
+
+	/**
+	 * Returns the class of a player.
+	 * @param id	the ID of the player
+	 * @return	its class
+	 */
+	public Class<? extends FighterRobot> getPlayerClass(int id)
+	{
+		return this.classes[id];
+	}
+
+	/**
+	 * Creates a player, facing north.
+	 * @param id		the ID of the player
+	 * @param city		the city to place it in
+	 * @param street	its starting street
+	 * @param avenue	its starting avenue
+	 * @param health	its starting health
+	 * @return	the player
+	 */
+	FighterRobot create(int id, City city, int street, int avenue, int health)
+	{
+		try
+		{
+			return this.constructors[id].newInstance(city, street, avenue, Direction.NORTH, id, health);
+		}
+		catch (InvocationTargetException e)
+		{
+			if (e.getCause() instanceof RuntimeException)
+				throw (RuntimeException) e.getCause();
+			throw new IllegalStateException("Could not create " + this.classes[id].getName(), e.getCause());
+		}
+		catch (ReflectiveOperationException e)
+		{
+			throw new IllegalStateException("Could not create " + this.classes[id].getName(), e);
+		}
+	}
+
+	/**
+	 * Lists the classes the way parse reads them, writing a run of players of the same class once with their number.
+	 */
+	public String toString()
+	{
+		StringBuilder names = new StringBuilder();
+		for (int i = 0; i < this.classes.length; )
+		{
+			int run = 1;
+			while (i + run < this.classes.length && this.classes[i + run] == this.classes[i])
+				run ++;
+			if (i > 0)
+				names.append(',');
+			names.append(this.classes[i].getSimpleName());
+			if (run > 1)
+				names.append('*').append(run);
+			i += run;
+		}
+		return names.toString();
+	}
+}
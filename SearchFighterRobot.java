@@ -0,0 +1,329 @@
+package robot_war_summative;
+
+import becker.robots.*;
+import java.awt.Color;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Creating a fighter robot that looks ahead before it chooses. Every turn it copies itself and its closest opponents
+ * into a BattleModel, lists what it could do, and plays each choice forward a few rounds many times over, with every
+ * robot in the playouts chasing and attacking its closest opponent. It then does whatever left it best off on average.
+ * The playouts are shared out over the common ForkJoinPool.
+ *
+ * The battle keeps its players' stats and energy to itself, so the model guesses them: an opponent's number of moves
+ * is the most it was seen to move in a turn, or its class's profile if there is one, the rest of its 10 points are
+ * shared evenly between attack and defence, and its energy is full. Each turn's playouts draw from streams split off
+ * the robot's own, one for every choice, and every choice gets PLAYOUTS playouts, so the same seed always plays out
+ * the same. Only when the battle gives the robots a time budget does the search also stop once it has used half of it.
+ */
+
+public class SearchFighterRobot extends FighterRobot {
+	private static final int NUM_OPPONENTS = 5;				// The number of closest opponents the model holds.
+	private static final int MAX_CHOICES = 2 + 2 * NUM_OPPONENTS;
+	private static final int HORIZON = 3;					// The number of rounds a playout looks ahead.
+	private static final int PLAYOUTS = 32;					// The playouts of every choice in a turn, unless the time budget runs out first.
+	private static final int BATCH = 8;						// The playouts of every choice played between looks at the clock.
+	private static final int POINTS = 10;					// The points every robot is taken to share between its stats.
+	private static final int DEFAULT_MOVES = 4;				// The number of moves of an opponent that hasn't been seen to move.
+	private static final double OPPONENT_WEIGHT = 0.5;		// How much the health left to its opponents counts against the robot.
+
+	private int health;
+	private int turnsWithoutFight;
+	private int numTurns;
+	private int[] maxMoves, lastAvenue, lastStreet, lastSeen;	// What's been seen of every opponent, indexed by ID.
+
+	private final BattleModel model = new BattleModel(NUM_OPPONENTS + 1);
+	private final BattleModel[] playouts = new BattleModel[MAX_CHOICES];
+	private final int[] choiceAvenue = new int[MAX_CHOICES], choiceStreet = new int[MAX_CHOICES];
+	private final int[] choiceTarget = new int[MAX_CHOICES], choiceRounds = new int[MAX_CHOICES];
+	private final double[] totals = new double[MAX_CHOICES];
+	private final SplittableRandom[] streams = new SplittableRandom[MAX_CHOICES];
+	private int numChoices;
+
+	/**
+	 * Constructor to set up the robot.
+	 * @param city The city the robot is in.
+	 * @param street The robot's starting street.
+	 * @param avenue The robot's starting avenue.
+	 * @param dir The robot's starting direction.
+	 * @param id The robot's ID.
+	 * @param health The robot's health.
+	 */
+	public SearchFighterRobot(City city, int street, int avenue, Direction dir, int id, int health) {
+		super(city, street, avenue, dir, id, 3, 6, 1); // Attack = 3, defence = 6, movement = 1
+		this.health = health;
+		for(int c = 0; c < MAX_CHOICES; c++) {
+			this.playouts[c] = new BattleModel(NUM_OPPONENTS + 1);
+		}
+		this.setLabel();
+	}
+
+	/**
+	 * Overriding the takeTurn method to search for the best thing to do this round.
+	 * @param energy The robot's current energy.
+	 * @param data An array of opponents.
+	 */
+	public TurnRequest takeTurn(int energy, OppData[] data) {
+		this.numTurns++;
+		this.buildModel(energy, data.length);
+
+		// With nobody left to model, there's nothing to search.
+		if(this.model.size() == 1) {
+			return new TurnRequest(this.getAvenue(), this.getStreet(), -1, 0);
+		}
+
+		this.listChoices(energy);
+		int best = 0;
+		if(this.numChoices > 1) {
+			this.search();
+			for(int c = 1; c < this.numChoices; c++) {
+				if(this.totals[c] > this.totals[best]) {
+					best = c;
+				}
+			}
+		}
+
+		int target = this.choiceTarget[best];
+		if(target < 0) {
+			this.turnsWithoutFight = (this.turnsWithoutFight + 1) % Battle.NUM_ROUNDS_OF_NO_FIGHTS;
+			return new TurnRequest(this.choiceAvenue[best], this.choiceStreet[best], -1, 0);
+		}
+		this.turnsWithoutFight = 0;
+		return new TurnRequest(this.choiceAvenue[best], this.choiceStreet[best], this.model.getID(target), this.choiceRounds[best]);
+	}
+
+	/**
+	 * Copies the robot, at index 0, and its closest live opponents into the model, and updates what's been seen of them.
+	 * @param energy The robot's current energy.
+	 * @param numPlayers The number of players in the battle.
+	 */
+	private void buildModel(int energy, int numPlayers) {
+		if(this.maxMoves == null) {
+			this.maxMoves = new int[numPlayers];
+			this.lastAvenue = new int[numPlayers];
+			this.lastStreet = new int[numPlayers];
+			this.lastSeen = new int[numPlayers];
+		}
+
+		int a = this.getAvenue(), s = this.getStreet();
+		this.model.clear();
+		OpponentView opponents = this.getOpponents();
+		this.model.add(this.getID(), a, s, opponents.get(this.getID()).getHealth(), energy, this.getAttack(), this.getDefence(), this.getNumMoves(), this.turnsWithoutFight);
+
+		for(int rank = 0; rank < opponents.size() && this.model.size() <= NUM_OPPONENTS; rank++) {
+			OppData opp = opponents.getByDistance(rank, a, s);
+			int id = opp.getID();
+			if(id == this.getID() || opp.getHealth() <= 0) {
+				continue;
+			}
+
+			// Only an opponent seen last turn too shows how far it moves in one.
+			if(this.numTurns > 1 && this.lastSeen[id] == this.numTurns - 1) {
+				this.maxMoves[id] = Math.max(this.maxMoves[id], Math.abs(opp.getAvenue() - this.lastAvenue[id]) + Math.abs(opp.getStreet() - this.lastStreet[id]));
+			}
+			this.lastAvenue[id] = opp.getAvenue();
+			this.lastStreet[id] = opp.getStreet();
+			this.lastSeen[id] = this.numTurns;
+
+			int moves = this.estimateMoves(id);
+			int attack = Math.max(1, (POINTS - moves) / 2);
+			int defence = Math.max(1, POINTS - moves - attack);
+			this.model.add(id, opp.getAvenue(), opp.getStreet(), opp.getHealth(), Battle.MAX_ENERGY, attack, defence, moves, 0);
+		}
+	}
+
+	/**
+	 * Guesses an opponent's number of moves.
+	 * @param id The ID of the opponent.
+	 * @return The number of moves.
+	 */
+	private int estimateMoves(int id) {
+		OpponentProfile profile = this.getProfile(id);
+		int moves = Math.max(this.maxMoves[id], profile == null ? 0 : profile.getMaxMoves());
+		return moves > 0 ? Math.min(moves, POINTS - 2) : DEFAULT_MOVES;
+	}
+
+	/**
+	 * Lists what the robot could do this turn: attack an opponent within reach for one round or for as many as it can,
+	 * head for one that's out of reach, stay put, or run from the closest one.
+	 * @param energy The robot's current energy.
+	 */
+	private void listChoices(int energy) {
+		this.numChoices = 0;
+		int a = this.getAvenue(), s = this.getStreet();
+		int budget = this.getMoveBudget(energy);
+
+		this.addChoice(a, s, -1, 0);
+		for(int j = 1; j < this.model.size(); j++) {
+			int oa = this.model.getAvenue(j), os = this.model.getStreet(j);
+			if(Math.abs(oa - a) + Math.abs(os - s) <= budget) {
+				this.addChoice(oa, os, j, 1);
+				this.addChoice(oa, os, j, this.getAttack());
+			} else {
+				int plan = this.planMove(energy, oa, os);
+				this.addChoice(MovePlanner.getAvenue(plan), MovePlanner.getStreet(plan), -1, 0);
+			}
+		}
+
+		// Running straight away from the closest opponent, as far as the arena allows.
+		int awayA = Math.max(0, Math.min(this.getArenaWidth() - 1, a + (a - this.model.getAvenue(1)) * budget));
+		int awayS = Math.max(0, Math.min(this.getArenaHeight() - 1, s + (s - this.model.getStreet(1)) * budget));
+		int plan = this.planMove(energy, awayA, awayS);
+		this.addChoice(MovePlanner.getAvenue(plan), MovePlanner.getStreet(plan), -1, 0);
+	}
+
+	/**
+	 * Adds a choice to the list, unless it's already there.
+	 * @param a The avenue to move to.
+	 * @param s The street to move to.
+	 * @param target The model's index of the opponent to attack, or -1.
+	 * @param rounds The number of rounds to fight.
+	 */
+	private void addChoice(int a, int s, int target, int rounds) {
+		for(int c = 0; c < this.numChoices; c++) {
+			if(this.choiceAvenue[c] == a && this.choiceStreet[c] == s && this.choiceTarget[c] == target && this.choiceRounds[c] == rounds) {
+				return;
+			}
+		}
+		this.choiceAvenue[this.numChoices] = a;
+		this.choiceStreet[this.numChoices] = s;
+		this.choiceTarget[this.numChoices] = target;
+		this.choiceRounds[this.numChoices] = rounds;
+		this.numChoices++;
+	}
+
+	/**
+	 * Plays out every choice in batches until each has had PLAYOUTS playouts, or half the battle's time budget runs out
+	 * if it has one, adding up how well each did in totals. Every choice always gets the same number of playouts, so the
+	 * totals compare fairly. The streams are split here, on the robot's own thread, before any playout starts.
+	 */
+	private void search() {
+		SplittableRandom turn = this.getRandom().split();
+		for(int c = 0; c < this.numChoices; c++) {
+			this.totals[c] = 0;
+			this.streams[c] = turn.split();
+		}
+		long budget = TimeUnit.MILLISECONDS.toNanos(this.getTurnBudget()) / 2;
+		long deadline = System.nanoTime() + budget;
+		for(int played = 0; played < PLAYOUTS; played += BATCH) {
+			ForkJoinPool.commonPool().invoke(new Playouts(this.streams, 0, this.numChoices));
+			if(budget > 0 && System.nanoTime() > deadline) {
+				break;
+			}
+		}
+	}
+
+	/**
+	 * Plays one choice forward HORIZON rounds from the model, with everyone taking their turns after it in order.
+	 * @param playout The model to play in, which is overwritten.
+	 * @param c The choice.
+	 * @param random The stream the playout draws from.
+	 * @return How well off the robot ends up.
+	 */
+	private double playOut(BattleModel playout, int c, SplittableRandom random) {
+		playout.copyFrom(this.model);
+		playout.playTurn(0, this.choiceAvenue[c], this.choiceStreet[c], this.choiceTarget[c], this.choiceRounds[c], random);
+		for(int round = 0; round < HORIZON && playout.getHealth(0) > 0; round++) {
+			for(int i = 1; i < playout.size() && playout.getHealth(0) > 0; i++) {
+				if(playout.getHealth(i) > 0) {
+					chase(playout, i, random);
+				}
+			}
+			if(round < HORIZON - 1 && playout.getHealth(0) > 0) {
+				chase(playout, 0, random);
+			}
+		}
+
+		double opponents = 0;
+		for(int i = 1; i < playout.size(); i++) {
+			opponents += playout.getHealth(i);
+		}
+		return playout.getHealth(0) - OPPONENT_WEIGHT * opponents / (playout.size() - 1);
+	}
+
+	/**
+	 * Plays a turn of a robot in a playout the way a basic fighter would: heading for the closest robot and attacking
+	 * with every round it can if it gets there.
+	 * @param playout The model being played.
+	 * @param i The index of the robot taking its turn.
+	 * @param random The stream the playout draws from.
+	 */
+	private static void chase(BattleModel playout, int i, SplittableRandom random) {
+		int a = playout.getAvenue(i), s = playout.getStreet(i);
+		int target = -1, closest = Integer.MAX_VALUE;
+		for(int j = 0; j < playout.size(); j++) {
+			int distance = Math.abs(playout.getAvenue(j) - a) + Math.abs(playout.getStreet(j) - s);
+			if(j != i && playout.getHealth(j) > 0 && distance < closest) {
+				target = j;
+				closest = distance;
+			}
+		}
+		if(target < 0) {
+			return;
+		}
+
+		int plan = MovePlanner.toward(playout.getBudget(i), a, s, playout.getAvenue(target), playout.getStreet(target));
+		int toA = MovePlanner.getAvenue(plan), toS = MovePlanner.getStreet(plan);
+		if(toA == playout.getAvenue(target) && toS == playout.getStreet(target)) {
+			playout.playTurn(i, toA, toS, target, playout.getAttack(i), random);
+		} else {
+			playout.playTurn(i, toA, toS, -1, 0, random);
+		}
+	}
+
+	/**
+	 * A batch of playouts of a range of choices, split in half until it's down to one choice. Each choice has a model and
+	 * a stream of its own, which its batches carry on drawing from one after the other, so no two tasks share anything
+	 * they write and the results don't depend on which thread plays what.
+	 */
+	private class Playouts extends RecursiveAction {
+		private static final long serialVersionUID = 1L;
+
+		private final SplittableRandom[] streams;
+		private final int from, to;
+
+		Playouts(SplittableRandom[] streams, int from, int to) {
+			this.streams = streams;
+			this.from = from;
+			this.to = to;
+		}
+
+		protected void compute() {
+			if(this.to - this.from > 1) {
+				int middle = (this.from + this.to) >>> 1;
+				invokeAll(new Playouts(this.streams, this.from, middle), new Playouts(this.streams, middle, this.to));
+				return;
+			}
+
+			int c = this.from;
+			SplittableRandom random = this.streams[c];
+			double total = 0;
+			for(int k = 0; k < BATCH; k++) {
+				total += playOut(SearchFighterRobot.this.playouts[c], c, random);
+			}
+			SearchFighterRobot.this.totals[c] += total;
+		}
+	}
+
+	/**
+	 * Overriding the setLable method to display health and turn the robot black once it's dead.
+	 */
+	public void setLabel() {
+		this.setLabel(this.health + " " + this.getID());
+
+		if(this.health == 0)
+			this.setColor(Color.BLACK);
+		else
+			this.setColor(Color.MAGENTA);
+	}
+
+	/**
+	 * Updates the robot's health.
+	 */
+	public void battleResult(int healthLost, int oppID, int oppHealthLost, int numRoundsFought) {
+		this.health -= healthLost;
+	}
+}
@@ -0,0 +1,74 @@
+package robot_war_summative;
+
+import becker.robots.*;
+import java.awt.Color;
+
+/**
+ * Creating a fighter robot that takes its first turn and then never returns from another call, ignoring
+ * interrupts. It is only there to check that a battle with a time budget carries on without it, for
+ * example with
+ *     -headless 1 7 -roster Basic*2,Stuck -budget 20 -simultaneous
+ * or -roster Basic*3,Stuck*2, which plays on once only the stuck robots are left to ask. Without a
+ * budget a battle waits for it forever.
+ */
+
+public class StuckFighterRobot extends FighterRobot {
+	private int health;
+	private boolean called;
+
+	/**
+	 * Constructor to set up the robot.
+	 * @param city The city the robot is in.
+	 * @param street The robot's starting street.
+	 * @param avenue The robot's starting avenue.
+	 * @param dir The robot's starting direction.
+	 * @param id The robot's ID.
+	 * @param health The robot's health.
+	 */
+	public StuckFighterRobot(City city, int street, int avenue, Direction dir, int id, int health) {
+		super(city, street, avenue, dir, id, 3, 6, 1); // Attack = 3, defence = 6, movement = 1
+		this.health = health;
+		this.setLabel();
+	}
+
+	/**
+	 * Overriding the takeTurn method to stay put the first time and loop forever every time after.
+	 * @param energy The robot's current energy.
+	 * @param data An array of opponents.
+	 */
+	public TurnRequest takeTurn(int energy, OppData[] data) {
+		if(this.called) {
+			this.loop();
+		}
+		this.called = true;
+		return new TurnRequest(this.getAvenue(), this.getStreet(), -1, 0);
+	}
+
+	/**
+	 * Spins without ever checking for an interrupt.
+	 */
+	private void loop() {
+		while(true) {
+			Thread.onSpinWait();
+		}
+	}
+
+	/**
+	 * Overriding the setLable method to display health and turn the robot black once it's dead.
+	 */
+	public void setLabel() {
+		this.setLabel(this.health + " " + this.getID());
+
+		if(this.health == 0)
+			this.setColor(Color.BLACK);
+		else
+			this.setColor(Color.GRAY);
+	}
+
+	/**
+	 * Updates the robot's health.
+	 */
+	public void battleResult(int healthLost, int oppID, int oppHealthLost, int numRoundsFought) {
+		this.health -= healthLost;
+	}
+}
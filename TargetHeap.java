@@ -0,0 +1,142 @@
+package robot_war_summative;
+
+import java.util.Arrays;
+
+/**
+ * An indexed min-heap of opponent IDs, ordered by a score kept for each of them. An opponent's score can be
+ * changed or the opponent taken out in O(log n), found by its ID rather than searched for.
+ */
+
+public class TargetHeap {
+	private final int[] heap;	// The IDs in the heap, with the lowest score at the root.
+	private final int[] pos;	// Where each ID is in heap, or -1 if it isn't in it.
+	private final double[] scores;
+	private int size = 0;
+
+	/**
+	 * Constructor to create an empty heap.
+	 * @param numIDs The number of IDs, from 0 up, that can be in the heap.
+	 */
+	public TargetHeap(int numIDs) {
+		this.heap = new int[numIDs];
+		this.pos = new int[numIDs];
+		this.scores = new double[numIDs];
+		Arrays.fill(this.pos, -1);
+	}
+
+	/**
+	 * Returns the number of IDs in the heap.
+	 * @return The size of the heap.
+	 */
+	public int size() {
+		return this.size;
+	}
+
+	/**
+	 * Checks if an ID is in the heap.
+	 * @param id The ID.
+	 * @return True if it is, false if not.
+	 */
+	public boolean contains(int id) {
+		return this.pos[id] >= 0;
+	}
+
+	/**
+	 * Returns the ID at a position of the heap. The children of position i are at 2i + 1 and 2i + 2, and their scores are never lower than its own.
+	 * @param i The position, from 0 to size() - 1.
+	 * @return The ID.
+	 */
+	public int idAt(int i) {
+		return this.heap[i];
+	}
+
+	/**
+	 * Returns the score of an ID in the heap.
+	 * @param id The ID.
+	 * @return Its score.
+	 */
+	public double getScore(int id) {
+		return this.scores[id];
+	}
+
+	/**
+	 * Adds an ID to the heap, or changes its score if it is already in it.
+	 * @param id The ID.
+	 * @param score Its score.
+	 */
+	public void set(int id, double score) {
+		if(this.pos[id] < 0) {
+			this.heap[this.size] = id;
+			this.pos[id] = this.size;
+			this.size++;
+		}
+		else if(this.scores[id] == score) {
+			return;
+		}
+		this.scores[id] = score;
+		this.siftDown(this.siftUp(this.pos[id]));
+	}
+
+	/**
+	 * Takes an ID out of the heap, if it is in it.
+	 * @param id The ID.
+	 */
+	public void remove(int id) {
+		int i = this.pos[id];
+		if(i < 0)
+			return;
+
+		// Moving the last ID into the hole and letting it find its place.
+		this.size--;
+		this.pos[id] = -1;
+		if(i < this.size) {
+			this.place(this.heap[this.size], i);
+			this.siftDown(this.siftUp(i));
+		}
+	}
+
+	/**
+	 * Moves the ID at a position up while it scores lower than its parent.
+	 * @param i The position.
+	 * @return Where the ID ended up.
+	 */
+	private int siftUp(int i) {
+		int id = this.heap[i];
+		while(i > 0 && this.before(id, this.heap[(i - 1) / 2])) {
+			this.place(this.heap[(i - 1) / 2], i);
+			i = (i - 1) / 2;
+		}
+		this.place(id, i);
+		return i;
+	}
+
+	/**
+	 * Moves the ID at a position down while one of its children scores lower.
+	 * @param i The position.
+	 */
+	private void siftDown(int i) {
+		int id = this.heap[i];
+		while(2 * i + 1 < this.size) {
+			int child = 2 * i + 1;
+			if(child + 1 < this.size && this.before(this.heap[child + 1], this.heap[child]))
+				child++;
+			if(!this.before(this.heap[child], id))
+				break;
+			this.place(this.heap[child], i);
+			i = child;
+		}
+		this.place(id, i);
+	}
+
+	/**
+	 * Checks if one ID comes before another, by score and then by the lower ID.
+	 */
+	private boolean before(int id1, int id2) {
+		return this.scores[id1] < this.scores[id2] || (this.scores[id1] == this.scores[id2] && id1 < id2);
+	}
+
+	private void place(int id, int i) {
+		this.heap[i] = id;
+		this.pos[id] = i;
+	}
+}
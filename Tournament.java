@@ -0,0 +1,408 @@
+package robot_war_summative;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Plays many independent headless battles at the same time on a ForkJoinPool and tallies the winners.
+ * Every battle is played with the same BattleConfig, the default one unless the tournament is given
+ * another, and the tally has a row for every player ID of its roster.
+ */
+public class Tournament {
+
+	private static final int GAMES_PER_TASK = 16;	// ranges of games smaller than this are played one after the other by a single task
+
+	private final int numGames;
+	private final int numThreads;
+	private final long seed;
+	private ReplayWriter replay;
+	private OpponentProfiles profiles;
+	private BattleConfig config = BattleConfig.DEFAULT;
+	private boolean measured;
+	private long reportEvery;
+
+	/**
+	 * Sets up a tournament.
+	 * @param numGames		the number of battles to play
+	 * @param numThreads	the number of battles to play at the same time
+	 * @param seed			the seed every battle's own seed is derived from
+	 */
+	public Tournament(int numGames, int numThreads, long seed)
+	{
+		this.numGames = numGames;
+		this.numThreads = numThreads;
+		this.seed = seed;
+	}
+
+	/**
+	 * Records every battle of the tournament into a replay archive, which is shared by all the threads.
+	 * @param replay	the archive to record into, or null to not record
+	 * @return	this tournament
+	 */
+	public Tournament recordTo(ReplayWriter replay)
+	{
+		this.replay = replay;
+		return this;
+	}
+
+	/**
+	 * Lets the robots of every battle learn from the profiles of their opponents' classes, and adds what
+	 * every battle shows to the profiles once it is over.  A battle then also depends on the battles that
+	 * ended before it started, so the tournament only plays out the same every time on one thread.
+	 * @param profiles	the store of profiles, which is shared by all the threads, or null to not learn
+	 * @return	this tournament
+	 */
+	public Tournament learnFrom(OpponentProfiles profiles)
+	{
+		this.profiles = profiles;
+		return this;
+	}
+
+	/**
+	 * Plays every battle with a configuration: the size of the arena, the roster, the robots' time budget and how
+	 * the turns and fights are played.
+	 * @param config	the configuration of every battle
+	 * @return	this tournament
+	 */
+	public Tournament withConfig(BattleConfig config)
+	{
+		this.config = config;
+		return this;
+	}
+
+	/**
+	 * Gives the robots of every battle a time budget for each call, so a slow robot can not hold up the tournament.
+	 * The rest of the configuration stays as it was.
+	 * @param turnBudget	the longest a robot may take over a call, in milliseconds, or 0 for no limit
+	 * @return	this tournament
+	 */
+	public Tournament withTurnBudget(long turnBudget)
+	{
+		this.config = new BattleConfig(this.config.getWidth(), this.config.getHeight(), this.config.getRoster(), turnBudget,
+				this.config.isSimultaneous(), this.config.isRoundByRound());
+		return this;
+	}
+
+	/**
+	 * Counts how every battle plays out into the Distributions of each class of robot, which are printed
+	 * with the result and, if asked for, every so often while the tournament runs.
+	 * @param reportEvery	the seconds between reports while the tournament runs, or 0 to only report at the end
+	 * @return	this tournament
+	 */
+	public Tournament withDistributions(long reportEvery)
+	{
+		this.measured = true;
+		this.reportEvery = reportEvery;
+		return this;
+	}
+
+	/**
+	 * Derives the seed of one game from the tournament's seed.  It only depends on the game's number,
+	 * so a game plays out the same no matter which thread plays it or how many threads there are.
+	 * @param seed	the tournament's seed
+	 * @param game	the number of the game
+	 * @return	the seed of the game
+	 */
+	static long gameSeed(long seed, int game)
+	{
+		return new SplittableRandom(seed + game * 0x9E3779B97F4A7C15L).nextLong();
+	}
+
+	/**
+	 * Plays every battle of the tournament and waits for them to finish.
+	 * @return	the combined result of all the battles
+	 */
+	public Result run()
+	{
+		ForkJoinPool pool = new ForkJoinPool(this.numThreads);
+		Measurements measurements = this.measured ? new Measurements(this.reportEvery > 0) : null;
+		ScheduledExecutorService reporter = null;
+		if (measurements != null && this.reportEvery > 0)
+		{
+			reporter = Executors.newSingleThreadScheduledExecutor(task -> {
+				Thread thread = new Thread(task, "tournament-report");
+				thread.setDaemon(true);
+				return thread;
+			});
+			reporter.scheduleAtFixedRate(measurements::report, this.reportEvery, this.reportEvery, TimeUnit.SECONDS);
+		}
+
+		long start = System.nanoTime();
+		try
+		{
+			Result result = pool.invoke(new Games(this.seed, this.replay, this.profiles, this.config, measurements, 0, this.numGames));
+			result.nanos = System.nanoTime() - start;
+			if (measurements != null)
+				result.distributions = measurements.merge();
+			return result;
+		}
+		finally
+		{
+			if (reporter != null)
+				reporter.shutdownNow();
+			pool.shutdown();
+		}
+	}
+
+	/**
+	 * A range of games, split in half until it is small enough to play directly.
+	 */
+	private static class Games extends RecursiveTask<Result>
+	{
+		private static final long serialVersionUID = 1L;
+
+		private final long seed;
+		private final ReplayWriter replay;
+		private final OpponentProfiles profiles;
+		private final BattleConfig config;
+		private final Measurements measurements;
+		private final int from;
+		private final int to;
+
+		Games(long seed, ReplayWriter replay, OpponentProfiles profiles, BattleConfig config, Measurements measurements, int from, int to)
+		{
+			this.seed = seed;
+			this.replay = replay;
+			this.profiles = profiles;
+			this.config = config;
+			this.measurements = measurements;
+			this.from = from;
+			this.to = to;
+		}
+
+		protected Result compute()
+		{
+			if (this.to - this.from <= GAMES_PER_TASK)
+			{
+				Result result = new Result(this.config.getNumPlayers());
+				Measurements.Worker worker = this.measurements != null ? this.measurements.forThread() : null;
+				for (int g = this.from; g < this.to; g++)
+				{
+					Battle battle = new Battle(true, gameSeed(this.seed, g), BattleLog.SILENT, this.config);
+					if (this.replay != null)
+						battle.recordTo(this.replay);
+					if (this.profiles != null)
+						battle.learnFrom(this.profiles);
+					if (worker != null)
+						battle.measureInto(worker.live);
+					result.add(battle, battle.play());
+				}
+				if (worker != null)
+					this.measurements.publish(worker, this.to - this.from);
+				return result;
+			}
+
+			int middle = (this.from + this.to) >>> 1;
+			Games left = new Games(this.seed, this.replay, this.profiles, this.config, this.measurements, this.from, middle);
+			left.fork();
+			Result result = new Games(this.seed, this.replay, this.profiles, this.config, this.measurements, middle, this.to).compute();
+			result.merge(left.join());
+			return result;
+		}
+	}
+
+	/**
+	 * The distributions of a tournament.  Every worker thread counts into a set of its own, so counting
+	 * never waits on a lock, and they are only merged once the tournament is over.  To report while it
+	 * runs, each worker also publishes a copy of its set after every range of games it plays, which the
+	 * reporter merges instead of reading the sets still being written.
+	 */
+	private static class Measurements
+	{
+		private final boolean published;
+		private final ConcurrentLinkedQueue<Worker> workers = new ConcurrentLinkedQueue<Worker>();
+		private final ThreadLocal<Worker> local = ThreadLocal.withInitial(() -> {
+			Worker worker = new Worker();
+			this.workers.add(worker);
+			return worker;
+		});
+		private final long start = System.nanoTime();
+
+		/**
+		 * @param published	true if the workers publish copies for reports while the tournament runs
+		 */
+		Measurements(boolean published)
+		{
+			this.published = published;
+		}
+
+		Worker forThread()
+		{
+			return this.local.get();
+		}
+
+		void publish(Worker worker, int games)
+		{
+			worker.games += games;
+			if (this.published)
+				worker.copy = new Published(worker.live.copy(), worker.games);
+		}
+
+		/**
+		 * Prints the distributions published so far.
+		 */
+		void report()
+		{
+			Distributions merged = new Distributions();
+			int games = 0;
+			for (Worker worker : this.workers)
+			{
+				Published copy = worker.copy;
+				if (copy != null)
+				{
+					merged.merge(copy.distributions);
+					games += copy.games;
+				}
+			}
+			System.out.format("Distributions after %d games in %.0f s%n", games, (System.nanoTime() - this.start) / 1e9);
+			merged.print();
+		}
+
+		/**
+		 * Merges the sets of every worker, once they have all finished.
+		 */
+		Distributions merge()
+		{
+			Distributions merged = new Distributions();
+			for (Worker worker : this.workers)
+				merged.merge(worker.live);
+			return merged;
+		}
+
+		/**
+		 * The set a worker thread counts into, and the copy it last published.
+		 */
+		static class Worker
+		{
+			final Distributions live = new Distributions();
+			int games;
+			volatile Published copy;
+		}
+
+		/**
+		 * A copy of a worker's set, which is never written once published.
+		 */
+		static class Published
+		{
+			final Distributions distributions;
+			final int games;
+
+			Published(Distributions distributions, int games)
+			{
+				this.distributions = distributions;
+				this.games = games;
+			}
+		}
+	}
+
+	/**
+	 * The number of wins and the statistics of each player ID over a set of battles.  The statistics of
+	 * each battle are merged in once it is over, so a result stays the same size however many it covers.
+	 */
+	public static class Result
+	{
+		private final int[] wins;
+		private final String[] names;
+		private final PlayerStats[] stats;
+		private Distributions distributions;
+		private int games;
+		private long turns;
+		private long nanos;
+
+		private Result(int numPlayers)
+		{
+			this.wins = new int[numPlayers];
+			this.names = new String[numPlayers];
+			this.stats = new PlayerStats[numPlayers];
+			for (int i = 0; i < numPlayers; i++)
+				this.stats[i] = new PlayerStats();
+		}
+
+		private void add(Battle battle, int numTurns)
+		{
+			for (int i = 0; i < this.wins.length; i++)
+			{
+				this.names[i] = battle.getPlayer(i).getClass().getSimpleName();
+				this.stats[i].merge(battle.getStats(i));
+			}
+
+			int winner = battle.getWinner();
+			if (winner >= 0)
+				this.wins[winner] ++;
+			this.games ++;
+			this.turns += numTurns;
+		}
+
+		private void merge(Result other)
+		{
+			for (int i = 0; i < this.wins.length; i++)
+			{
+				this.wins[i] += other.wins[i];
+				this.stats[i].merge(other.stats[i]);
+				if (this.names[i] == null)
+					this.names[i] = other.names[i];
+			}
+			this.games += other.games;
+			this.turns += other.turns;
+		}
+
+		/**
+		 * Returns the number of battles won by a player ID.
+		 * @param id	the ID of the player
+		 * @return	the number of wins
+		 */
+		public int getWins(int id)
+		{
+			return this.wins[id];
+		}
+
+		/**
+		 * Returns the statistics of a player ID added up over every battle.
+		 * @param id	the ID of the player
+		 * @return	the statistics
+		 */
+		public PlayerStats getStats(int id)
+		{
+			return this.stats[id];
+		}
+
+		/**
+		 * Returns the distributions of every class of robot over every battle.
+		 * @return	the distributions, or null if the tournament was not measured
+		 */
+		public Distributions getDistributions()
+		{
+			return this.distributions;
+		}
+
+		/**
+		 * Returns the number of battles played.
+		 * @return	the number of battles
+		 */
+		public int getGames()
+		{
+			return this.games;
+		}
+
+		/**
+		 * Prints out the wins, kills and penalties of every player ID and how fast the battles were played.
+		 */
+		public void print()
+		{
+			System.out.format("%-5s%-22s%-10s%-10s%-14s%-14s%n", "ID", "Robot", "Wins", "Win %", "Kills/game", "Penalty/game");
+			for (int i = 0; i < this.wins.length; i++)
+				System.out.format("%-5d%-22s%-10d%-10.1f%-14.2f%-14.2f%n", i, this.names[i], this.wins[i], 100.0 * this.wins[i] / this.games,
+						(double) this.stats[i].getNumKills() / this.games, (double) this.stats[i].getNumPenalties() / this.games);
+
+			double seconds = this.nanos / 1e9;
+			System.out.format("Played %d games, %d turns in %.3f s (%.0f turns/s)%n", this.games, this.turns, seconds, this.turns / seconds);
+			if (this.distributions != null)
+				this.distributions.print();
+		}
+	}
+}
@@ -0,0 +1,314 @@
+package robot_war_summative;
+
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Calls the robots of a battle on threads of their own and stops waiting for a call once it has taken
+ * longer than the battle's time budget, so one slow or stuck robot can only cost the battle that much
+ * time per call.
+ *
+ * A call that overran is interrupted and left to finish on its own, as Java can not stop a thread that
+ * does not check for interruption.  Until it has finished, the robot's later calls are counted as overrunning straight
+ * away, so a stuck robot ties up one thread and is never called twice at the same time.  The threads
+ * are ordinary daemon threads rather than virtual threads: a virtual thread stuck in a loop would hold
+ * on to the carrier thread under it, and a few stuck robots could stall every other robot's calls.
+ *
+ * In a simultaneous battle the timer also asks every robot for its turn at once, with or without a
+ * budget.  It keeps as many calls running as there are processors, so each call has a processor to
+ * itself and is timed from when it is started rather than from when the round started.
+ */
+class TurnTimer {
+
+	private static final int PARALLELISM = Runtime.getRuntime().availableProcessors();
+	private static final AtomicInteger threadCount = new AtomicInteger();
+	private static final ExecutorService robots = Executors.newCachedThreadPool(task -> {
+		Thread thread = new Thread(task, "robot-" + threadCount.incrementAndGet());
+		thread.setDaemon(true);
+		return thread;
+	});
+
+	private final long budget;				// the longest a call may take, in nanoseconds, or 0 for no limit
+	private final Call<?>[] overran;		// the call of each player that overran and may still be running, or null
+
+	/**
+	 * Creates a timer for the robots of a battle.
+	 * @param budget		the longest a call may take, in milliseconds, or 0 for no limit
+	 * @param numPlayers	the number of players in the battle
+	 */
+	TurnTimer(long budget, int numPlayers)
+	{
+		this.budget = TimeUnit.MILLISECONDS.toNanos(budget);
+		this.overran = new Call<?>[numPlayers];
+	}
+
+	/**
+	 * Tells whether the calls are limited by a budget.  Without one, only takeTurns is of any use, as a
+	 * single call may just as well be made directly.
+	 * @return	true if calls that take longer than the budget are given up on
+	 */
+	boolean isTimed()
+	{
+		return this.budget > 0;
+	}
+
+	/**
+	 * Asks a robot for its turn.
+	 * @param robot		the robot
+	 * @param energy	its energy
+	 * @param data		the records of every player
+	 * @return	the robot's request, or null if it took longer than the budget
+	 */
+	TurnRequest takeTurn(FighterRobot robot, int energy, OppData[] data)
+	{
+		return this.call(robot, () -> EngineEvents.takeTurn(robot, energy, data));
+	}
+
+	/**
+	 * Asks several robots for their turns at the same time.  The notes each robot writes are held for
+	 * the battle to pass on when it plays the robot's turn.
+	 * @param player	every robot of the battle, indexed by ID
+	 * @param ids		the IDs of the robots to ask, in the order to start their calls
+	 * @param count		the number of robots to ask
+	 * @param energy	the energy of every robot, indexed by ID
+	 * @param data		the array of records each robot is handed, indexed by ID
+	 * @param requests	where to put each robot's request, indexed by ID, or null if it took longer than the budget
+	 */
+	void takeTurns(FighterRobot[] player, int[] ids, int count, int[] energy, OppData[][] data, TurnRequest[] requests)
+	{
+		BlockingQueue<Call<?>> done = new LinkedBlockingQueue<Call<?>>();
+		Call<?>[] running = new Call<?>[Math.max(1, Math.min(PARALLELISM, count))];
+		int numRunning = 0;
+		int next = 0;
+		try
+		{
+			while (next < count || numRunning > 0)
+			{
+				while (next < count && numRunning < running.length)
+				{
+					FighterRobot robot = player[ids[next++]];
+					int id = robot.getID();
+					requests[id] = null;
+					if (!this.isFree(robot))
+						continue;
+					int robotEnergy = energy[id];
+					OppData[] robotData = data[id];
+					Call<TurnRequest> call = new Call<TurnRequest>(() -> EngineEvents.takeTurn(robot, robotEnergy, robotData), done);
+					call.id = id;
+					call.deadline = System.nanoTime() + this.budget;
+					call.result = robots.submit(call);
+					running[numRunning++] = call;
+				}
+				// the robots left may all still be stuck in calls that overran in an earlier round, and have nothing to wait for
+				if (numRunning == 0)
+					break;
+
+				Call<?> finished;
+				if (this.budget == 0)
+					finished = done.take();
+				else
+				{
+					long deadline = running[0].deadline;
+					for (int k = 1; k < numRunning; k++)
+						deadline = Math.min(deadline, running[k].deadline);
+					finished = done.poll(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+				}
+
+				if (finished != null)
+				{
+					// a call that overran earlier in the round may still report in, and is no longer waited for
+					for (int k = 0; k < numRunning; k++)
+					{
+						if (running[k] == finished)
+						{
+							running[k] = running[--numRunning];
+							running[numRunning] = null;
+							requests[finished.id] = (TurnRequest) finished.result.get();
+							break;
+						}
+					}
+				}
+				else
+				{
+					long now = System.nanoTime();
+					for (int k = numRunning - 1; k >= 0; k--)
+					{
+						if (running[k].deadline - now <= 0)
+						{
+							running[k].interrupt();
+							this.overran[running[k].id] = running[k];
+							running[k] = running[--numRunning];
+							running[numRunning] = null;
+						}
+					}
+				}
+			}
+		}
+		catch (ExecutionException e)
+		{
+			throw rethrow(e);
+		}
+		catch (InterruptedException e)
+		{
+			for (int k = 0; k < numRunning; k++)
+			{
+				running[k].interrupt();
+				this.overran[running[k].id] = running[k];
+			}
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("Interrupted while waiting for the robots' turns", e);
+		}
+	}
+
+	/**
+	 * Tells a robot the result of a fight.
+	 * @param robot				the robot
+	 * @param healthLost		the health it lost
+	 * @param oppID				the ID of its opponent
+	 * @param oppHealthLost		the health its opponent lost
+	 * @param numRoundsFought	the number of rounds fought
+	 * @return	false if it took longer than the budget
+	 */
+	boolean battleResult(FighterRobot robot, int healthLost, int oppID, int oppHealthLost, int numRoundsFought)
+	{
+		return this.call(robot, () -> {
+			robot.battleResult(healthLost, oppID, oppHealthLost, numRoundsFought);
+			return Boolean.TRUE;
+		}) != null;
+	}
+
+	/**
+	 * Runs a call to a robot and waits for it for no longer than the budget.  The notes the robot wrote
+	 * during a call that finished in time are passed on to the battle's log, while those of a call that
+	 * overran are dropped.
+	 * @return	what the call returned, or null if it overran
+	 */
+	private <T> T call(FighterRobot robot, Callable<T> task)
+	{
+		int id = robot.getID();
+		if (!this.isFree(robot))
+			return null;
+
+		Call<T> call = new Call<T>(task, null);
+		Future<T> result = robots.submit(call);
+		try
+		{
+			T value = this.budget == 0 ? result.get() : result.get(this.budget, TimeUnit.NANOSECONDS);
+			robot.flushNotes(true);
+			return value;
+		}
+		catch (TimeoutException e)
+		{
+			call.interrupt();
+			this.overran[id] = call;
+			return null;
+		}
+		catch (ExecutionException e)
+		{
+			throw rethrow(e);
+		}
+		catch (InterruptedException e)
+		{
+			call.interrupt();
+			this.overran[id] = call;
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("Interrupted while waiting for robot " + id, e);
+		}
+	}
+
+	/**
+	 * Tells whether a robot can be called, which it can not while a call that overran is still running.
+	 * Once that call has finished, the notes it wrote are dropped.
+	 */
+	private boolean isFree(FighterRobot robot)
+	{
+		int id = robot.getID();
+		if (this.overran[id] != null)
+		{
+			if (!this.overran[id].isFinished())
+				return false;
+			this.overran[id] = null;
+			robot.flushNotes(false);
+		}
+		return true;
+	}
+
+	/**
+	 * Returns what a robot threw, so a robot that throws breaks the battle the same way it would without a budget.
+	 */
+	private static RuntimeException rethrow(ExecutionException e)
+	{
+		if (e.getCause() instanceof RuntimeException)
+			return (RuntimeException) e.getCause();
+		if (e.getCause() instanceof Error)
+			throw (Error) e.getCause();
+		return new IllegalStateException(e.getCause());
+	}
+
+	/**
+	 * A call to a robot that knows when it has really finished.  The Future of a call can not tell, as
+	 * cancelling it marks it done while the robot may still be running.
+	 */
+	private static class Call<T> implements Callable<T>
+	{
+		private final Callable<T> task;
+		private final BlockingQueue<Call<?>> done;	// where the call reports that it finished, or null
+		private Thread runner;				// the thread running the call, guarded by this
+		private volatile boolean finished;
+		int id;								// the ID of the robot, for a call made by takeTurns
+		long deadline;						// when the call overruns, by System.nanoTime
+		Future<T> result;
+
+		Call(Callable<T> task, BlockingQueue<Call<?>> done)
+		{
+			this.task = task;
+			this.done = done;
+		}
+
+		public T call() throws Exception
+		{
+			synchronized (this)
+			{
+				this.runner = Thread.currentThread();
+			}
+			try
+			{
+				return this.task.call();
+			}
+			finally
+			{
+				synchronized (this)
+				{
+					this.runner = null;
+					this.finished = true;
+				}
+				// an interrupt that came too late for this call must not reach the next one on the thread
+				Thread.interrupted();
+				if (this.done != null)
+					this.done.add(this);
+			}
+		}
+
+		/**
+		 * Interrupts the robot if it is still running, in case it is waiting on something.
+		 */
+		synchronized void interrupt()
+		{
+			if (this.runner != null)
+				this.runner.interrupt();
+		}
+
+		boolean isFinished()
+		{
+			return this.finished;
+		}
+	}
+}
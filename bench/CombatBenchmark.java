@@ -0,0 +1,75 @@
+package robot_war_summative;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Times the dice: one round from the precomputed tables, one round rolled die by die as it is when the
+ * fights are played round by round, and a whole fight resolved with one draw.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class CombatBenchmark {
+
+	@Param({"1", "3", "6"})
+	public int attackDice;
+
+	@Param({"1", "3", "6"})
+	public int defenceDice;
+
+	private SplittableRandom random;
+	private int[] attackRolls;
+	private int[] defenceRolls;
+
+	@Setup
+	public void setUp()
+	{
+		this.random = new SplittableRandom(42);
+		this.attackRolls = new int[this.attackDice];
+		this.defenceRolls = new int[this.defenceDice];
+	}
+
+	/**
+	 * One round, drawn from the tables of CombatResolver.
+	 */
+	@Benchmark
+	public int tableRound()
+	{
+		return CombatResolver.roll(this.random, this.attackDice, this.defenceDice);
+	}
+
+	/**
+	 * One round, rolling every die into reused arrays as a fight played round by round does.
+	 */
+	@Benchmark
+	public int rolledRound()
+	{
+		int attackerHighest = CombatResolver.rollDice(this.random, this.attackRolls, this.attackDice);
+		int defenderHighest = CombatResolver.rollDice(this.random, this.defenceRolls, this.defenceDice);
+		return CombatResolver.compare(attackerHighest, defenderHighest);
+	}
+
+	/**
+	 * A whole fight of as many rounds as the attacker has dice, between two fresh robots.
+	 */
+	@Benchmark
+	public int resolvedFight()
+	{
+		return FightResolver.resolve(this.random, this.attackDice, this.defenceDice, this.attackDice, 100, 100, 100, 100);
+	}
+}
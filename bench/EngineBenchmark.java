@@ -0,0 +1,115 @@
+package robot_war_summative;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Times the battle itself: checking and playing a single turn, playing a recorded game again without
+ * the robots, and a whole headless game with them.
+ *
+ * Run with the JMH runner, for example "-rf json -rff engine.json", to get results that can be
+ * compared between versions.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class EngineBenchmark {
+
+	private static final int RECORDED_GAMES = 64;
+
+	private long seed;
+	private Battle battle;
+	private TurnRequest missedRequest;
+	private Path archive;
+	private ReplayReader replay;
+	private ReplayVerifier verifier;
+
+	@Setup(Level.Trial)
+	public void recordGames() throws IOException
+	{
+		this.archive = Files.createTempFile("engine-benchmark", ".rwr");
+		try (ReplayWriter writer = new ReplayWriter(this.archive))
+		{
+			for (int g = 0; g < RECORDED_GAMES; g++)
+			{
+				Battle game = new Battle(true, Tournament.gameSeed(7, g));
+				game.recordTo(writer);
+				game.play();
+			}
+		}
+		this.replay = new ReplayReader(this.archive);
+		this.verifier = new ReplayVerifier(this.replay);
+	}
+
+	@Setup(Level.Iteration)
+	public void setUpBattle()
+	{
+		// Player 0 stays where it is and asks to fight a player somewhere else.  Every check of the
+		// request passes and it is only told it missed its opponent, which costs it nothing, so the
+		// same turn can be played over and over.
+		this.battle = new Battle(true, 7);
+		FighterRobot self = this.battle.getPlayer(0);
+		int other = 1;
+		while (this.battle.getPlayer(other).getAvenue() == self.getAvenue() && this.battle.getPlayer(other).getStreet() == self.getStreet())
+			other ++;
+		this.missedRequest = new TurnRequest(self.getAvenue(), self.getStreet(), other, 1);
+	}
+
+	@TearDown(Level.Trial)
+	public void deleteGames() throws IOException
+	{
+		this.replay.close();
+		Files.deleteIfExists(this.archive);
+	}
+
+	/**
+	 * One turn through every check of doTurn, the move and the energy given out at the end of the turn.
+	 */
+	@Benchmark
+	public Battle checkedTurn()
+	{
+		this.battle.playTurn(0, this.missedRequest, false);
+		return this.battle;
+	}
+
+	/**
+	 * One recorded game played again from its requests, without the robots or their decisions.
+	 */
+	@Benchmark
+	public boolean recordedGame() throws IOException
+	{
+		if (!this.replay.nextGame())
+		{
+			this.replay.rewind();
+			this.replay.nextGame();
+		}
+		return this.verifier.verify();
+	}
+
+	/**
+	 * One whole headless game of the default roster, from setting up the robots to the last turn.
+	 */
+	@Benchmark
+	@OutputTimeUnit(TimeUnit.MILLISECONDS)
+	public int headlessGame()
+	{
+		return new Battle(true, this.seed++).play();
+	}
+}
@@ -0,0 +1,86 @@
+package robot_war_summative;
+
+import becker.robots.City;
+import becker.robots.Direction;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Times one robot deciding its turn in a battle of a number of players in an arena of a given size,
+ * with a share of its opponents still alive.  The opponents are only positions in an OpponentSnapshot,
+ * so nothing but the robot's own takeTurn is timed.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class TakeTurnBenchmark {
+
+	@Param({"Basic", "Swift", "Tank", "Deng", "Search"})
+	public String robot;
+
+	@Param({"6", "1000", "5000"})
+	public int players;
+
+	@Param({"20x12", "200x200"})
+	public String arena;
+
+	@Param({"33", "100"})
+	public int percentAlive;			// the share of the players alive, though never fewer than two
+
+	private FighterRobot player;
+	private OppData[] data;
+
+	@Setup
+	public void setUp()
+	{
+		BattleConfig config = BattleConfig.parse(this.arena, Roster.parse(this.robot + "*" + this.players), 0, false, false);
+		int numPlayers = config.getNumPlayers();
+		int width = config.getWidth();
+		int height = config.getHeight();
+		int alive = Math.max(2, numPlayers * this.percentAlive / 100);
+		SplittableRandom random = new SplittableRandom(42);
+		int[] avenue = new int[numPlayers];
+		int[] street = new int[numPlayers];
+		int[] health = new int[numPlayers];
+		Direction[] direction = new Direction[numPlayers];
+		for (int i = 0; i < numPlayers; i++)
+		{
+			avenue[i] = random.nextInt(width);
+			street[i] = random.nextInt(height);
+			health[i] = i < alive ? 1 + random.nextInt(100) : 0;
+			direction[i] = Direction.NORTH;
+		}
+
+		City.showFrame(false);
+		City city = new City(height, width);
+		this.player = config.getRoster().create(0, city, street[0], avenue[0], 100);
+		this.player.runHeadless(avenue, street, direction);
+		this.player.useArena(width, height, numPlayers);
+		this.player.useRandom(random.split());
+
+		OpponentSnapshot opponents = new OpponentSnapshot(numPlayers, width, height);
+		opponents.refresh(avenue, street, health);
+		this.player.useOpponents(opponents);
+		this.data = opponents.copyInto(new OppData[numPlayers]);
+	}
+
+	@Benchmark
+	public TurnRequest takeTurn()
+	{
+		return this.player.takeTurn(80, this.data);
+	}
+}